@@ -0,0 +1,370 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.seq.AbstractSeq;
+import org.abego.commons.seq.Seq;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+import static org.abego.commons.seq.SeqUtil.emptySeq;
+
+/**
+ * An append-only sequence of items that can be read without locking.
+ *
+ * <p>The items are stored in chunks of geometrically growing size
+ * (16, 32, 64, ... slots). Chunks are never copied or moved, so a slot,
+ * once written, never changes.</p>
+ *
+ * <p>A writer reserves a slot with an atomic increment and stores its item
+ * in the slot, marked as "pending" ({@link #add(Object)}). When the item is
+ * ready (e.g. after the writer updated other data structures referring to
+ * it) the writer publishes its item ({@link #publish(int, ObjIntConsumer)}):
+ * it removes the "pending" mark and advances the volatile <code>size</code>
+ * (using compare-and-set) over all consecutive ready slots. When an earlier
+ * slot is not ready yet the writer waits (yielding and finally parking
+ * for short periods) until the writer of that slot published it,
+ * helping to publish the ready slots while waiting. So when
+ * {@link #publish(int, ObjIntConsumer)} returns the item is visible to
+ * readers. A reader only needs to read <code>size</code> to get a
+ * consistent snapshot of all items at indices <code>&lt; size</code>.</p>
+ *
+ * <p>Every item is passed to the "published item handler" of the writer
+ * that advanced <code>size</code> over the item, i.e. after the item is
+ * visible to readers, exactly once.</p>
+ */
+final class AppendOnlyArray<T> {
+    private static final int FIRST_CHUNK_SHIFT = 4;
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_SHIFT;
+    // enough chunks to cover all int indices
+    private static final int MAX_CHUNK_COUNT = 32 - FIRST_CHUNK_SHIFT;
+
+    // stands for a <code>null</code> item, as an empty slot is <code>null</code>
+    private static final Object NULL_ITEM = new Object();
+
+    // how a writer waits for the writers of earlier slots
+    private static final int MAX_YIELD_COUNT = 100;
+    private static final long PARK_NANOS = 10_000;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Object>> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNK_COUNT);
+    private final AtomicInteger reservedCount = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private AppendOnlyArray() {
+        // empty
+    }
+
+    static <T> AppendOnlyArray<T> newAppendOnlyArray() {
+        return new AppendOnlyArray<>();
+    }
+
+    /**
+     * Return the number of published items.
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Return the number of items added or currently being added.
+     */
+    int reservedCount() {
+        return Math.max(0, reservedCount.get());
+    }
+
+    /**
+     * Return the item at <code>index</code>.
+     *
+     * <p><code>index</code> must be less than a value previously returned
+     * by {@link #size()} or {@link #add(Object)}, i.e. the item at
+     * <code>index</code> may still be pending.</p>
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        Object item = slot(index);
+        if (item instanceof Pending) {
+            return (T) ((Pending) item).item;
+        }
+        return item == NULL_ITEM ? null : (T) item;
+    }
+
+    /**
+     * Return the last item at an index <code>&lt; end</code> that matches
+     * the <code>condition</code>, or <code>null</code> when no such item
+     * exists.
+     *
+     * <p><code>end</code> must not be greater than a value previously
+     * returned by {@link #size()}.</p>
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    T lastItemWithOrNull(int end, Predicate<T> condition) {
+        if (end <= 0) {
+            return null;
+        }
+        int chunkIndex = chunkIndexOf(end - 1);
+        int offset = end - 1 - chunkStartOf(chunkIndex);
+        while (chunkIndex >= 0) {
+            AtomicReferenceArray<Object> chunk = chunks.get(chunkIndex);
+            for (int i = offset; i >= 0; i--) {
+                Object o = chunk.get(i);
+                T item = o == NULL_ITEM ? null : (T) o;
+                if (condition.test(item)) {
+                    return item;
+                }
+            }
+            chunkIndex--;
+            offset = (FIRST_CHUNK_SIZE << chunkIndex) - 1;
+        }
+        return null;
+    }
+
+    /**
+     * Append the <code>item</code>, without publishing it, and return its
+     * index.
+     *
+     * <p>Call {@link #publish(int, ObjIntConsumer)} with the returned index
+     * when the item is ready.</p>
+     */
+    int add(T item) {
+        int index = reservedCount.getAndIncrement();
+        if (index < 0) {
+            reservedCount.set(Integer.MIN_VALUE);
+            throw new IllegalStateException("Too many items"); //NON-NLS
+        }
+        int chunkIndex = chunkIndexOf(index);
+        chunkAt(chunkIndex).set(index - chunkStartOf(chunkIndex), new Pending(item));
+        return index;
+    }
+
+    /**
+     * Publish the item at <code>index</code>, i.e. make it (and all ready
+     * items following it) visible to readers, as soon as all items before
+     * it are published.
+     *
+     * <p>Returns when the item is visible to readers, i.e. may wait for
+     * other writers still working on items before it.</p>
+     *
+     * <p>Call <code>publishedItemHandler</code> for every item this call
+     * publishes (possibly including items added by other writers), passing
+     * the item and its index. When the handler throws a
+     * {@link RuntimeException} the remaining items are still passed to the
+     * handler and the (first) exception is rethrown at the end.</p>
+     */
+    void publish(int index, ObjIntConsumer<T> publishedItemHandler) {
+        int chunkIndex = chunkIndexOf(index);
+        @Nullable Object slot = slot(index);
+        if (!(slot instanceof Pending)) {
+            throw new IllegalStateException("Item not pending: " + index); //NON-NLS
+        }
+        @Nullable Object item = ((Pending) slot).item;
+        chunkAt(chunkIndex).set(index - chunkStartOf(chunkIndex),
+                item == null ? NULL_ITEM : item);
+
+        @Nullable RuntimeException exception =
+                publishReadySlots(publishedItemHandler, null);
+        int waitCount = 0;
+        while (size.get() <= index) {
+            // an earlier slot is not ready yet. Wait for its writer, but
+            // also keep publishing, as the writer of the earlier slot may
+            // be done before this item was ready.
+            if (waitCount < MAX_YIELD_COUNT) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            waitCount++;
+            exception = publishReadySlots(publishedItemHandler, exception);
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Call the <code>action</code> for every item already stored in this
+     * array, passing the item and its index, including items not yet
+     * published.
+     *
+     * <p>An item added after this method returns has a slot that was not
+     * filled when this method checked it.</p>
+     */
+    @SuppressWarnings("unchecked")
+    void forEachStoredItem(ObjIntConsumer<T> action) {
+        int n = reservedCount();
+        for (int i = 0; i < n; i++) {
+            @Nullable Object o = slot(i);
+            if (o instanceof Pending) {
+                o = ((Pending) o).item;
+                action.accept((T) o, i);
+            } else if (o != null) {
+                action.accept(o == NULL_ITEM ? null : (T) o, i);
+            }
+        }
+    }
+
+    /**
+     * Advance <code>size</code> over all ready slots following it and pass
+     * the items published by this call to the
+     * <code>publishedItemHandler</code>.
+     *
+     * <p>Return the first exception thrown by the handler, with later ones
+     * added as suppressed exceptions, starting with <code>exception</code>
+     * (may be <code>null</code>).</p>
+     */
+    @Nullable
+    private RuntimeException publishReadySlots(
+            ObjIntConsumer<T> publishedItemHandler,
+            @Nullable RuntimeException exception) {
+        int n = size.get();
+        while (n < reservedCount.get() && isReady(slot(n))) {
+            if (size.compareAndSet(n, n + 1)) {
+                try {
+                    publishedItemHandler.accept(get(n), n);
+                } catch (RuntimeException e) {
+                    if (exception == null) {
+                        exception = e;
+                    } else {
+                        exception.addSuppressed(e);
+                    }
+                }
+            }
+            n = size.get();
+        }
+        return exception;
+    }
+
+    private static boolean isReady(@Nullable Object slot) {
+        return slot != null && !(slot instanceof Pending);
+    }
+
+    /**
+     * Return the content of the slot at <code>index</code>, or
+     * <code>null</code> when the slot is not (yet) filled.
+     */
+    @Nullable
+    private Object slot(int index) {
+        int chunkIndex = chunkIndexOf(index);
+        @Nullable AtomicReferenceArray<Object> chunk = chunks.get(chunkIndex);
+        return chunk == null ? null : chunk.get(index - chunkStartOf(chunkIndex));
+    }
+
+    /**
+     * Return the items at the indices <code>start</code> (inclusive) to
+     * <code>end</code> (exclusive) as a {@link Seq}.
+     *
+     * <p>The Seq directly accesses the chunks (no copy). As published items
+     * never change the Seq is immutable.</p>
+     */
+    Seq<T> items(int start, int end) {
+        return start >= end ? emptySeq() : new ItemsSeq<>(this, start, end);
+    }
+
+    private AtomicReferenceArray<Object> chunkAt(int chunkIndex) {
+        @Nullable AtomicReferenceArray<Object> chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            AtomicReferenceArray<Object> newChunk =
+                    new AtomicReferenceArray<>(FIRST_CHUNK_SIZE << chunkIndex);
+            chunk = chunks.compareAndSet(chunkIndex, null, newChunk)
+                    ? newChunk : chunks.get(chunkIndex);
+        }
+        return chunk;
+    }
+
+    private static int chunkIndexOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_SHIFT) + 1);
+    }
+
+    private static int chunkStartOf(int chunkIndex) {
+        return ((1 << chunkIndex) - 1) << FIRST_CHUNK_SHIFT;
+    }
+
+    /**
+     * The content of a slot whose item is not yet ready to be published.
+     */
+    private static final class Pending {
+        private final @Nullable Object item;
+
+        private Pending(@Nullable Object item) {
+            this.item = item;
+        }
+    }
+
+    @SuppressWarnings("squid:S2160")
+    // --> 'Subclasses that add fields should override "equals"'
+    // (No need to override "equals" as AbstractSeq implements "equals" in an abstract way using the iterator)
+    private static final class ItemsSeq<T> extends AbstractSeq<T> {
+        private final AppendOnlyArray<T> array;
+        private final int start;
+        private final int end;
+
+        private ItemsSeq(AppendOnlyArray<T> array, int start, int end) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int index = start;
+
+                @Override
+                public boolean hasNext() {
+                    return index < end;
+                }
+
+                @Override
+                public T next() {
+                    if (index >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return array.get(index++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public T item(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("index: " + index); //NON-NLS
+            }
+            return array.get(start + index);
+        }
+    }
+}
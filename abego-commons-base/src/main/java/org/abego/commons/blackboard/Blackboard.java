@@ -25,10 +25,21 @@
 package org.abego.commons.blackboard;
 
 import org.abego.commons.seq.Seq;
+import org.abego.commons.timeout.TimeoutUncheckedException;
+import org.abego.commons.timeout.Timeoutable;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static org.abego.commons.lang.exception.UncheckedException.newUncheckedException;
+
 /**
  * A Blackboard holds a collection of items.
  *
@@ -73,6 +84,93 @@ public interface Blackboard<T> {
     @Nullable
     T itemWithOrNull(Predicate<T> condition);
 
+    /**
+     * Return the item in the Blackboard that matches the
+     * <code>condition</code>, waiting until such an item is added when
+     * no item matches yet.
+     *
+     * <p>When items already match the condition return the last added one,
+     * otherwise the first matching item added later.</p>
+     *
+     * <p>The waiting thread is woken by {@link #add(Object)}, i.e. the
+     * method does not poll.</p>
+     *
+     * <p>Throw a {@link TimeoutUncheckedException} when no item matched the
+     * condition within <code>timeout</code>.</p>
+     */
+    @Timeoutable
+    default T awaitItemWith(Predicate<T> condition, Duration timeout) {
+        CompletableFuture<T> future = awaitItemWithAsync(condition);
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new TimeoutUncheckedException(String.format(
+                    "No item matching the condition within %s", //NON-NLS
+                    timeout), e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw newUncheckedException(
+                    "Interrupted while waiting for an item", e); //NON-NLS
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw newUncheckedException(cause);
+        }
+    }
+
+    /**
+     * Return a {@link CompletableFuture} that completes with the item in the
+     * Blackboard that matches the <code>condition</code>.
+     *
+     * <p>When items already match the condition the future is completed
+     * with the last added one, otherwise with the first matching item added
+     * later. The future is completed in the thread adding the item (or,
+     * for concurrent adds, possibly in another thread adding an item, see
+     * {@link BlackboardLockFree}).</p>
+     *
+     * <p>When the <code>condition</code> throws a {@link RuntimeException}
+     * the future completes exceptionally with that exception.</p>
+     *
+     * <p>Cancel the future when the item is no longer needed to stop
+     * testing added items against the condition.</p>
+     *
+     * <p>The default implementation throws an
+     * {@link UnsupportedOperationException}, as it cannot detect added
+     * items.</p>
+     */
+    default CompletableFuture<T> awaitItemWithAsync(Predicate<T> condition) {
+        throw new UnsupportedOperationException(
+                "awaitItemWithAsync not supported by " + getClass().getName()); //NON-NLS
+    }
+
+    /**
+     * Subscribe the <code>subscriber</code> to the items added to this
+     * Blackboard and return the subscription.
+     *
+     * <p>Every item added after this call is passed to the subscriber,
+     * in the thread adding the item (or, for concurrent adds, possibly in
+     * another thread adding an item, see {@link BlackboardLockFree}), after
+     * the item is visible to the queries of the Blackboard. When items are
+     * added concurrently the subscriber may be called concurrently, too.</p>
+     *
+     * <p>When the subscriber throws a {@link RuntimeException} the
+     * subscription is cancelled and the exception is rethrown by the
+     * {@link #add(Object)} call passing the item to the subscriber (after
+     * passing the item to the other subscribers).</p>
+     *
+     * <p>The default implementation throws an
+     * {@link UnsupportedOperationException}, as it cannot detect added
+     * items.</p>
+     */
+    default BlackboardSubscription subscribe(Consumer<T> subscriber) {
+        throw new UnsupportedOperationException(
+                "subscribe not supported by " + getClass().getName()); //NON-NLS
+    }
+
     /**
      * Return <code>true</code> when this Blackboard is empty (does not contain
      * any item), <code>false</code> otherwise.
@@ -88,6 +186,10 @@ public interface Blackboard<T> {
     /**
      * Return <code>true</code> when the Blackboard contains the given
      * <code>item</code>, <code>false</code> otherwise.
+     *
+     * <p>Items are compared using {@link Object#equals(Object)}.
+     * Implementations should use a hash lookup rather than scanning
+     * the items.</p>
      */
     boolean contains(T item);
 
@@ -101,6 +203,65 @@ public interface Blackboard<T> {
      */
     String text();
 
+    /**
+     * Write the items of the Blackboard as text to <code>appendable</code>.
+     *
+     * <p>Writes the same text as {@link #text()}, but item by item, so no
+     * text of all items is created. The items are taken from a snapshot
+     * (see {@link #items()}), i.e. writing the text does not block other
+     * threads modifying the Blackboard.</p>
+     *
+     * <p>Throws an {@link java.io.UncheckedIOException} when writing to the
+     * <code>appendable</code> fails.</p>
+     */
+    default void writeTextTo(Appendable appendable) {
+        BlackboardText.appendText(appendable, items());
+    }
+
+    /**
+     * Return the position after the last item added to this Blackboard.
+     *
+     * <p>Every item added to a Blackboard gets a position. The first item
+     * added to a new Blackboard has the position 0, every later one the
+     * position of its predecessor plus one. Positions are not reset by
+     * {@link #clear()}.</p>
+     *
+     * <p>Use the position with {@link #writeTextSince(long, Appendable)}.</p>
+     *
+     * <p>The default implementation throws an
+     * {@link UnsupportedOperationException}, as it cannot track the
+     * positions of removed items.</p>
+     */
+    default long currentPosition() {
+        throw new UnsupportedOperationException(
+                "currentPosition not supported by " + getClass().getName()); //NON-NLS
+    }
+
+    /**
+     * Write the text of the items added at or after the given
+     * <code>position</code> to <code>appendable</code>, each item's text
+     * followed by a newline, and return the position after the last item
+     * written.
+     *
+     * <p>Pass the returned position to the next call to only write the
+     * items added in the meantime. Items no longer in the Blackboard
+     * (e.g. because of {@link #clear()}) are skipped.</p>
+     *
+     * <p>The items are taken from a snapshot, i.e. writing the text does
+     * not block other threads modifying the Blackboard.</p>
+     *
+     * <p>Throws an {@link java.io.UncheckedIOException} when writing to the
+     * <code>appendable</code> fails.</p>
+     *
+     * <p>The default implementation throws an
+     * {@link UnsupportedOperationException}, as it cannot track the
+     * positions of removed items.</p>
+     */
+    default long writeTextSince(long position, Appendable appendable) {
+        throw new UnsupportedOperationException(
+                "writeTextSince not supported by " + getClass().getName()); //NON-NLS
+    }
+
     /**
      * Add the <code>item</code> to this Blackboard.
      *
@@ -110,6 +271,30 @@ public interface Blackboard<T> {
 
     /**
      * Remove all items from this Blackboard.
+     *
+     * <p>The indexes of this Blackboard remain registered (and are
+     * empty).</p>
      */
     void clear();
+
+    /**
+     * Add an index to this Blackboard, using the <code>keyExtractor</code>
+     * to calculate the key of an item, and return the index.
+     *
+     * <p>The index covers all items of the Blackboard, i.e. the items
+     * already in the Blackboard and the items added later. Items with a
+     * <code>null</code> key (and <code>null</code> items) are not indexed.</p>
+     *
+     * <p>The index is maintained incrementally when items are added,
+     * so a lookup by key does not scan the items of the Blackboard.</p>
+     *
+     * <p>The default implementation returns an index scanning the items of
+     * the Blackboard on every lookup (using
+     * {@link #itemWithOrNull(Predicate)}). Implementations should override
+     * it.</p>
+     */
+    default <K> BlackboardIndex<T, K> addIndex(Function<T, K> keyExtractor) {
+        return key -> key == null ? null : itemWithOrNull(
+                item -> item != null && key.equals(keyExtractor.apply(item)));
+    }
 }
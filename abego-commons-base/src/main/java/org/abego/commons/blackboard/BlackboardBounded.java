@@ -0,0 +1,311 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.lang.IterableUtil;
+import org.abego.commons.seq.Seq;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.abego.commons.blackboard.BlackboardListeners.newBlackboardListeners;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+/**
+ * A {@link Blackboard} holding at most a given number of items (its
+ * "capacity").
+ *
+ * <p>When an item is added to a full Blackboard the oldest item is removed
+ * ("evicted"), so the Blackboard holds the last <code>capacity</code> added
+ * items. The items are stored in a ring buffer, i.e. adding an item
+ * neither copies nor moves other items.</p>
+ *
+ * <p>All queries only consider the items still in the Blackboard. The
+ * indexes of the Blackboard remove evicted items, too. To find the key of
+ * an evicted item the key extractor of an index is called again, so it
+ * must return the same key for an item as when the item was added.</p>
+ *
+ * <p>To process all added items, including the evicted ones, use
+ * {@link #subscribe(Consumer)}.</p>
+ */
+public final class BlackboardBounded<T> implements Blackboard<T> {
+    private final Object[] ring;
+    // the number of items added since the Blackboard was created, i.e. the
+    // "sequence number" (and position) of the next item to add
+    private long addedCount;
+    private int size;
+    private long evictedCount;
+    private final Map<T, Integer> itemCounts = new HashMap<>();
+    private final List<Index<?>> indexes = new ArrayList<>();
+    private final BlackboardListeners<T> listeners = newBlackboardListeners();
+
+    private BlackboardBounded(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "capacity must be > 0, got %d", capacity)); //NON-NLS
+        }
+        this.ring = new Object[capacity];
+    }
+
+    public static <T> BlackboardBounded<T> newBlackboardBounded(int capacity) {
+        return new BlackboardBounded<>(capacity);
+    }
+
+    /**
+     * Return the maximal number of items this Blackboard holds.
+     */
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * Return the number of items evicted from this Blackboard since it was
+     * created.
+     */
+    public long evictedCount() {
+        synchronized (ring) {
+            return evictedCount;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    public CompletableFuture<T> awaitItemWithAsync(Predicate<T> condition) {
+        return listeners.awaitItemWithAsync(this, condition);
+    }
+
+    @Override
+    public BlackboardSubscription subscribe(Consumer<T> subscriber) {
+        return listeners.subscribe(subscriber);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        synchronized (ring) {
+            return size == 0;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    public Seq<T> items() {
+        synchronized (ring) {
+            List<T> result = new ArrayList<>(size);
+            for (long seq = addedCount - size; seq < addedCount; seq++) {
+                result.add(itemAt(seq));
+            }
+            return newSeq(result);
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    @Nullable
+    public T itemWithOrNull(Predicate<T> condition) {
+        synchronized (ring) {
+            for (long seq = addedCount - 1; seq >= addedCount - size; seq--) {
+                T o = itemAt(seq);
+                if (condition.test(o)) {
+                    return o;
+                }
+            }
+            return null;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    public T itemWith(Predicate<T> condition) {
+        @Nullable T result = itemWithOrNull(condition);
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsItemWith(Predicate<T> condition) {
+        return itemWithOrNull(condition) != null;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        synchronized (ring) {
+            return itemCounts.containsKey(item);
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    public String text() {
+        return IterableUtil.textOf(items(), "\n");
+    }
+
+    @Override
+    public long currentPosition() {
+        synchronized (ring) {
+            return addedCount;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    @Override
+    public long writeTextSince(long position, Appendable appendable) {
+        List<T> newItems = new ArrayList<>();
+        long endPosition;
+        synchronized (ring) {
+            endPosition = addedCount;
+            for (long seq = Math.max(position, addedCount - size); seq < addedCount; seq++) {
+                newItems.add(itemAt(seq));
+            }
+        }
+        BlackboardText.appendLines(appendable, newItems);
+        return endPosition;
+    }
+
+    @Override
+    public void add(T item) {
+        synchronized (ring) {
+            if (size == ring.length) {
+                evictOldestItem();
+            }
+            long seq = addedCount++;
+            ring[indexInRing(seq)] = item;
+            size++;
+            if (item != null) {
+                itemCounts.merge(item, 1, Integer::sum);
+                for (Index<?> index : indexes) {
+                    index.add(item, seq);
+                }
+            }
+        }
+        // outside the lock, as this may run arbitrary code of the listeners
+        listeners.itemAdded(item);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (ring) {
+            while (size > 0) {
+                ring[indexInRing(addedCount - size)] = null;
+                size--;
+            }
+            itemCounts.clear();
+            for (Index<?> index : indexes) {
+                index.clear();
+            }
+        }
+    }
+
+    @Override
+    public <K> BlackboardIndex<T, K> addIndex(Function<T, K> keyExtractor) {
+        synchronized (ring) {
+            Index<K> index = new Index<>(keyExtractor);
+            for (long seq = addedCount - size; seq < addedCount; seq++) {
+                T item = itemAt(seq);
+                if (item != null) {
+                    index.add(item, seq);
+                }
+            }
+            indexes.add(index);
+            return index;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
+    public String toString() {
+        String origMessage = super.toString();
+        return MessageFormat.format("{0}. Text:\n{1}", origMessage, text());  //NON-NLS-1
+    }
+
+    private void evictOldestItem() {
+        long seq = addedCount - size;
+        int i = indexInRing(seq);
+        T item = itemAt(seq);
+        ring[i] = null;
+        size--;
+        evictedCount++;
+        if (item != null) {
+            itemCounts.computeIfPresent(item, (k, n) -> n > 1 ? n - 1 : null);
+            for (Index<?> index : indexes) {
+                index.evict(item, seq);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(long seq) {
+        return (T) ring[indexInRing(seq)];
+    }
+
+    private int indexInRing(long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    /**
+     * An index mapping each key to the sequence number of the last added
+     * item with that key.
+     *
+     * <p>Guarded by <code>ring</code>.</p>
+     */
+    private final class Index<K> implements BlackboardIndex<T, K> {
+        private final Function<T, K> keyExtractor;
+        private final Map<K, Long> lastSeqByKey = new HashMap<>();
+
+        private Index(Function<T, K> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+        }
+
+        @Override
+        @Nullable
+        public T itemWithOrNull(K key) {
+            synchronized (ring) {
+                @Nullable Long seq = lastSeqByKey.get(key);
+                return seq == null ? null : itemAt(seq);
+            } // '}' in same line as last statement to avoid wrong code coverage info
+        }
+
+        private void add(T item, long seq) {
+            @Nullable K key = keyExtractor.apply(item);
+            if (key != null) {
+                lastSeqByKey.put(key, seq);
+            }
+        }
+
+        private void evict(T item, long seq) {
+            @Nullable K key = keyExtractor.apply(item);
+            // when the key maps to a later item the evicted one is not in the index
+            if (key != null) {
+                lastSeqByKey.remove(key, seq);
+            }
+        }
+
+        private void clear() {
+            lastSeqByKey.clear();
+        }
+    }
+}
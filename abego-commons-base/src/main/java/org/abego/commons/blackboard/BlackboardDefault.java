@@ -30,15 +30,28 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static org.abego.commons.blackboard.BlackboardListeners.newBlackboardListeners;
 import static org.abego.commons.seq.SeqUtil.newSeq;
 
 
 public final class BlackboardDefault<T> implements Blackboard<T> {
     private final List<T> itemList = new ArrayList<>();
+    private final Set<T> itemSet = new HashSet<>();
+    private final List<Index<?>> indexes = new ArrayList<>();
+    private final BlackboardListeners<T> listeners = newBlackboardListeners();
+    // the position of the first item in itemList
+    private long firstPosition;
 
     private BlackboardDefault() {
         // empty
@@ -48,6 +61,16 @@ public final class BlackboardDefault<T> implements Blackboard<T> {
         return new BlackboardDefault<>();
     }
 
+    @Override
+    public CompletableFuture<T> awaitItemWithAsync(Predicate<T> condition) {
+        return listeners.awaitItemWithAsync(this, condition);
+    }
+
+    @Override
+    public BlackboardSubscription subscribe(Consumer<T> subscriber) {
+        return listeners.subscribe(subscriber);
+    }
+
     @Override
     public boolean isEmpty() {
         synchronized (itemList) {
@@ -92,32 +115,114 @@ public final class BlackboardDefault<T> implements Blackboard<T> {
 
     @Override
     public boolean contains(T item) {
-        return itemWithOrNull(i -> i != null && i.equals(item)) != null;
+        synchronized (itemList) {
+            return itemSet.contains(item);
+        } // '}' in same line as last statement to avoid wrong code coverage info
     }
 
     @Override
     public String text() {
+        // Use a snapshot, so the text is created outside the lock
+        return IterableUtil.textOf(items(), "\n");
+    }
+
+    @Override
+    public long currentPosition() {
         synchronized (itemList) {
-            return IterableUtil.textOf(itemList, "\n");
+            return firstPosition + itemList.size();
         } // '}' in same line as last statement to avoid wrong code coverage info
     }
 
+    @Override
+    public long writeTextSince(long position, Appendable appendable) {
+        List<T> newItems;
+        long endPosition;
+        synchronized (itemList) {
+            int n = itemList.size();
+            endPosition = firstPosition + n;
+            int start = (int) Math.max(0, Math.min(position - firstPosition, n));
+            newItems = new ArrayList<>(itemList.subList(start, n));
+        }
+        BlackboardText.appendLines(appendable, newItems);
+        return endPosition;
+    }
+
     @Override
     public void add(T item) {
         synchronized (itemList) {
             itemList.add(item);
+            if (item != null) {
+                itemSet.add(item);
+                for (Index<?> index : indexes) {
+                    index.add(item);
+                }
+            }
         }
+        // outside the lock, as this may run arbitrary code of the listeners
+        listeners.itemAdded(item);
     }
 
     @Override
     public void clear() {
         synchronized (itemList) {
+            firstPosition += itemList.size();
             itemList.clear();
+            itemSet.clear();
+            for (Index<?> index : indexes) {
+                index.clear();
+            }
         }
     }
 
+    @Override
+    public <K> BlackboardIndex<T, K> addIndex(Function<T, K> keyExtractor) {
+        synchronized (itemList) {
+            Index<K> index = new Index<>(keyExtractor);
+            for (T item : itemList) {
+                if (item != null) {
+                    index.add(item);
+                }
+            }
+            indexes.add(index);
+            return index;
+        } // '}' in same line as last statement to avoid wrong code coverage info
+    }
+
     public String toString() {
         String origMessage = super.toString();
         return MessageFormat.format("{0}. Text:\n{1}", origMessage, text());  //NON-NLS-1
     }
+
+    /**
+     * An index mapping each key to the last added item with that key.
+     *
+     * <p>Guarded by <code>itemList</code>.</p>
+     */
+    private final class Index<K> implements BlackboardIndex<T, K> {
+        private final Function<T, K> keyExtractor;
+        private final Map<K, T> lastItemByKey = new HashMap<>();
+
+        private Index(Function<T, K> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+        }
+
+        @Override
+        @Nullable
+        public T itemWithOrNull(K key) {
+            synchronized (itemList) {
+                return lastItemByKey.get(key);
+            } // '}' in same line as last statement to avoid wrong code coverage info
+        }
+
+        private void add(T item) {
+            @Nullable K key = keyExtractor.apply(item);
+            if (key != null) {
+                lastItemByKey.put(key, item);
+            }
+        }
+
+        private void clear() {
+            lastItemByKey.clear();
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An index of the items of a {@link Blackboard}, by a key calculated from
+ * each item.
+ *
+ * <p>Create a BlackboardIndex with {@link Blackboard#addIndex(java.util.function.Function)}.</p>
+ *
+ * <p>Like the queries of the Blackboard, a lookup by key returns the last
+ * added item when several items have the same key.</p>
+ */
+public interface BlackboardIndex<T, K> {
+
+    /**
+     * Return the item in the Blackboard with the given <code>key</code>.
+     *
+     * <p> When several items in the Blackboard have the key return the
+     * last added one.</p>
+     *
+     * <p>When no item has the key return <code>null</code>.</p>
+     */
+    @Nullable
+    T itemWithOrNull(K key);
+
+    /**
+     * Return the item in the Blackboard with the given <code>key</code>.
+     *
+     * <p> When several items in the Blackboard have the key return the
+     * last added one.</p>
+     *
+     * <p>When no item has the key throw a {@link NoSuchElementException}.</p>
+     */
+    default T itemWith(K key) {
+        @Nullable T result = itemWithOrNull(key);
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    /**
+     * Return <code>true</code> when the Blackboard contains an item with
+     * the given <code>key</code>, <code>false</code> otherwise.
+     */
+    default boolean containsItemWith(K key) {
+        return itemWithOrNull(key) != null;
+    }
+}
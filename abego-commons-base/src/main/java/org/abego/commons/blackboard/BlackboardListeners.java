@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The listeners of a {@link Blackboard}: the "waiters", i.e. the futures
+ * returned by {@link Blackboard#awaitItemWithAsync(Predicate)} that are
+ * not yet completed, and the subscribers registered with
+ * {@link Blackboard#subscribe(Consumer)}.
+ *
+ * <p>The Blackboard must call {@link #itemAdded(Object)} for every added
+ * item, after the item is visible to the queries of the Blackboard. This
+ * passes the item to the subscribers, tests the conditions of the waiters
+ * and completes the futures of the matching ones, in the thread adding the
+ * item.</p>
+ */
+final class BlackboardListeners<T> {
+    private final List<Waiter<T>> waiters = new CopyOnWriteArrayList<>();
+    private final List<Subscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+
+    private BlackboardListeners() {
+        // empty
+    }
+
+    static <T> BlackboardListeners<T> newBlackboardListeners() {
+        return new BlackboardListeners<>();
+    }
+
+    /**
+     * Return a future for the item in the <code>blackboard</code> that
+     * matches the <code>condition</code>, as defined by
+     * {@link Blackboard#awaitItemWithAsync(Predicate)}.
+     */
+    CompletableFuture<T> awaitItemWithAsync(
+            Blackboard<T> blackboard, Predicate<T> condition) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Waiter<T> waiter = new Waiter<>(condition, future);
+        // Register before looking for an existing item, so an item added
+        // concurrently is either found here or passed to itemAdded.
+        waiters.add(waiter);
+        future.whenComplete((r, e) -> waiters.remove(waiter));
+        try {
+            @Nullable T item = blackboard.itemWithOrNull(condition);
+            if (item != null) {
+                future.complete(item);
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Subscribe the <code>subscriber</code>, as defined by
+     * {@link Blackboard#subscribe(Consumer)}.
+     */
+    BlackboardSubscription subscribe(Consumer<T> subscriber) {
+        Subscription<T> subscription = new Subscription<>(subscriber, subscriptions);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void itemAdded(T item) {
+        if (!subscriptions.isEmpty()) {
+            passToSubscribers(item);
+        }
+        if (!waiters.isEmpty()) {
+            for (Waiter<T> waiter : waiters) {
+                waiter.itemAdded(item);
+            }
+        }
+    }
+
+    private void passToSubscribers(T item) {
+        @Nullable RuntimeException exception = null;
+        for (Subscription<T> subscription : subscriptions) {
+            try {
+                subscription.itemAdded(item);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static final class Waiter<T> {
+        private final Predicate<T> condition;
+        private final CompletableFuture<T> future;
+
+        private Waiter(Predicate<T> condition, CompletableFuture<T> future) {
+            this.condition = condition;
+            this.future = future;
+        }
+
+        private void itemAdded(T item) {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                if (condition.test(item)) {
+                    future.complete(item);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Subscription<T> implements BlackboardSubscription {
+        private final Consumer<T> subscriber;
+        private final List<Subscription<T>> subscriptions;
+        private volatile boolean isCancelled;
+
+        private Subscription(Consumer<T> subscriber, List<Subscription<T>> subscriptions) {
+            this.subscriber = subscriber;
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            subscriptions.remove(this);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+        private void itemAdded(T item) {
+            if (!isCancelled) {
+                subscriber.accept(item);
+            }
+        }
+    }
+}
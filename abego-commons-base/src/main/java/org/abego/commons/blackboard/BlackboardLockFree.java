@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.lang.IterableUtil;
+import org.abego.commons.seq.Seq;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.abego.commons.blackboard.AppendOnlyArray.newAppendOnlyArray;
+import static org.abego.commons.blackboard.BlackboardListeners.newBlackboardListeners;
+
+/**
+ * A {@link Blackboard} that can be read and written concurrently without
+ * locks.
+ *
+ * <p>The items are stored in an append-only, chunked array. Readers work on
+ * a snapshot defined by the number of items published when the operation
+ * started, so e.g. {@link #items()} does not copy any items and a slow
+ * <code>condition</code> in {@link #itemWithOrNull(Predicate)} does not
+ * block writers.</p>
+ *
+ * <p>{@link #contains(Object)} and the lookups of the indexes use
+ * concurrent hash maps. An added item is first stored in the array, then
+ * the hash maps are updated and finally the item is published, i.e. made
+ * visible to the readers of the array.</p>
+ *
+ * <p>When items are added concurrently an item is published (and passed to
+ * subscribers and waiters, see {@link #subscribe(Consumer)} and
+ * {@link #awaitItemWithAsync(Predicate)}) as soon as all items added
+ * before it are published. This may happen in the thread adding the item
+ * or in another thread adding an item at the same time.</p>
+ *
+ * <p>As with {@link BlackboardDefault} an item is visible to all readers
+ * when {@link #add(Object)} returns. So {@link #add(Object)} may wait for
+ * other threads that are still adding earlier items.</p>
+ *
+ * <p>{@link #clear()} replaces the array (and the hash maps) by new, empty
+ * ones. Snapshots taken before are not affected.</p>
+ */
+public final class BlackboardLockFree<T> implements Blackboard<T> {
+    private final List<Index<?>> indexes = new CopyOnWriteArrayList<>();
+    private final BlackboardListeners<T> listeners = newBlackboardListeners();
+    private volatile State<T> state = new State<>(0);
+
+    private BlackboardLockFree() {
+        // empty
+    }
+
+    public static <T> BlackboardLockFree<T> newBlackboardLockFree() {
+        return new BlackboardLockFree<>();
+    }
+
+    @Override
+    public CompletableFuture<T> awaitItemWithAsync(Predicate<T> condition) {
+        return listeners.awaitItemWithAsync(this, condition);
+    }
+
+    @Override
+    public BlackboardSubscription subscribe(Consumer<T> subscriber) {
+        return listeners.subscribe(subscriber);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return state.itemArray.size() == 0;
+    }
+
+    @Override
+    public Seq<T> items() {
+        AppendOnlyArray<T> array = state.itemArray;
+        return array.items(0, array.size());
+    }
+
+    @Override
+    @Nullable
+    public T itemWithOrNull(Predicate<T> condition) {
+        AppendOnlyArray<T> array = state.itemArray;
+        return array.lastItemWithOrNull(array.size(), condition);
+    }
+
+    @Override
+    public T itemWith(Predicate<T> condition) {
+        @Nullable T result = itemWithOrNull(condition);
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsItemWith(Predicate<T> condition) {
+        return itemWithOrNull(condition) != null;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return item != null && state.itemSet.contains(item);
+    }
+
+    @Override
+    public String text() {
+        return IterableUtil.textOf(items(), "\n");
+    }
+
+    @Override
+    public void add(T item) {
+        State<T> s = state;
+        int i = s.itemArray.add(item);
+        if (item != null) {
+            s.itemSet.add(item);
+            for (Index<?> index : indexes) {
+                index.add(s, item, i);
+            }
+        }
+        // the listeners are notified by the thread publishing the item, so
+        // no listener misses an item published (later) by another thread
+        s.itemArray.publish(i, (publishedItem, publishedIndex) ->
+                listeners.itemAdded(publishedItem));
+    }
+
+    @Override
+    public long currentPosition() {
+        State<T> s = state;
+        return s.firstPosition + s.itemArray.size();
+    }
+
+    @Override
+    public long writeTextSince(long position, Appendable appendable) {
+        State<T> s = state;
+        int n = s.itemArray.size();
+        int start = (int) Math.max(0, Math.min(position - s.firstPosition, n));
+        BlackboardText.appendLines(appendable, s.itemArray.items(start, n));
+        return s.firstPosition + n;
+    }
+
+    @Override
+    public void clear() {
+        State<T> oldState = state;
+        state = new State<>(
+                oldState.firstPosition + oldState.itemArray.reservedCount());
+    }
+
+    @Override
+    public <K> BlackboardIndex<T, K> addIndex(Function<T, K> keyExtractor) {
+        Index<K> index = new Index<>(keyExtractor);
+        // register first, so items added from now on are indexed by add ...
+        indexes.add(index);
+        // ... and index the items stored before
+        State<T> s = state;
+        s.itemArray.forEachStoredItem((item, i) -> {
+            if (item != null) {
+                index.add(s, item, i);
+            }
+        });
+        return index;
+    }
+
+    public String toString() {
+        String origMessage = super.toString();
+        return MessageFormat.format("{0}. Text:\n{1}", origMessage, text());  //NON-NLS-1
+    }
+
+    private static final class State<T> {
+        // the position of the first item in itemArray
+        private final long firstPosition;
+        private final AppendOnlyArray<T> itemArray = newAppendOnlyArray();
+        private final Set<T> itemSet = ConcurrentHashMap.newKeySet();
+        // the key is the Index
+        private final Map<Object, Map<Object, Integer>> lastIndexByKeyByIndex =
+                new ConcurrentHashMap<>();
+
+        private State(long firstPosition) {
+            this.firstPosition = firstPosition;
+        }
+
+        private Map<Object, Integer> lastIndexByKey(Object index) {
+            return lastIndexByKeyByIndex.computeIfAbsent(
+                    index, i -> new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * An index mapping each key to the array index of the last added item
+     * with that key.
+     *
+     * <p>Using the array index (and keeping the larger one) makes "last
+     * added item wins" independent of the order concurrent writers update
+     * the index.</p>
+     */
+    private final class Index<K> implements BlackboardIndex<T, K> {
+        private final Function<T, K> keyExtractor;
+
+        private Index(Function<T, K> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+        }
+
+        @Override
+        @Nullable
+        public T itemWithOrNull(K key) {
+            State<T> s = state;
+            @Nullable Integer i = s.lastIndexByKey(this).get(key);
+            return i == null ? null : s.itemArray.get(i);
+        }
+
+        private void add(State<T> s, T item, int i) {
+            @Nullable K key = keyExtractor.apply(item);
+            if (key != null) {
+                s.lastIndexByKey(this).merge(key, i, Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+/**
+ * The subscription of a subscriber to the items added to a
+ * {@link Blackboard}.
+ *
+ * <p>Create a BlackboardSubscription with
+ * {@link Blackboard#subscribe(java.util.function.Consumer)}.</p>
+ */
+public interface BlackboardSubscription {
+
+    /**
+     * Cancel this subscription, i.e. stop passing added items to the
+     * subscriber.
+     *
+     * <p>An item currently passed to the subscriber in another thread may
+     * still reach the subscriber.</p>
+     */
+    void cancel();
+
+    /**
+     * Return <code>true</code> when this subscription is cancelled,
+     * <code>false</code> otherwise.
+     *
+     * <p>A subscription is cancelled by {@link #cancel()} or when its
+     * subscriber threw an exception.</p>
+     */
+    boolean isCancelled();
+}
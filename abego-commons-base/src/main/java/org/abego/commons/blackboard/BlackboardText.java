@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.lang.exception.MustNotInstantiateException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the text of Blackboard items, as defined by {@link Blackboard#text()}
+ * and {@link Blackboard#writeTextSince(long, Appendable)}.
+ */
+final class BlackboardText {
+    private static final String ITEM_SEPARATOR = "\n";
+
+    BlackboardText() {
+        throw new MustNotInstantiateException();
+    }
+
+    /**
+     * Append the texts of the <code>items</code> to <code>appendable</code>,
+     * separated by newlines.
+     */
+    static void appendText(Appendable appendable, Iterable<?> items) {
+        try {
+            boolean addSeparator = false;
+            for (Object item : items) {
+                if (addSeparator) {
+                    appendable.append(ITEM_SEPARATOR);
+                } else {
+                    addSeparator = true;
+                }
+                appendable.append(String.valueOf(item));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append the text of every item in <code>items</code> to
+     * <code>appendable</code>, each followed by a newline.
+     */
+    static void appendLines(Appendable appendable, Iterable<?> items) {
+        try {
+            for (Object item : items) {
+                appendable.append(String.valueOf(item));
+                appendable.append(ITEM_SEPARATOR);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.diff.internal.BatchFileDiffImpl;
+import org.abego.commons.seq.Seq;
+
+import java.io.File;
+
+/**
+ * Compares many pairs of (text) files line-wise, in parallel.
+ *
+ * <p>The file pairs are compared on a work-stealing
+ * {@link java.util.concurrent.ForkJoinPool}. Every worker thread compares
+ * one file pair at a time, using a diff algorithm with memory linear in
+ * the number of lines. Only the {@link Difference}s are kept, not the
+ * texts. So the memory used is bounded by the parallelism and the size of
+ * the largest file pair.</p>
+ *
+ * <p>Files with the same content are detected without decoding their
+ * texts (see {@link FileDiffUtil}).</p>
+ */
+public final class BatchFileDiff {
+
+    public static FilePair newFilePair(File expectedFile, File actualFile) {
+        return BatchFileDiffImpl.newFilePair(expectedFile, actualFile);
+    }
+
+    /**
+     * Return the pairs of normal files existing in both
+     * <code>directoryWithExpectedContent</code> and
+     * <code>directoryWithActualContent</code> (or any of their
+     * subdirectories), with the same relative path.
+     *
+     * <p>Files existing in only one of the directories are ignored (use
+     * {@link FileDiffUtil#compareDirectories(File, File, FileDiffUtil.DirectoryDifferencesOptions...)}
+     * to find these).</p>
+     */
+    public static Seq<FilePair> filePairsInDirectories(
+            File directoryWithExpectedContent, File directoryWithActualContent) {
+        return BatchFileDiffImpl.filePairsInDirectories(
+                directoryWithExpectedContent, directoryWithActualContent);
+    }
+
+    /**
+     * Compare the files of the <code>filePairs</code> line-wise, using
+     * <code>parallelism</code> threads. The files are expected to be UTF-8
+     * encoded text files.
+     */
+    public static BatchFileDiffResult compareLineWise(
+            Seq<FilePair> filePairs, int parallelism) {
+        return BatchFileDiffImpl.compareLineWise(filePairs, parallelism);
+    }
+
+    /**
+     * Compare the files of the <code>filePairs</code> line-wise, using as many
+     * threads as processors are available. The files are expected to be UTF-8
+     * encoded text files.
+     */
+    public static BatchFileDiffResult compareLineWise(Seq<FilePair> filePairs) {
+        return compareLineWise(filePairs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Compare the files existing in both directories line-wise, in parallel.
+     *
+     * <p>See {@link #filePairsInDirectories(File, File)} and
+     * {@link #compareLineWise(Seq)}.</p>
+     */
+    public static BatchFileDiffResult compareDirectoriesLineWise(
+            File directoryWithExpectedContent, File directoryWithActualContent) {
+        return compareLineWise(filePairsInDirectories(
+                directoryWithExpectedContent, directoryWithActualContent));
+    }
+}
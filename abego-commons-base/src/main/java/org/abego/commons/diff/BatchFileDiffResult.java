@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.seq.Seq;
+
+import java.time.Duration;
+
+/**
+ * The result of comparing many {@link FilePair}s, as returned by
+ * {@link BatchFileDiff}.
+ */
+public interface BatchFileDiffResult {
+
+    /**
+     * The differences of all compared file pairs, in the order of the
+     * file pairs passed to the comparison.
+     */
+    Seq<FilePairDifferences> getFilePairDifferences();
+
+    /**
+     * The differences of the file pairs with different content.
+     */
+    default Seq<FilePairDifferences> getFilePairsWithDifferences() {
+        return getFilePairDifferences().filter(FilePairDifferences::hasDifferences);
+    }
+
+    /**
+     * The total number of bytes of all compared files.
+     */
+    long getByteCount();
+
+    /**
+     * The (wall clock) time it took to compare all file pairs.
+     */
+    Duration getElapsedTime();
+
+    /**
+     * The sum of the durations of the individual file pair comparisons.
+     *
+     * <p>As file pairs are compared in parallel this is typically larger than
+     * the {@link #getElapsedTime() elapsed time}.</p>
+     */
+    Duration getTotalDuration();
+
+    /**
+     * The longest duration of an individual file pair comparison.
+     */
+    Duration getMaxDuration();
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import java.io.File;
+
+/**
+ * A difference between a directory A and a directory B, as found when
+ * recursively comparing both directories.
+ *
+ * <p>The difference relates to the file or directory with the
+ * {@link #getRelativePath() relative path} in both directories. Depending
+ * on the {@link #getKind() kind} of the difference this file may only exist
+ * in one of the directories.</p>
+ */
+public interface DirectoryDifference {
+
+    Kind getKind();
+
+    /**
+     * The path of the file or directory relative to the directories
+     * compared, using {@code "/"} as the separator.
+     */
+    String getRelativePath();
+
+    /**
+     * The file at the {@link #getRelativePath() relative path} in directory A.
+     *
+     * <p>The file may not exist (see {@link Kind#ONLY_IN_B}).</p>
+     */
+    File getFileInA();
+
+    /**
+     * The file at the {@link #getRelativePath() relative path} in directory B.
+     *
+     * <p>The file may not exist (see {@link Kind#ONLY_IN_A}).</p>
+     */
+    File getFileInB();
+
+    enum Kind {
+        /**
+         * The file (or directory) only exists in directory A.
+         */
+        ONLY_IN_A,
+        /**
+         * The file (or directory) only exists in directory B.
+         */
+        ONLY_IN_B,
+        /**
+         * The text files in directory A and B have different content.
+         */
+        TEXT_FILES_DIFFER,
+        /**
+         * The binary files in directory A and B have different content.
+         */
+        BINARY_FILES_DIFFER,
+        /**
+         * In one of the directories the file is a directory, in the other
+         * it is a normal file.
+         */
+        DIRECTORY_AND_FILE
+    }
+}
@@ -24,23 +24,17 @@
 
 package org.abego.commons.diff;
 
+import org.abego.commons.diff.internal.DirectoryDiffImpl;
 import org.abego.commons.lang.ArrayUtil;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
-import org.eclipse.jdt.annotation.NonNull;
+import org.abego.commons.seq.Seq;
 
 import java.io.File;
-import java.util.regex.Pattern;
 
 import static org.abego.commons.diff.FileDiffUtil.DirectoryDifferencesOptions.IGNORE_DOT_DS_STORE_FILES;
-import static org.abego.commons.lang.RuntimeUtil.execAndReturnOutAndErr;
+import static org.abego.commons.diff.FileDiffUtil.DirectoryDifferencesOptions.TRUST_SIZE_AND_LAST_MODIFIED;
 
 public final class FileDiffUtil {
-    private static final String DIFF_COMMAND_NAME = "diff"; //NON-NLS
-    private static final String DIFF_COMMAND_RECURSIVE_OPTION = "-r"; //NON-NLS
-    /**
-     * The pattern that matches a "diff" line containing a ".DS_Store" file
-     */
-    private static final Pattern DS_STORE_FILE_LINE_PATTERN = Pattern.compile("Only in [^:]+: \\.DS_Store\n");
 
     FileDiffUtil() {
         throw new MustNotInstantiateException();
@@ -52,31 +46,57 @@ public final class FileDiffUtil {
      * when both directories are equal.
      *
      * <p>The difference is given in a text format similar to the output of the
-     * Unix "diff" command. </p>
+     * Unix "diff -r" command. </p>
      *
-     * <p>The current implementation only works on systems that provide the
-     * Unix command "diff".</p>
+     * <p>The directories are compared in-process, i.e. the Unix command
+     * "diff" is not required.</p>
      */
     public static String directoryDifferences(
             File directoryWithExpectedContent,
             File directoryWithActualContent,
             DirectoryDifferencesOptions... options) {
-        boolean ignoreDSStoreFiles = ArrayUtil.contains(options, IGNORE_DOT_DS_STORE_FILES);
-
-        @NonNull String diff = execAndReturnOutAndErr(
-                DIFF_COMMAND_NAME, DIFF_COMMAND_RECURSIVE_OPTION,
-                directoryWithExpectedContent.getAbsolutePath(),
-                directoryWithActualContent.getAbsolutePath());
+        return directoryDifferencesText(compareDirectories(
+                directoryWithExpectedContent, directoryWithActualContent, options));
+    }
 
-        if (ignoreDSStoreFiles) {
-            diff = DS_STORE_FILE_LINE_PATTERN.matcher(diff).replaceAll("");
-        }
+    /**
+     * Return the differences of the two given directories, or an empty
+     * {@link Seq} when both directories are equal.
+     *
+     * <p>The directories are compared recursively. Directory A is
+     * <code>directoryWithExpectedContent</code>, directory B is
+     * <code>directoryWithActualContent</code>.</p>
+     */
+    public static Seq<DirectoryDifference> compareDirectories(
+            File directoryWithExpectedContent,
+            File directoryWithActualContent,
+            DirectoryDifferencesOptions... options) {
+        return DirectoryDiffImpl.compareDirectories(
+                directoryWithExpectedContent,
+                directoryWithActualContent,
+                ArrayUtil.contains(options, IGNORE_DOT_DS_STORE_FILES),
+                ArrayUtil.contains(options, TRUST_SIZE_AND_LAST_MODIFIED));
+    }
 
-        return diff;
+    /**
+     * Return the <code>differences</code> (as returned by
+     * {@link #compareDirectories(File, File, DirectoryDifferencesOptions...)})
+     * as text, in a format similar to the output of the Unix "diff -r" command.
+     */
+    public static String directoryDifferencesText(Seq<DirectoryDifference> differences) {
+        return DirectoryDiffImpl.diffText(differences);
     }
 
     public enum DirectoryDifferencesOptions {
-        IGNORE_DOT_DS_STORE_FILES
+        /**
+         * Ignore ".DS_Store" files (as created by macOS).
+         */
+        IGNORE_DOT_DS_STORE_FILES,
+        /**
+         * Consider files with the same size and the same "last modified"
+         * time to be equal, without comparing their content.
+         */
+        TRUST_SIZE_AND_LAST_MODIFIED
     }
 
 
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.range.IntRange;
+import org.abego.commons.seq.Seq;
+
+/**
+ * The line-wise differences between a text A and a text B that is edited
+ * repeatedly, e.g. in an editor.
+ *
+ * <p>After an edit of text B only the lines around the edit are compared
+ * again, so the effort depends on the size of the edit and of the
+ * differences near it, not on the size of the texts.</p>
+ *
+ * <p>Lines are defined as in {@link TextDiff#compareLineWise(String, String)}.</p>
+ */
+public interface IncrementalTextDiff {
+
+    /**
+     * Return the current text B.
+     */
+    String getTextB();
+
+    /**
+     * Return the current line-wise differences between text A and text B.
+     */
+    Seq<Difference> getDifferences();
+
+    /**
+     * Replace the characters of text B in the range from
+     * <code>startIndex</code> (inclusive) to <code>endIndex</code>
+     * (exclusive) with <code>newRangeText</code> (like
+     * {@link org.abego.commons.lang.StringUtil#replaceRange(String, int, int, String)})
+     * and return the updated differences.
+     */
+    Seq<Difference> replaceRangeInB(int startIndex, int endIndex, String newRangeText);
+
+    /**
+     * Replace the characters of text B in the <code>range</code> with
+     * <code>newRangeText</code> and return the updated differences.
+     */
+    default Seq<Difference> replaceRangeInB(IntRange range, String newRangeText) {
+        return replaceRangeInB(range.getStart(), range.getEnd(), newRangeText);
+    }
+}
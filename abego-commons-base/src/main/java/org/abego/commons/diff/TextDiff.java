@@ -25,6 +25,7 @@
 package org.abego.commons.diff;
 
 import org.abego.commons.diff.internal.DiffImpl;
+import org.abego.commons.diff.internal.IncrementalLineDiffImpl;
 import org.abego.commons.seq.Seq;
 import org.abego.commons.seq.SeqUtil;
 
@@ -40,6 +41,28 @@ public final class TextDiff {
         return DiffImpl.compareCharacterWise(textA, textB);
     }
 
+    /**
+     * Return the differences between the words of <code>textA</code> and
+     * <code>textB</code>, as character ranges.
+     *
+     * <p>This is a granularity between
+     * {@link #compareLineWise(String, String)} and
+     * {@link #compareCharacterWise(String, String)}, e.g. to highlight
+     * changes inside a line.</p>
+     */
+    public static Seq<Difference> compareWordWise(String textA, String textB) {
+        return DiffImpl.compareWordWise(textA, textB);
+    }
+
+    /**
+     * Return an {@link IncrementalTextDiff} for <code>textA</code> and
+     * <code>textB</code>, to track the line-wise differences while text B
+     * is edited.
+     */
+    public static IncrementalTextDiff newIncrementalLineDiff(String textA, String textB) {
+        return IncrementalLineDiffImpl.newIncrementalLineDiff(textA, textB);
+    }
+
     public static Seq<Difference> getNoDifferences() {
         return NO_DIFFERENCES;
     }
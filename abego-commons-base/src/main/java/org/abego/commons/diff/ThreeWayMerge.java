@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.diff.internal.ThreeWayMergeImpl;
+import org.abego.commons.seq.Seq;
+
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.abego.commons.lang.StringUtil.lines;
+
+/**
+ * Merges "our" and "their" changes to a common "base" text, line-wise.
+ *
+ * <p>Lines changed only on one side are taken from that side. When both
+ * sides changed the same (or adjacent) lines differently the merged output
+ * contains a conflict region:</p>
+ * <pre>
+ * &lt;&lt;&lt;&lt;&lt;&lt;&lt; ours
+ * (our lines)
+ * =======
+ * (their lines)
+ * &gt;&gt;&gt;&gt;&gt;&gt;&gt; theirs
+ * </pre>
+ *
+ * <p>The differences are computed in linear space and the merged lines are
+ * written to the output as they are produced, so also large files can be
+ * merged.</p>
+ */
+public final class ThreeWayMerge {
+
+    public static final String CONFLICT_START_MARKER = "<<<<<<< ours"; //NON-NLS
+    public static final String CONFLICT_SEPARATOR_MARKER = "======="; //NON-NLS
+    public static final String CONFLICT_END_MARKER = ">>>>>>> theirs"; //NON-NLS
+
+    /**
+     * Merge the lines of <code>ours</code> and <code>theirs</code>, both
+     * derived from <code>base</code>, and write the merged lines to
+     * <code>output</code>, separated by newlines.
+     *
+     * <p>Return the conflicts, i.e. an empty {@link Seq} when the merge was
+     * successful.</p>
+     */
+    public static Seq<MergeConflict> merge(
+            Seq<String> base, Seq<String> ours, Seq<String> theirs, Writer output) {
+        return ThreeWayMergeImpl.merge(base, ours, theirs, output);
+    }
+
+    /**
+     * Return the result of merging the texts <code>ours</code> and
+     * <code>theirs</code>, both derived from <code>base</code>.
+     *
+     * <p>Conflicts are marked in the result text (see
+     * {@link ThreeWayMerge}).</p>
+     */
+    public static String merge(String base, String ours, String theirs) {
+        StringWriter output = new StringWriter();
+        merge(lines(base), lines(ours), lines(theirs), output);
+        return output.toString();
+    }
+}
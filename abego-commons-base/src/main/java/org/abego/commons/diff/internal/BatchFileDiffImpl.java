@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.BatchFileDiffResult;
+import org.abego.commons.diff.Difference;
+import org.abego.commons.diff.FilePair;
+import org.abego.commons.diff.FilePairDifferences;
+import org.abego.commons.seq.Seq;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.abego.commons.diff.internal.BatchFileDiffResultDefault.newBatchFileDiffResult;
+import static org.abego.commons.diff.internal.DirectoryDiffImpl.haveSameContent;
+import static org.abego.commons.diff.internal.DirectoryDiffImpl.sortedFileNames;
+import static org.abego.commons.diff.internal.FilePairDifferencesDefault.newFilePairDifferences;
+import static org.abego.commons.io.FileUtil.textOf;
+import static org.abego.commons.seq.SeqUtil.emptySeq;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+public final class BatchFileDiffImpl {
+
+    public static FilePair newFilePair(File expectedFile, File actualFile) {
+        return FilePairDefault.newFilePair(expectedFile, actualFile);
+    }
+
+    public static Seq<FilePair> filePairsInDirectories(
+            File directoryWithExpectedContent, File directoryWithActualContent) {
+        List<FilePair> result = new ArrayList<>();
+        addFilePairsInDirectories(
+                directoryWithExpectedContent.getAbsoluteFile(),
+                directoryWithActualContent.getAbsoluteFile(),
+                result);
+        return newSeq(result);
+    }
+
+    public static BatchFileDiffResult compareLineWise(
+            Seq<FilePair> filePairs, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "parallelism must be > 0, got %d", parallelism)); //NON-NLS
+        }
+
+        long startTime = System.nanoTime();
+        // copy the pairs to have constant time access, whatever Seq is passed
+        List<FilePair> pairs = new ArrayList<>(filePairs.size());
+        filePairs.forEach(pairs::add);
+        FilePairDifferences[] results = new FilePairDifferences[pairs.size()];
+        AtomicLong byteCount = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new CompareTask(pairs, 0, pairs.size(), results, byteCount));
+        } finally {
+            pool.shutdown();
+        }
+        return newBatchFileDiffResult(
+                newSeq(results),
+                byteCount.get(),
+                Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+    static FilePairDifferences compareLineWise(FilePair filePair, AtomicLong byteCount) {
+        long startTime = System.nanoTime();
+        File expectedFile = filePair.getExpectedFile();
+        File actualFile = filePair.getActualFile();
+        byteCount.addAndGet(expectedFile.length() + actualFile.length());
+
+        Seq<Difference> differences = haveSameContent(expectedFile, actualFile, false)
+                ? emptySeq()
+                : DiffImpl.compareLineWiseInLinearSpace(textOf(expectedFile), textOf(actualFile));
+        return newFilePairDifferences(
+                filePair, differences, Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+    private static void addFilePairsInDirectories(
+            File directoryWithExpectedContent,
+            File directoryWithActualContent,
+            List<FilePair> result) {
+        String[] namesA = sortedFileNames(directoryWithExpectedContent, false);
+        String[] namesB = sortedFileNames(directoryWithActualContent, false);
+        int iA = 0;
+        int iB = 0;
+        while (iA < namesA.length && iB < namesB.length) {
+            int c = namesA[iA].compareTo(namesB[iB]);
+            if (c < 0) {
+                iA++;
+            } else if (c > 0) {
+                iB++;
+            } else {
+                File fileA = new File(directoryWithExpectedContent, namesA[iA]);
+                File fileB = new File(directoryWithActualContent, namesB[iB]);
+                if (fileA.isDirectory() && fileB.isDirectory()) {
+                    addFilePairsInDirectories(fileA, fileB, result);
+                } else if (fileA.isFile() && fileB.isFile()) {
+                    result.add(newFilePair(fileA, fileB));
+                }
+                iA++;
+                iB++;
+            }
+        }
+    }
+
+    /**
+     * Compares the file pairs in the range [start, end), splitting the range
+     * so idle workers can steal parts of it.
+     */
+    private static final class CompareTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FilePair> filePairs;
+        private final int start;
+        private final int end;
+        private final FilePairDifferences[] results;
+        private final AtomicLong byteCount;
+
+        CompareTask(List<FilePair> filePairs, int start, int end,
+                    FilePairDifferences[] results, AtomicLong byteCount) {
+            this.filePairs = filePairs;
+            this.start = start;
+            this.end = end;
+            this.results = results;
+            this.byteCount = byteCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                results[start] = compareLineWise(filePairs.get(start), byteCount);
+            } else if (end > start) {
+                int middle = (start + end) >>> 1;
+                invokeAll(
+                        new CompareTask(filePairs, start, middle, results, byteCount),
+                        new CompareTask(filePairs, middle, end, results, byteCount));
+            }
+        }
+    }
+}
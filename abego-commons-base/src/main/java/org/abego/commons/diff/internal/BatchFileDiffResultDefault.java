@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.BatchFileDiffResult;
+import org.abego.commons.diff.FilePairDifferences;
+import org.abego.commons.seq.Seq;
+
+import java.time.Duration;
+
+final class BatchFileDiffResultDefault implements BatchFileDiffResult {
+    private final Seq<FilePairDifferences> filePairDifferences;
+    private final long byteCount;
+    private final Duration elapsedTime;
+    private final Duration totalDuration;
+    private final Duration maxDuration;
+
+    private BatchFileDiffResultDefault(
+            Seq<FilePairDifferences> filePairDifferences,
+            long byteCount,
+            Duration elapsedTime) {
+        this.filePairDifferences = filePairDifferences;
+        this.byteCount = byteCount;
+        this.elapsedTime = elapsedTime;
+
+        Duration total = Duration.ZERO;
+        Duration max = Duration.ZERO;
+        for (FilePairDifferences d : filePairDifferences) {
+            total = total.plus(d.getDuration());
+            if (d.getDuration().compareTo(max) > 0) {
+                max = d.getDuration();
+            }
+        }
+        this.totalDuration = total;
+        this.maxDuration = max;
+    }
+
+    public static BatchFileDiffResult newBatchFileDiffResult(
+            Seq<FilePairDifferences> filePairDifferences,
+            long byteCount,
+            Duration elapsedTime) {
+        return new BatchFileDiffResultDefault(
+                filePairDifferences, byteCount, elapsedTime);
+    }
+
+    @Override
+    public Seq<FilePairDifferences> getFilePairDifferences() {
+        return filePairDifferences;
+    }
+
+    @Override
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public Duration getTotalDuration() {
+        return totalDuration;
+    }
+
+    @Override
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d file pair(s), %d with differences, %d bytes, elapsed: %d ms, total: %d ms, max: %d ms", //NON-NLS
+                filePairDifferences.size(),
+                getFilePairsWithDifferences().size(),
+                byteCount,
+                elapsedTime.toMillis(),
+                totalDuration.toMillis(),
+                maxDuration.toMillis());
+    }
+}
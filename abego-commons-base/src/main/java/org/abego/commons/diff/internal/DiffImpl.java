@@ -29,16 +29,24 @@ import org.abego.commons.seq.Seq;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
-import static org.abego.commons.lang.StringUtil.characters;
 import static org.abego.commons.lang.StringUtil.escapedOrNull;
 import static org.abego.commons.lang.StringUtil.lines;
 import static org.abego.commons.lang.StringUtil.stringOrNull;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.abego.commons.seq.SeqUtil.emptySeq;
 import static org.abego.commons.seq.SeqUtil.newSeq;
 
 public final class DiffImpl {
+    private static final int WORD_CHAR = 0;
+    private static final int WHITESPACE_CHAR = 1;
+    private static final int OTHER_CHAR = 2;
 
     public static Seq<Difference> compareLineWise(String textA, String textB) {
         Seq<String> linesA = lines(textA);
@@ -46,18 +54,81 @@ public final class DiffImpl {
         return compare(linesA, linesB);
     }
 
+    /**
+     * Return the differences between the lines of <code>textA</code>
+     * and <code>textB</code>, using memory linear in the number of lines.
+     *
+     * <p>The lines are compared by their ids, using a linear space
+     * algorithm (see {@link MyersDiff}). Unlike
+     * {@link #compareLineWise(String, String)} this also works for large
+     * texts with many differences.</p>
+     */
+    public static Seq<Difference> compareLineWiseInLinearSpace(String textA, String textB) {
+        Map<String, Integer> lineIds = new HashMap<>();
+        return MyersDiff.compare(
+                itemIds(lines(textA), lineIds), itemIds(lines(textB), lineIds));
+    }
+
+    /**
+     * Return the differences between the characters of <code>textA</code>
+     * and <code>textB</code>.
+     *
+     * <p>The characters are compared as <code>int</code>s, using a linear
+     * space algorithm (see {@link MyersDiff}).</p>
+     */
     public static Seq<Difference> compareCharacterWise(String textA, String textB) {
-        Seq<Character> charactersA = characters(textA);
-        Seq<Character> charactersB = characters(textB);
-        return compare(charactersA, charactersB);
+        return MyersDiff.compare(characterCodes(textA), characterCodes(textB));
+    }
+
+    /**
+     * Return the differences between the words of <code>textA</code>
+     * and <code>textB</code>.
+     *
+     * <p>A "word" is a sequence of letters, digits or underscores, or a
+     * sequence of whitespace characters. Any other character is a word of
+     * its own. The ranges of the differences are character ranges, i.e.
+     * can be used like the ones of {@link #compareCharacterWise(String, String)},
+     * but always start and end at word boundaries.</p>
+     */
+    public static Seq<Difference> compareWordWise(String textA, String textB) {
+        Map<String, Integer> wordIds = new HashMap<>();
+        int[] wordStartsA = wordStarts(textA);
+        int[] wordStartsB = wordStarts(textB);
+        Seq<Difference> wordDifferences = MyersDiff.compare(
+                wordIds(textA, wordStartsA, wordIds),
+                wordIds(textB, wordStartsB, wordIds));
+
+        List<Difference> result = new ArrayList<>(wordDifferences.size());
+        for (Difference d : wordDifferences) {
+            result.add(DifferenceDefault.newDifference(
+                    newIntRange(
+                            wordStartsA[d.getRangeInA().getStart()],
+                            wordStartsA[d.getRangeInA().getEnd()]),
+                    newIntRange(
+                            wordStartsB[d.getRangeInB().getStart()],
+                            wordStartsB[d.getRangeInB().getEnd()])));
+        }
+        return newSeq(result);
     }
 
     static <T> Seq<Difference> compare(Seq<T> sequenceA, Seq<T> sequenceB) {
-        Seq<AlignedItemPair<T>> alignedItems = alignItems(sequenceA, sequenceB);
+        // Items at the start and the end that are equal in both sequences
+        // never contribute to a difference. Only align the items between
+        // these common parts, as aligning is quadratic in time and space.
+        int prefixLength = commonPrefixLength(sequenceA, sequenceB);
+        int suffixLength = commonSuffixLength(sequenceA, sequenceB, prefixLength);
+        if (prefixLength + suffixLength == sequenceA.size() &&
+                prefixLength + suffixLength == sequenceB.size()) {
+            return emptySeq();
+        }
+
+        Seq<AlignedItemPair<T>> alignedItems = alignItems(
+                subSeq(sequenceA, prefixLength, sequenceA.size() - suffixLength),
+                subSeq(sequenceB, prefixLength, sequenceB.size() - suffixLength));
         final List<DifferenceBuilder> diffList = new ArrayList<>();
         @Nullable DifferenceBuilder actDifference = null;
-        int firstLineIndex = 0;
-        int secondLineIndex = 0;
+        int firstLineIndex = prefixLength;
+        int secondLineIndex = prefixLength;
 
         ChangeKind mode = ChangeKind.MODE_UNCHANGED;
 
@@ -124,6 +195,112 @@ public final class DiffImpl {
         return toDifferences(diffList);
     }
 
+    private static int[] characterCodes(String text) {
+        int n = text.length();
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = text.charAt(i);
+        }
+        return result;
+    }
+
+    /**
+     * Return the ids of the <code>items</code>, equal items having the same
+     * id.
+     *
+     * <p>Items without an id in <code>ids</code> get a new one (and are
+     * added to <code>ids</code>). Share <code>ids</code> when calculating
+     * the ids of sequences that will be compared.</p>
+     */
+    static <T> int[] itemIds(Seq<T> items, Map<T, Integer> ids) {
+        int[] result = new int[items.size()];
+        int i = 0;
+        for (T item : items) {
+            Integer id = ids.get(item);
+            if (id == null) {
+                id = ids.size();
+                ids.put(item, id);
+            }
+            result[i++] = id;
+        }
+        return result;
+    }
+
+    /**
+     * Return the start indices of the words in <code>text</code>, followed by
+     * the length of the text (i.e. the end of the last word).
+     */
+    private static int[] wordStarts(String text) {
+        int n = text.length();
+        int[] starts = new int[n + 1];
+        int count = 0;
+        int i = 0;
+        while (i < n) {
+            starts[count++] = i;
+            int kind = wordCharKind(text.charAt(i));
+            i++;
+            if (kind != OTHER_CHAR) {
+                while (i < n && wordCharKind(text.charAt(i)) == kind) {
+                    i++;
+                }
+            }
+        }
+        starts[count++] = n;
+        return Arrays.copyOf(starts, count);
+    }
+
+    private static int wordCharKind(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' ? WORD_CHAR
+                : Character.isWhitespace(c) ? WHITESPACE_CHAR
+                : OTHER_CHAR;
+    }
+
+    private static int[] wordIds(String text, int[] wordStarts, Map<String, Integer> wordIds) {
+        int[] result = new int[wordStarts.length - 1];
+        for (int i = 0; i < result.length; i++) {
+            String word = text.substring(wordStarts[i], wordStarts[i + 1]);
+            Integer id = wordIds.get(word);
+            if (id == null) {
+                id = wordIds.size();
+                wordIds.put(word, id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    private static <T> int commonPrefixLength(Seq<T> sequenceA, Seq<T> sequenceB) {
+        int n = Math.min(sequenceA.size(), sequenceB.size());
+        int i = 0;
+        while (i < n && Objects.equals(sequenceA.item(i), sequenceB.item(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static <T> int commonSuffixLength(
+            Seq<T> sequenceA, Seq<T> sequenceB, int prefixLength) {
+        int n = Math.min(sequenceA.size(), sequenceB.size()) - prefixLength;
+        int iA = sequenceA.size() - 1;
+        int iB = sequenceB.size() - 1;
+        int i = 0;
+        while (i < n && Objects.equals(sequenceA.item(iA - i), sequenceB.item(iB - i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static <T> Seq<T> subSeq(Seq<T> sequence, int start, int end) {
+        if (start == 0 && end == sequence.size()) {
+            return sequence;
+        }
+        List<T> items = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            items.add(sequence.item(i));
+        }
+        return newSeq(items);
+    }
+
     private static <T> Seq<AlignedItemPair<T>> alignItems(
             Seq<T> linesA,
             Seq<T> linesB) {
@@ -0,0 +1,359 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.diff.DirectoryDifference;
+import org.abego.commons.diff.DirectoryDifference.Kind;
+import org.abego.commons.seq.Seq;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.abego.commons.diff.internal.DirectoryDifferenceDefault.newDirectoryDifference;
+import static org.abego.commons.io.FileUtil.runIOCode;
+import static org.abego.commons.io.FileUtil.textOf;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+/**
+ * Compares directories recursively, without running an external process.
+ *
+ * <p>Both directory trees are walked side by side, visiting the entries of a
+ * directory in the order of their names. The content of two files is only
+ * read when the files have the same size. Large files are compared via
+ * memory-mapped regions.</p>
+ *
+ * <p>The text created by {@link #diffText(Seq)} matches the output of the
+ * Unix command {@code diff -r}.</p>
+ */
+public final class DirectoryDiffImpl {
+    /**
+     * Files of at least this size are compared via memory-mapped regions.
+     */
+    // package private for tests
+    static final long MAPPED_COMPARISON_MIN_SIZE = 1L << 20;
+    private static final long MAPPED_REGION_SIZE = 1L << 26;
+    /**
+     * A file is considered "binary" when one of its first bytes (up to
+     * this number) is a zero byte.
+     */
+    private static final int BINARY_CHECK_SIZE = 8192;
+    private static final String DS_STORE_FILE_NAME = ".DS_Store"; //NON-NLS
+    private static final String NO_NEWLINE_AT_END_OF_FILE = "\\ No newline at end of file\n"; //NON-NLS
+
+    public static Seq<DirectoryDifference> compareDirectories(
+            File directoryA,
+            File directoryB,
+            boolean ignoreDSStoreFiles,
+            boolean trustSizeAndLastModified) {
+        List<DirectoryDifference> result = new ArrayList<>();
+        compareDirectories(
+                directoryA.getAbsoluteFile(),
+                directoryB.getAbsoluteFile(),
+                "",
+                ignoreDSStoreFiles,
+                trustSizeAndLastModified,
+                result);
+        return newSeq(result);
+    }
+
+    /**
+     * Return <code>true</code> when the files <code>fileA</code> and
+     * <code>fileB</code> have the same content, <code>false</code> otherwise.
+     *
+     * <p>When <code>trustSizeAndLastModified</code> is <code>true</code> two
+     * files with the same size and the same "last modified" time are
+     * considered to have the same content, without reading the files.</p>
+     */
+    public static boolean haveSameContent(
+            File fileA, File fileB, boolean trustSizeAndLastModified) {
+        long size = fileA.length();
+        if (size != fileB.length()) {
+            return false;
+        }
+        if (trustSizeAndLastModified && fileA.lastModified() == fileB.lastModified()) {
+            return true;
+        }
+        return runIOCode(() -> size >= MAPPED_COMPARISON_MIN_SIZE
+                ? haveSameContentMapped(fileA, fileB, size)
+                : Arrays.equals(
+                Files.readAllBytes(fileA.toPath()),
+                Files.readAllBytes(fileB.toPath())));
+    }
+
+    /**
+     * Return <code>true</code> when the <code>file</code> looks like a
+     * binary file, i.e. it contains a zero byte near its start.
+     */
+    public static boolean isBinaryFile(File file) {
+        return runIOCode(() -> {
+            try (InputStream input = new FileInputStream(file)) {
+                byte[] buffer = new byte[BINARY_CHECK_SIZE];
+                int n = 0;
+                int count;
+                while (n < buffer.length &&
+                        (count = input.read(buffer, n, buffer.length - n)) > 0) {
+                    n += count;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Return the <code>differences</code> as text, in the format of the
+     * Unix command {@code diff -r}.
+     */
+    public static String diffText(Seq<DirectoryDifference> differences) {
+        StringBuilder result = new StringBuilder();
+        for (DirectoryDifference difference : differences) {
+            appendDiffText(result, difference);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Append the differences between <code>textA</code> and
+     * <code>textB</code> to <code>result</code>, in the "normal" format of
+     * the Unix command {@code diff}.
+     */
+    public static void appendNormalDiffText(
+            StringBuilder result, String textA, String textB) {
+        Seq<String> linesA = linesWithTerminators(textA);
+        Seq<String> linesB = linesWithTerminators(textB);
+        Seq<Difference> differences = DiffImpl.compare(linesA, linesB);
+        int i = 0;
+        int n = differences.size();
+        while (i < n) {
+            Difference difference = differences.item(i++);
+            int startA = difference.getRangeInA().getStart();
+            int endA = difference.getRangeInA().getEnd();
+            int startB = difference.getRangeInB().getStart();
+            int endB = difference.getRangeInB().getEnd();
+            // join adjacent differences (e.g. a "replace" followed by an "add")
+            while (i < n &&
+                    differences.item(i).getRangeInA().getStart() == endA &&
+                    differences.item(i).getRangeInB().getStart() == endB) {
+                endA = differences.item(i).getRangeInA().getEnd();
+                endB = differences.item(i).getRangeInB().getEnd();
+                i++;
+            }
+
+            if (startA == endA) {
+                result.append(startA).append('a');
+                appendLineRange(result, startB, endB);
+            } else if (startB == endB) {
+                appendLineRange(result, startA, endA);
+                result.append('d').append(startB);
+            } else {
+                appendLineRange(result, startA, endA);
+                result.append('c');
+                appendLineRange(result, startB, endB);
+            }
+            result.append('\n');
+            for (int iA = startA; iA < endA; iA++) {
+                appendLine(result, "< ", linesA.item(iA));
+            }
+            if (startA != endA && startB != endB) {
+                result.append("---\n");
+            }
+            for (int iB = startB; iB < endB; iB++) {
+                appendLine(result, "> ", linesB.item(iB));
+            }
+        }
+    }
+
+    private static void compareDirectories(
+            File directoryA,
+            File directoryB,
+            String relativePath,
+            boolean ignoreDSStoreFiles,
+            boolean trustSizeAndLastModified,
+            List<DirectoryDifference> result) {
+        String[] namesA = sortedFileNames(directoryA, ignoreDSStoreFiles);
+        String[] namesB = sortedFileNames(directoryB, ignoreDSStoreFiles);
+        int iA = 0;
+        int iB = 0;
+        while (iA < namesA.length || iB < namesB.length) {
+            int c = iA >= namesA.length ? 1
+                    : iB >= namesB.length ? -1
+                    : namesA[iA].compareTo(namesB[iB]);
+            String name = c <= 0 ? namesA[iA] : namesB[iB];
+            File fileA = new File(directoryA, name);
+            File fileB = new File(directoryB, name);
+            String path = relativePath.isEmpty() ? name : relativePath + "/" + name;
+            if (c < 0) {
+                result.add(newDirectoryDifference(Kind.ONLY_IN_A, path, fileA, fileB));
+                iA++;
+            } else if (c > 0) {
+                result.add(newDirectoryDifference(Kind.ONLY_IN_B, path, fileA, fileB));
+                iB++;
+            } else {
+                compareFiles(fileA, fileB, path,
+                        ignoreDSStoreFiles, trustSizeAndLastModified, result);
+                iA++;
+                iB++;
+            }
+        }
+    }
+
+    private static void compareFiles(
+            File fileA,
+            File fileB,
+            String relativePath,
+            boolean ignoreDSStoreFiles,
+            boolean trustSizeAndLastModified,
+            List<DirectoryDifference> result) {
+        boolean isDirectoryA = fileA.isDirectory();
+        boolean isDirectoryB = fileB.isDirectory();
+        if (isDirectoryA && isDirectoryB) {
+            compareDirectories(fileA, fileB, relativePath,
+                    ignoreDSStoreFiles, trustSizeAndLastModified, result);
+        } else if (isDirectoryA || isDirectoryB) {
+            result.add(newDirectoryDifference(
+                    Kind.DIRECTORY_AND_FILE, relativePath, fileA, fileB));
+        } else if (!haveSameContent(fileA, fileB, trustSizeAndLastModified)) {
+            Kind kind = isBinaryFile(fileA) || isBinaryFile(fileB)
+                    ? Kind.BINARY_FILES_DIFFER : Kind.TEXT_FILES_DIFFER;
+            result.add(newDirectoryDifference(kind, relativePath, fileA, fileB));
+        }
+    }
+
+    static String[] sortedFileNames(File directory, boolean ignoreDSStoreFiles) {
+        String[] names = directory.list((dir, name) ->
+                !(ignoreDSStoreFiles && name.equals(DS_STORE_FILE_NAME)));
+        if (names == null) {
+            throw new UncheckedIOException(new IOException(String.format(
+                    "Error when listing directory %s", //NON-NLS
+                    directory.getAbsolutePath())));
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    private static boolean haveSameContentMapped(File fileA, File fileB, long size)
+            throws IOException {
+        try (FileChannel channelA = FileChannel.open(fileA.toPath(), StandardOpenOption.READ);
+             FileChannel channelB = FileChannel.open(fileB.toPath(), StandardOpenOption.READ)) {
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                long length = Math.min(MAPPED_REGION_SIZE, size - position);
+                if (!channelA.map(FileChannel.MapMode.READ_ONLY, position, length)
+                        .equals(channelB.map(FileChannel.MapMode.READ_ONLY, position, length))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void appendDiffText(StringBuilder result, DirectoryDifference difference) {
+        File fileA = difference.getFileInA();
+        File fileB = difference.getFileInB();
+        switch (difference.getKind()) {
+            case ONLY_IN_A:
+                appendOnlyIn(result, fileA);
+                break;
+            case ONLY_IN_B:
+                appendOnlyIn(result, fileB);
+                break;
+            case DIRECTORY_AND_FILE:
+                result.append(String.format(
+                        "File %s is a %s while file %s is a %s\n", //NON-NLS
+                        fileA.getPath(), fileTypeText(fileA),
+                        fileB.getPath(), fileTypeText(fileB)));
+                break;
+            case BINARY_FILES_DIFFER:
+                result.append(String.format(
+                        "Binary files %s and %s differ\n", //NON-NLS
+                        fileA.getPath(), fileB.getPath()));
+                break;
+            case TEXT_FILES_DIFFER:
+                result.append(String.format(
+                        "diff -r %s %s\n", //NON-NLS
+                        fileA.getPath(), fileB.getPath()));
+                appendNormalDiffText(result, textOf(fileA), textOf(fileB));
+                break;
+            default:
+                throw new IllegalStateException(
+                        "Unexpected kind: " + difference.getKind()); //NON-NLS
+        }
+    }
+
+    private static void appendOnlyIn(StringBuilder result, File file) {
+        result.append(String.format("Only in %s: %s\n", //NON-NLS
+                file.getParent(), file.getName()));
+    }
+
+    private static String fileTypeText(File file) {
+        return file.isDirectory() ? "directory" //NON-NLS
+                : file.length() == 0 ? "regular empty file" //NON-NLS
+                : "regular file"; //NON-NLS
+    }
+
+    private static void appendLineRange(StringBuilder result, int start, int end) {
+        result.append(start + 1);
+        if (end > start + 1) {
+            result.append(',').append(end);
+        }
+    }
+
+    private static void appendLine(StringBuilder result, String prefix, String line) {
+        result.append(prefix).append(line);
+        if (!line.endsWith("\n")) {
+            result.append('\n').append(NO_NEWLINE_AT_END_OF_FILE);
+        }
+    }
+
+    /**
+     * Return the lines of the <code>text</code>, each line including its
+     * terminating newline (if any).
+     */
+    private static Seq<String> linesWithTerminators(String text) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int n = text.length();
+        while (start < n) {
+            int i = text.indexOf('\n', start);
+            int end = i < 0 ? n : i + 1;
+            result.add(text.substring(start, end));
+            start = end;
+        }
+        return newSeq(result);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.DirectoryDifference;
+
+import java.io.File;
+
+final class DirectoryDifferenceDefault implements DirectoryDifference {
+    private final Kind kind;
+    private final String relativePath;
+    private final File fileInA;
+    private final File fileInB;
+
+    private DirectoryDifferenceDefault(
+            Kind kind, String relativePath, File fileInA, File fileInB) {
+        this.kind = kind;
+        this.relativePath = relativePath;
+        this.fileInA = fileInA;
+        this.fileInB = fileInB;
+    }
+
+    public static DirectoryDifference newDirectoryDifference(
+            Kind kind, String relativePath, File fileInA, File fileInB) {
+        return new DirectoryDifferenceDefault(kind, relativePath, fileInA, fileInB);
+    }
+
+    @Override
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    @Override
+    public File getFileInA() {
+        return fileInA;
+    }
+
+    @Override
+    public File getFileInB() {
+        return fileInB;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s", kind, relativePath); //NON-NLS
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.diff.FilePair;
+import org.abego.commons.diff.FilePairDifferences;
+import org.abego.commons.seq.Seq;
+
+import java.io.File;
+import java.time.Duration;
+
+final class FilePairDifferencesDefault implements FilePairDifferences {
+    private final FilePair filePair;
+    private final Seq<Difference> differences;
+    private final Duration duration;
+
+    private FilePairDifferencesDefault(
+            FilePair filePair, Seq<Difference> differences, Duration duration) {
+        this.filePair = filePair;
+        this.differences = differences;
+        this.duration = duration;
+    }
+
+    public static FilePairDifferences newFilePairDifferences(
+            FilePair filePair, Seq<Difference> differences, Duration duration) {
+        return new FilePairDifferencesDefault(filePair, differences, duration);
+    }
+
+    @Override
+    public File getExpectedFile() {
+        return filePair.getExpectedFile();
+    }
+
+    @Override
+    public File getActualFile() {
+        return filePair.getActualFile();
+    }
+
+    @Override
+    public Seq<Difference> getDifferences() {
+        return differences;
+    }
+
+    @Override
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d difference(s)", //NON-NLS
+                filePair, differences.size());
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.diff.IncrementalTextDiff;
+import org.abego.commons.seq.Seq;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.abego.commons.diff.internal.DifferenceDefault.newDifference;
+import static org.abego.commons.lang.StringUtil.lines;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+/**
+ * An {@link IncrementalTextDiff} comparing lines.
+ *
+ * <p>Text B is kept as a list of lines, each line including its line
+ * separator (the last line has none). On an edit only the lines touched by
+ * the edit are replaced. These lines, extended by the differences touching
+ * them, form the "window" that is compared again (using {@link MyersDiff}).
+ * The differences outside the window are kept, the ones after the window
+ * are just moved.</p>
+ *
+ * <p>Keeping the differences outside the window may give a result that is
+ * not minimal, as the edit may make a different alignment of the lines
+ * next to the window the better one (e.g. when inserting a line that
+ * duplicates a neighbouring one). Therefore the window is then widened
+ * step by step, by a margin starting with the size of the edit (in lines)
+ * and doubling with every step ({@value #MAX_WIDEN_STEPS} steps at most).
+ * When comparing a wider window gives fewer changed lines its result
+ * replaces the differences in that window. So the work per edit depends
+ * on the size of the edit and of the differences near it, not on the size
+ * of the text. A change far away from the edit may still make the result
+ * non-minimal (e.g. after swapping lines).</p>
+ */
+public final class IncrementalLineDiffImpl implements IncrementalTextDiff {
+    private static final int MAX_WIDEN_STEPS = 4;
+
+    private final List<String> linesA;
+    private final List<String> linesB;
+    private final List<Difference> differences;
+    private int lengthB;
+    // The line of text B last located, and its start index, as a hint
+    // where to start searching the next time. Edits are typically close
+    // to each other.
+    private int hintLine = 0;
+    private int hintLineStart = 0;
+
+    private IncrementalLineDiffImpl(String textA, String textB) {
+        this.linesA = new ArrayList<>();
+        lines(textA).forEach(linesA::add);
+        this.linesB = linesWithSeparators(textB, true);
+        this.lengthB = textB.length();
+        this.differences = new ArrayList<>();
+        compareLines(0, linesA.size(), 0, linesB.size(), differences);
+    }
+
+    public static IncrementalTextDiff newIncrementalLineDiff(String textA, String textB) {
+        return new IncrementalLineDiffImpl(textA, textB);
+    }
+
+    @Override
+    public String getTextB() {
+        StringBuilder result = new StringBuilder(lengthB);
+        for (String line : linesB) {
+            result.append(line);
+        }
+        return result.toString();
+    }
+
+    @Override
+    public Seq<Difference> getDifferences() {
+        return newSeq(new ArrayList<>(differences));
+    }
+
+    @Override
+    public Seq<Difference> replaceRangeInB(int startIndex, int endIndex, String newRangeText) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > lengthB) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Invalid range %d..%d for text of length %d", //NON-NLS
+                    startIndex, endIndex, lengthB));
+        }
+
+        int firstLine = lineAt(startIndex);
+        int firstLineStart = hintLineStart;
+        int lastLine = lineAt(endIndex);
+        int lastLineStart = hintLineStart;
+
+        StringBuilder newText = new StringBuilder();
+        newText.append(linesB.get(firstLine), 0, startIndex - firstLineStart);
+        newText.append(newRangeText);
+        newText.append(linesB.get(lastLine).substring(endIndex - lastLineStart));
+        int endLine = lastLine + 1;
+        // an edited line must end with a separator, unless it is the last line
+        while (endLine < linesB.size() &&
+                (newText.length() == 0 || newText.charAt(newText.length() - 1) != '\n')) {
+            newText.append(linesB.get(endLine++));
+        }
+        List<String> newLines = linesWithSeparators(
+                newText.toString(), endLine == linesB.size());
+
+        List<String> replacedLines = linesB.subList(firstLine, endLine);
+        replacedLines.clear();
+        replacedLines.addAll(newLines);
+        lengthB += newRangeText.length() - (endIndex - startIndex);
+        hintLine = firstLine;
+        hintLineStart = firstLineStart;
+
+        updateDifferences(firstLine, endLine, newLines.size());
+
+        return getDifferences();
+    }
+
+    /**
+     * Update the differences after the lines <code>[startLine, endLine)</code>
+     * of text B were replaced by <code>newLineCount</code> lines.
+     */
+    private void updateDifferences(int startLine, int endLine, int newLineCount) {
+        compareWindow(startLine, endLine, newLineCount - (endLine - startLine), false);
+
+        // compare wider windows, in case this gives fewer changed lines
+        int windowEnd = startLine + newLineCount;
+        int margin = Math.max(1, Math.max(newLineCount, endLine - startLine));
+        for (int step = 0; step < MAX_WIDEN_STEPS; step++) {
+            int start = Math.max(0, startLine - margin);
+            int end = Math.min(linesB.size(), windowEnd + margin);
+            compareWindow(start, end, 0, true);
+            if (start == 0 && end == linesB.size()) {
+                break;
+            }
+            margin *= 2;
+        }
+    }
+
+    /**
+     * Compare the lines <code>[windowStart, windowEnd)</code> of text B
+     * again, with the window extended by the differences overlapping or
+     * touching it, and replace the differences in the window by the
+     * result.
+     *
+     * <p>The lines in the window were replaced by lines
+     * <code>lineDelta</code> lines more, i.e. the differences after the
+     * window are moved by <code>lineDelta</code>.</p>
+     *
+     * <p>When <code>onlyWhenFewerChanges</code> is <code>true</code> the
+     * differences are only replaced when the result has fewer changed
+     * lines.</p>
+     *
+     * <p>Return <code>true</code> when the differences were replaced.</p>
+     */
+    private boolean compareWindow(int windowStart, int windowEnd, int lineDelta,
+                                  boolean onlyWhenFewerChanges) {
+        // extend the window by the differences overlapping or touching it
+        int first = indexOfFirstDifferenceEndingAtOrAfter(windowStart);
+        int end = first;
+        int oldChangedLineCount = 0;
+        while (end < differences.size() &&
+                differences.get(end).getRangeInB().getStart() <= windowEnd) {
+            Difference d = differences.get(end++);
+            windowStart = Math.min(windowStart, d.getRangeInB().getStart());
+            windowEnd = Math.max(windowEnd, d.getRangeInB().getEnd());
+            oldChangedLineCount += changedLineCount(d);
+        }
+
+        // Outside of differences line i of B corresponds to line
+        // (i - offset) of A, with offset defined by the preceding difference
+        int offsetBefore = first > 0 ? offsetAfter(differences.get(first - 1)) : 0;
+        int offsetAtEnd = end > first ? offsetAfter(differences.get(end - 1)) : offsetBefore;
+        int windowStartA = windowStart - offsetBefore;
+        int windowEndA = windowEnd - offsetAtEnd;
+
+        List<Difference> windowDifferences = new ArrayList<>();
+        compareLines(windowStartA, windowEndA,
+                windowStart, windowEnd + lineDelta, windowDifferences);
+        if (onlyWhenFewerChanges) {
+            int newChangedLineCount = 0;
+            for (Difference d : windowDifferences) {
+                newChangedLineCount += changedLineCount(d);
+            }
+            if (newChangedLineCount >= oldChangedLineCount) {
+                return false;
+            }
+        }
+
+        List<Difference> replacedDifferences = differences.subList(first, end);
+        replacedDifferences.clear();
+        replacedDifferences.addAll(windowDifferences);
+        if (lineDelta != 0) {
+            for (int i = first + windowDifferences.size(); i < differences.size(); i++) {
+                Difference d = differences.get(i);
+                differences.set(i, newDifference(
+                        d.getRangeInA(),
+                        newIntRange(d.getRangeInB().getStart() + lineDelta,
+                                d.getRangeInB().getEnd() + lineDelta)));
+            }
+        }
+        return true;
+    }
+
+    private static int changedLineCount(Difference difference) {
+        return difference.getRangeInA().getLength() + difference.getRangeInB().getLength();
+    }
+
+    private int indexOfFirstDifferenceEndingAtOrAfter(int line) {
+        int low = 0;
+        int high = differences.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (differences.get(middle).getRangeInB().getEnd() < line) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int offsetAfter(Difference difference) {
+        return difference.getRangeInB().getEnd() - difference.getRangeInA().getEnd();
+    }
+
+    /**
+     * Compare the lines <code>[startA, endA)</code> of text A with the
+     * lines <code>[startB, endB)</code> of text B and add the differences
+     * to <code>result</code>.
+     */
+    private void compareLines(
+            int startA, int endA, int startB, int endB, List<Difference> result) {
+        Map<String, Integer> lineIds = new HashMap<>();
+        int[] idsA = new int[endA - startA];
+        for (int i = startA; i < endA; i++) {
+            idsA[i - startA] = lineId(linesA.get(i), lineIds);
+        }
+        int[] idsB = new int[endB - startB];
+        for (int i = startB; i < endB; i++) {
+            idsB[i - startB] = lineId(lineContent(linesB.get(i)), lineIds);
+        }
+        for (Difference d : MyersDiff.compare(idsA, idsB)) {
+            result.add(newDifference(
+                    newIntRange(d.getRangeInA().getStart() + startA,
+                            d.getRangeInA().getEnd() + startA),
+                    newIntRange(d.getRangeInB().getStart() + startB,
+                            d.getRangeInB().getEnd() + startB)));
+        }
+    }
+
+    private static int lineId(String line, Map<String, Integer> lineIds) {
+        Integer id = lineIds.get(line);
+        if (id == null) {
+            id = lineIds.size();
+            lineIds.put(line, id);
+        }
+        return id;
+    }
+
+    /**
+     * Return the index of the line of text B containing the character at
+     * <code>index</code> (or the last line when <code>index</code> is the
+     * length of text B) and set <code>hintLineStart</code> to the start
+     * index of that line.
+     */
+    private int lineAt(int index) {
+        int line = hintLine;
+        int lineStart = hintLineStart;
+        while (index < lineStart) {
+            line--;
+            lineStart -= linesB.get(line).length();
+        }
+        int lastLine = linesB.size() - 1;
+        while (line < lastLine && index >= lineStart + linesB.get(line).length()) {
+            lineStart += linesB.get(line).length();
+            line++;
+        }
+        hintLine = line;
+        hintLineStart = lineStart;
+        return line;
+    }
+
+    /**
+     * Return the line without its line separator ("\n" or "\r\n").
+     */
+    private static String lineContent(String line) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\n') {
+            end--;
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                end--;
+            }
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Return the lines of <code>text</code>, each including its line
+     * separator.
+     *
+     * <p>When <code>includesLastLine</code> is <code>true</code> the text
+     * after the last newline is the (possibly empty) last line, as in
+     * {@link org.abego.commons.lang.StringUtil#lines(String)}. Otherwise
+     * the text is expected to end with a newline.</p>
+     */
+    private static List<String> linesWithSeparators(String text, boolean includesLastLine) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int i;
+        while ((i = text.indexOf('\n', start)) >= 0) {
+            result.add(text.substring(start, i + 1));
+            start = i + 1;
+        }
+        if (includesLastLine) {
+            result.add(text.substring(start));
+        }
+        return result;
+    }
+}
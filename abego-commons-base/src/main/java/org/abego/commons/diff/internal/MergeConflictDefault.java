@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.MergeConflict;
+import org.abego.commons.range.IntRange;
+
+final class MergeConflictDefault implements MergeConflict {
+    private final IntRange rangeInBase;
+    private final IntRange rangeInOurs;
+    private final IntRange rangeInTheirs;
+
+    private MergeConflictDefault(
+            IntRange rangeInBase, IntRange rangeInOurs, IntRange rangeInTheirs) {
+        this.rangeInBase = rangeInBase;
+        this.rangeInOurs = rangeInOurs;
+        this.rangeInTheirs = rangeInTheirs;
+    }
+
+    public static MergeConflict newMergeConflict(
+            IntRange rangeInBase, IntRange rangeInOurs, IntRange rangeInTheirs) {
+        return new MergeConflictDefault(rangeInBase, rangeInOurs, rangeInTheirs);
+    }
+
+    @Override
+    public IntRange getRangeInBase() {
+        return rangeInBase;
+    }
+
+    @Override
+    public IntRange getRangeInOurs() {
+        return rangeInOurs;
+    }
+
+    @Override
+    public IntRange getRangeInTheirs() {
+        return rangeInTheirs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("base: %s, ours: %s, theirs: %s", //NON-NLS
+                rangeInBase, rangeInOurs, rangeInTheirs);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.seq.Seq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.abego.commons.diff.internal.DifferenceDefault.newDifference;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+/**
+ * Computes the differences between two sequences of <code>int</code>s,
+ * using the linear space variant of Myers' algorithm.
+ *
+ * <p>Items are plain <code>int</code>s (e.g. characters or ids of
+ * tokens), so comparing items does not involve boxing or
+ * {@link Object#equals(Object)} calls.</p>
+ *
+ * <p>The algorithm has a time complexity of O((n+m)*d) and a space
+ * complexity of O(n+m), with d being the size of the difference.</p>
+ *
+ * <p>For details see:
+ * <blockquote>
+ * Eugene W. Myers - An O(ND) Difference Algorithm and Its Variations; <br>
+ * Algorithmica 1, 1986; pp. 251
+ * </blockquote>
+ */
+final class MyersDiff {
+    private final int[] a;
+    private final int[] b;
+    private final boolean[] changedInA;
+    private final boolean[] changedInB;
+    private final int[] vForward;
+    private final int[] vBackward;
+
+    private MyersDiff(int[] a, int[] b) {
+        this.a = a;
+        this.b = b;
+        this.changedInA = new boolean[a.length];
+        this.changedInB = new boolean[b.length];
+        int vLength = a.length + b.length + 3;
+        this.vForward = new int[vLength];
+        this.vBackward = new int[vLength];
+    }
+
+    /**
+     * Return the differences between <code>a</code> and <code>b</code>.
+     *
+     * <p>Every {@link Difference} covers a maximal range of changed items,
+     * i.e. two differences are always separated by at least one unchanged
+     * item.</p>
+     */
+    static Seq<Difference> compare(int[] a, int[] b) {
+        MyersDiff diff = new MyersDiff(a, b);
+        diff.compare(0, a.length, 0, b.length);
+        return diff.differences();
+    }
+
+    private void compare(int startA, int endA, int startB, int endB) {
+        // skip the common prefix and suffix
+        while (startA < endA && startB < endB && a[startA] == b[startB]) {
+            startA++;
+            startB++;
+        }
+        while (startA < endA && startB < endB && a[endA - 1] == b[endB - 1]) {
+            endA--;
+            endB--;
+        }
+
+        if (startA == endA) {
+            Arrays.fill(changedInB, startB, endB, true);
+        } else if (startB == endB) {
+            Arrays.fill(changedInA, startA, endA, true);
+        } else {
+            long split = middleOfShortestEditPath(startA, endA, startB, endB);
+            if (split < 0) {
+                Arrays.fill(changedInA, startA, endA, true);
+                Arrays.fill(changedInB, startB, endB, true);
+            } else {
+                int splitA = (int) (split >>> 32);
+                int splitB = (int) split;
+                compare(startA, splitA, startB, splitB);
+                compare(splitA, endA, splitB, endB);
+            }
+        }
+    }
+
+    /**
+     * Return a point (x,y) on a shortest edit path between the given
+     * ranges, roughly in its middle, as <code>(x &lt;&lt; 32) | y</code>, or
+     * -1 when the ranges have no item in common.
+     *
+     * <p>The forward and the backward search run simultaneously until they
+     * overlap.</p>
+     */
+    private long middleOfShortestEditPath(int startA, int endA, int startB, int endB) {
+        int n = endA - startA;
+        int m = endB - startB;
+        int maxD = (n + m + 1) / 2;
+        int vOffset = maxD;
+        int vLength = 2 * maxD + 2;
+        Arrays.fill(vForward, 0, vLength, -1);
+        Arrays.fill(vBackward, 0, vLength, -1);
+        vForward[vOffset + 1] = 0;
+        vBackward[vOffset + 1] = 0;
+        int delta = n - m;
+        // when delta is odd the forward path overlaps the backward path,
+        // otherwise the backward path overlaps the forward path.
+        boolean front = (delta & 1) != 0;
+        int kForwardStart = 0;
+        int kForwardEnd = 0;
+        int kBackwardStart = 0;
+        int kBackwardEnd = 0;
+        for (int d = 0; d < maxD; d++) {
+            for (int k = -d + kForwardStart; k <= d - kForwardEnd; k += 2) {
+                int kOffset = vOffset + k;
+                int x = k == -d || (k != d && vForward[kOffset - 1] < vForward[kOffset + 1])
+                        ? vForward[kOffset + 1]
+                        : vForward[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[startA + x] == b[startB + y]) {
+                    x++;
+                    y++;
+                }
+                vForward[kOffset] = x;
+                if (x > n) {
+                    kForwardEnd += 2;
+                } else if (y > m) {
+                    kForwardStart += 2;
+                } else if (front) {
+                    int kBackwardOffset = vOffset + delta - k;
+                    if (kBackwardOffset >= 0 && kBackwardOffset < vLength &&
+                            vBackward[kBackwardOffset] != -1 &&
+                            x >= n - vBackward[kBackwardOffset]) {
+                        return split(startA + x, startB + y);
+                    }
+                }
+            }
+
+            for (int k = -d + kBackwardStart; k <= d - kBackwardEnd; k += 2) {
+                int kOffset = vOffset + k;
+                int x = k == -d || (k != d && vBackward[kOffset - 1] < vBackward[kOffset + 1])
+                        ? vBackward[kOffset + 1]
+                        : vBackward[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[endA - x - 1] == b[endB - y - 1]) {
+                    x++;
+                    y++;
+                }
+                vBackward[kOffset] = x;
+                if (x > n) {
+                    kBackwardEnd += 2;
+                } else if (y > m) {
+                    kBackwardStart += 2;
+                } else if (!front) {
+                    int kForwardOffset = vOffset + delta - k;
+                    if (kForwardOffset >= 0 && kForwardOffset < vLength &&
+                            vForward[kForwardOffset] != -1) {
+                        int xForward = vForward[kForwardOffset];
+                        int yForward = vOffset + xForward - kForwardOffset;
+                        if (xForward >= n - x) {
+                            return split(startA + xForward, startB + yForward);
+                        }
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long split(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private Seq<Difference> differences() {
+        List<Difference> result = new ArrayList<>();
+        int n = a.length;
+        int m = b.length;
+        int iA = 0;
+        int iB = 0;
+        while (iA < n || iB < m) {
+            if (iA < n && iB < m && !changedInA[iA] && !changedInB[iB]) {
+                iA++;
+                iB++;
+            } else {
+                int startA = iA;
+                int startB = iB;
+                while (iA < n && changedInA[iA]) {
+                    iA++;
+                }
+                while (iB < m && changedInB[iB]) {
+                    iB++;
+                }
+                if (iA == startA && iB == startB) {
+                    throw new IllegalStateException(
+                            "Unchanged items not aligned"); //NON-NLS
+                }
+                result.add(newDifference(newIntRange(startA, iA), newIntRange(startB, iB)));
+            }
+        }
+        return newSeq(result);
+    }
+}
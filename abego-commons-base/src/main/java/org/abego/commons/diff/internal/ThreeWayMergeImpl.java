@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.diff.MergeConflict;
+import org.abego.commons.diff.ThreeWayMerge;
+import org.abego.commons.seq.Seq;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.abego.commons.diff.internal.MergeConflictDefault.newMergeConflict;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+
+public final class ThreeWayMergeImpl {
+    private final Seq<String> base;
+    private final Seq<String> ours;
+    private final Seq<String> theirs;
+    private final Writer output;
+    private final List<MergeConflict> conflicts = new ArrayList<>();
+    private boolean isFirstLine = true;
+
+    private ThreeWayMergeImpl(
+            Seq<String> base, Seq<String> ours, Seq<String> theirs, Writer output) {
+        this.base = base;
+        this.ours = ours;
+        this.theirs = theirs;
+        this.output = output;
+    }
+
+    public static Seq<MergeConflict> merge(
+            Seq<String> base, Seq<String> ours, Seq<String> theirs, Writer output) {
+        ThreeWayMergeImpl merge = new ThreeWayMergeImpl(base, ours, theirs, output);
+        try {
+            merge.merge();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return newSeq(merge.conflicts);
+    }
+
+    private void merge() throws IOException {
+        Map<String, Integer> lineIds = new HashMap<>();
+        int[] baseIds = DiffImpl.itemIds(base, lineIds);
+        Seq<Difference> oursDiffs = MyersDiff.compare(baseIds, DiffImpl.itemIds(ours, lineIds));
+        Seq<Difference> theirsDiffs = MyersDiff.compare(baseIds, DiffImpl.itemIds(theirs, lineIds));
+
+        int iOurs = 0;
+        int iTheirs = 0;
+        // (index in ours/theirs) - (index in base), for base lines after
+        // the differences processed so far
+        int oursDelta = 0;
+        int theirsDelta = 0;
+        int basePosition = 0;
+        while (iOurs < oursDiffs.size() || iTheirs < theirsDiffs.size()) {
+            // A "chunk" is a range in base covered by overlapping or adjacent
+            // differences of ours and theirs.
+            int chunkStart = Math.min(
+                    startInBase(oursDiffs, iOurs), startInBase(theirsDiffs, iTheirs));
+            int chunkEnd = chunkStart;
+            int oursStart = chunkStart + oursDelta;
+            int theirsStart = chunkStart + theirsDelta;
+            boolean oursChanged = false;
+            boolean theirsChanged = false;
+            boolean extended = true;
+            while (extended) {
+                extended = false;
+                if (iOurs < oursDiffs.size() && startInBase(oursDiffs, iOurs) <= chunkEnd) {
+                    Difference d = oursDiffs.item(iOurs++);
+                    chunkEnd = Math.max(chunkEnd, d.getRangeInA().getEnd());
+                    oursDelta += d.getRangeInB().getLength() - d.getRangeInA().getLength();
+                    oursChanged = true;
+                    extended = true;
+                }
+                if (iTheirs < theirsDiffs.size() && startInBase(theirsDiffs, iTheirs) <= chunkEnd) {
+                    Difference d = theirsDiffs.item(iTheirs++);
+                    chunkEnd = Math.max(chunkEnd, d.getRangeInA().getEnd());
+                    theirsDelta += d.getRangeInB().getLength() - d.getRangeInA().getLength();
+                    theirsChanged = true;
+                    extended = true;
+                }
+            }
+            int oursEnd = chunkEnd + oursDelta;
+            int theirsEnd = chunkEnd + theirsDelta;
+
+            writeLines(base, basePosition, chunkStart);
+            if (!theirsChanged) {
+                writeLines(ours, oursStart, oursEnd);
+            } else if (!oursChanged || haveEqualLines(oursStart, oursEnd, theirsStart, theirsEnd)) {
+                writeLines(theirs, theirsStart, theirsEnd);
+            } else {
+                conflicts.add(newMergeConflict(
+                        newIntRange(chunkStart, chunkEnd),
+                        newIntRange(oursStart, oursEnd),
+                        newIntRange(theirsStart, theirsEnd)));
+                writeLine(ThreeWayMerge.CONFLICT_START_MARKER);
+                writeLines(ours, oursStart, oursEnd);
+                writeLine(ThreeWayMerge.CONFLICT_SEPARATOR_MARKER);
+                writeLines(theirs, theirsStart, theirsEnd);
+                writeLine(ThreeWayMerge.CONFLICT_END_MARKER);
+            }
+            basePosition = chunkEnd;
+        }
+        writeLines(base, basePosition, base.size());
+    }
+
+    private static int startInBase(Seq<Difference> differences, int index) {
+        return index < differences.size()
+                ? differences.item(index).getRangeInA().getStart()
+                : Integer.MAX_VALUE;
+    }
+
+    private boolean haveEqualLines(int oursStart, int oursEnd, int theirsStart, int theirsEnd) {
+        if (oursEnd - oursStart != theirsEnd - theirsStart) {
+            return false;
+        }
+        for (int i = 0; i < oursEnd - oursStart; i++) {
+            if (!ours.item(oursStart + i).equals(theirs.item(theirsStart + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeLines(Seq<String> lines, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            writeLine(lines.item(i));
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        if (isFirstLine) {
+            isFirstLine = false;
+        } else {
+            output.write('\n');
+        }
+        output.write(line);
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.abego.commons.io.FileUtil.IOCommand;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.abego.commons.io.FileUtil.ensureDirectoryExists;
+
+/**
+ * Writes files in the background, using an I/O executor.
+ *
+ * <p>Creating the files (and their directories) and writing the text to
+ * the files happens in background threads, with large buffers. The
+ * writes to the same file are performed in the order they were requested,
+ * writes to different files may run concurrently.</p>
+ *
+ * <p>The amount of text queued but not yet written ("in flight") is
+ * bounded: when the limit is reached, requesting another write blocks
+ * until enough text was written.</p>
+ *
+ * <p>{@link #close()} waits until all files are written and closed and
+ * throws an {@link IOException} when writing any file failed.</p>
+ *
+ * <p>Use {@link ToFileInHeaderLineWriter#toFileInHeaderLineWriter(Charset, AsyncFileOutput)}
+ * to write through an AsyncFileOutput.</p>
+ */
+public final class AsyncFileOutput implements Closeable {
+    /**
+     * The default maximal number of characters "in flight", i.e. queued
+     * but not yet written.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_CHARS = 16 * 1024 * 1024;
+    /**
+     * The default number of threads writing files.
+     */
+    public static final int DEFAULT_THREAD_COUNT = 4;
+    private static final int WRITER_BUFFER_SIZE = 256 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final int maxInFlightChars;
+    private final Semaphore inFlightChars;
+    private final Set<CompletableFuture<Void>> pendingFiles =
+            ConcurrentHashMap.newKeySet();
+    private final Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+    // operations are enqueued holding the read lock, close() sets
+    // isClosed holding the write lock. So an operation is either enqueued
+    // (and its file registered as pending) before close() takes its
+    // snapshot of the pending files, or fails as the output is closed.
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean isClosed;
+
+    private AsyncFileOutput(int threadCount, int maxInFlightChars) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(
+                    "threadCount must be > 0, got " + threadCount); //NON-NLS
+        }
+        if (maxInFlightChars < 1) {
+            throw new IllegalArgumentException(
+                    "maxInFlightChars must be > 0, got " + maxInFlightChars); //NON-NLS
+        }
+        this.executor = Executors.newFixedThreadPool(threadCount, newThreadFactory());
+        this.maxInFlightChars = maxInFlightChars;
+        this.inFlightChars = new Semaphore(maxInFlightChars);
+    }
+
+    /**
+     * Return a new AsyncFileOutput writing files with
+     * <code>threadCount</code> threads, with at most
+     * <code>maxInFlightChars</code> characters queued but not yet written.
+     */
+    public static AsyncFileOutput newAsyncFileOutput(
+            int threadCount, int maxInFlightChars) {
+        return new AsyncFileOutput(threadCount, maxInFlightChars);
+    }
+
+    /**
+     * Return a new AsyncFileOutput writing files with
+     * {@link #DEFAULT_THREAD_COUNT} threads, with at most
+     * {@link #DEFAULT_MAX_IN_FLIGHT_CHARS} characters queued but not yet
+     * written.
+     */
+    public static AsyncFileOutput newAsyncFileOutput() {
+        return newAsyncFileOutput(DEFAULT_THREAD_COUNT, DEFAULT_MAX_IN_FLIGHT_CHARS);
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable,
+                    "AsyncFileOutput-" + THREAD_COUNTER.incrementAndGet()); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Wait until all files are written and closed, stop the background
+     * threads and throw an {@link IOException} when writing any file
+     * failed.
+     *
+     * <p>When more than one file failed the exceptions of the other files
+     * are added as "suppressed" exceptions.</p>
+     *
+     * <p>Files not yet closed are not waited for.</p>
+     */
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<?>[] files;
+        closeLock.writeLock().lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            files = pendingFiles.toArray(new CompletableFuture<?>[0]);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        try {
+            CompletableFuture.allOf(files).join();
+        } finally {
+            executor.shutdown();
+        }
+        throwFailures();
+    }
+
+    /**
+     * Return a handle to write the text file <code>file</code>, using
+     * <code>charset</code>.
+     *
+     * <p>The file is created when the first operation on the handle is
+     * executed.</p>
+     */
+    AsyncFile openFile(File file, Charset charset) throws IOException {
+        if (isClosed) {
+            throw new IOException(String.format(
+                    "AsyncFileOutput already closed. Cannot write '%s'", //NON-NLS
+                    file.getAbsolutePath()));
+        }
+        return new AsyncFile(file, charset);
+    }
+
+    private void throwFailures() throws IOException {
+        @Nullable IOException first = failures.poll();
+        if (first != null) {
+            @Nullable IOException other;
+            while ((other = failures.poll()) != null) {
+                first.addSuppressed(other);
+            }
+            throw first;
+        }
+    }
+
+    private int acquireInFlightChars(int charCount) throws IOException {
+        // a single text larger than the limit is accepted when nothing else
+        // is in flight.
+        int permits = Math.min(charCount, maxInFlightChars);
+        try {
+            inFlightChars.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interrupted while waiting for file output"); //NON-NLS
+        }
+        return permits;
+    }
+
+    /**
+     * A file written in the background.
+     *
+     * <p>The methods must be called by a single thread (or externally
+     * synchronized).</p>
+     */
+    final class AsyncFile {
+        private final File file;
+        private final Charset charset;
+        // the operations of this file are chained, to run them in order.
+        private CompletableFuture<Void> lastOperation =
+                CompletableFuture.completedFuture(null);
+        // only accessed by the operations, i.e. sequentially.
+        @Nullable
+        private Writer writer;
+        @Nullable
+        private volatile IOException failure;
+
+        private AsyncFile(File file, Charset charset) {
+            this.file = file;
+            this.charset = charset;
+        }
+
+        /**
+         * Queue writing <code>text</code> to the file.
+         *
+         * <p>Blocks while too much text is in flight. Throws an
+         * {@link IOException} when a previous operation on this file
+         * failed.</p>
+         */
+        void write(String text) throws IOException {
+            throwIfFailed();
+            int permits = acquireInFlightChars(text.length());
+            enqueue(() -> writer().write(text), permits, false);
+        }
+
+        /**
+         * Queue flushing the file.
+         */
+        void flush() throws IOException {
+            throwIfFailed();
+            enqueue(() -> writer().flush(), 0, false);
+        }
+
+        /**
+         * Queue closing the file.
+         *
+         * <p>The file is created, even when no text was written.</p>
+         *
+         * <p>Throws an {@link IOException} when a previous operation on this
+         * file failed. Failures of the remaining operations are reported by
+         * {@link AsyncFileOutput#close()}.</p>
+         */
+        void close() throws IOException {
+            throwIfFailed();
+            enqueue(() -> writer().close(), 0, true);
+        }
+
+        private Writer writer() {
+            @Nullable Writer w = writer;
+            if (w == null) {
+                ensureDirectoryExists(file.getParentFile());
+                w = new BufferedWriter(
+                        WriterUtil.writer(file, charset), WRITER_BUFFER_SIZE);
+                writer = w;
+            }
+            return w;
+        }
+
+        /**
+         * Enqueue the <code>operation</code>, to run after the operations
+         * enqueued before.
+         *
+         * <p>When <code>isLastOperation</code> is <code>true</code> the file
+         * is registered as pending, i.e. {@link AsyncFileOutput#close()}
+         * waits until all operations of the file are done.</p>
+         */
+        private void enqueue(IOCommand operation, int inFlightCharsToRelease,
+                             boolean isLastOperation)
+                throws IOException {
+            closeLock.readLock().lock();
+            try {
+                if (isClosed) {
+                    inFlightChars.release(inFlightCharsToRelease);
+                    throw new IOException(String.format(
+                            "AsyncFileOutput already closed. Cannot write '%s'", //NON-NLS
+                            file.getAbsolutePath()));
+                }
+                lastOperation = lastOperation.thenRunAsync(() -> {
+                    try {
+                        if (failure == null) {
+                            operation.run();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        handleFailure(e);
+                    } finally {
+                        inFlightChars.release(inFlightCharsToRelease);
+                    }
+                }, executor);
+                if (isLastOperation) {
+                    CompletableFuture<Void> operations = lastOperation;
+                    pendingFiles.add(operations);
+                    operations.whenComplete((v, e) -> pendingFiles.remove(operations));
+                }
+            } finally {
+                closeLock.readLock().unlock();
+            }
+        }
+
+        private void handleFailure(Exception e) {
+            IOException exception = new IOException(String.format(
+                    "Error when writing '%s'", //NON-NLS
+                    file.getAbsolutePath()), e);
+            failure = exception;
+            failures.add(exception);
+            @Nullable Writer w = writer;
+            if (w != null) {
+                try {
+                    w.close();
+                } catch (IOException closeException) {
+                    exception.addSuppressed(closeException);
+                }
+            }
+        }
+
+        private void throwIfFailed() throws IOException {
+            @Nullable IOException e = failure;
+            if (e != null) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+}
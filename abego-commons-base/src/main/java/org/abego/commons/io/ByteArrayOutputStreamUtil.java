@@ -45,7 +45,8 @@ public final class ByteArrayOutputStreamUtil {
     public static String textOf(ByteArrayOutputStream outputStream,
                                 String charsetName) {
         try {
-            return new String(outputStream.toByteArray(), charsetName);
+            // decodes directly from the internal buffer, without copying
+            return outputStream.toString(charsetName);
         } catch (UnsupportedEncodingException e) {
             throw newUncheckedException(e);
         }
@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scans the lines of a byte-encoded text directly in a {@link ByteBuffer},
+ * without decoding or copying the bytes.
+ *
+ * <p>A line separator may be "\n", "\r" or "\r\n" (like in
+ * {@link LineSplittingWriter}). Every line but the last one ends with a
+ * line separator. The last line may have no line separator; a text ending
+ * with a line separator does not have an extra, empty last line.
+ * An empty text has no lines.</p>
+ *
+ * <p>The scanner works for every encoding where the bytes 0x0A and 0x0D
+ * only occur as (part of) the line separators, like US-ASCII, ISO-8859-1
+ * or UTF-8. It does not work for UTF-16 or UTF-32.</p>
+ *
+ * <p>The scanner itself is the (reusable) view on the current line: after
+ * {@link #next()} returned <code>true</code> {@link #lineStart()},
+ * {@link #lineLength()} and {@link #separatorLength()} describe the
+ * current line, as absolute positions in {@link #buffer()}.
+ * No objects are allocated per line.</p>
+ *
+ * <p>The search for line separators examines 8 bytes at a time
+ * ("SIMD within a register").</p>
+ *
+ * <p>A ByteLineScanner is not thread-safe.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * ByteLineScanner scanner = ByteLineScanner.newByteLineScanner(file);
+ * while (scanner.next()) {
+ *     ByteBuffer bytes = scanner.buffer();
+ *     int end = scanner.lineStart() + scanner.lineLength();
+ *     for (int i = scanner.lineStart(); i &lt; end; i++) {
+ *         ... bytes.get(i) ...
+ *     }
+ * }
+ * </pre>
+ */
+public final class ByteLineScanner {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long CARRIAGE_RETURNS = 0x0D0D0D0D0D0D0D0DL;
+    private static final byte NEWLINE_BYTE = '\n';
+    private static final byte CARRIAGE_RETURN_BYTE = '\r';
+
+    private final ByteBuffer buffer;
+    private final int end;
+    private int position;
+    private int lineStart;
+    private int lineLength;
+    private int separatorLength;
+    private int lineIndex = -1;
+
+    private ByteLineScanner(ByteBuffer buffer) {
+        // use a duplicate so we can set the byte order without changing
+        // the caller's buffer. The content is shared, not copied.
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.position = buffer.position();
+        this.end = buffer.limit();
+        this.lineStart = position;
+    }
+
+    /**
+     * Return a scanner for the lines in <code>buffer</code>, between its
+     * position and limit.
+     *
+     * <p>The position and limit of <code>buffer</code> are not changed.</p>
+     */
+    public static ByteLineScanner newByteLineScanner(ByteBuffer buffer) {
+        return new ByteLineScanner(buffer);
+    }
+
+    /**
+     * Return a scanner for the lines in <code>file</code>, accessed
+     * as a memory-mapped file.
+     *
+     * <p>The file must not be larger than {@link Integer#MAX_VALUE} bytes
+     * and must not change while the scanner is used.</p>
+     */
+    public static ByteLineScanner newByteLineScanner(File file) {
+        return new ByteLineScanner(MappedFileText.mapFile(file));
+    }
+
+    /**
+     * Return the buffer the positions returned by {@link #lineStart()}
+     * refer to.
+     *
+     * <p>The buffer shares its content with the buffer or file the scanner
+     * was created for. The buffer uses little endian byte order.</p>
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Move to the next line and return <code>true</code>, or return
+     * <code>false</code> when there are no more lines.
+     */
+    public boolean next() {
+        if (position >= end) {
+            lineStart = end;
+            lineLength = 0;
+            separatorLength = 0;
+            return false;
+        }
+
+        lineStart = position;
+        int i = indexOfLineSeparatorByte(position);
+        lineLength = i - lineStart;
+        if (i >= end) {
+            separatorLength = 0;
+        } else if (buffer.get(i) == CARRIAGE_RETURN_BYTE
+                && i + 1 < end && buffer.get(i + 1) == NEWLINE_BYTE) {
+            separatorLength = 2;
+        } else {
+            separatorLength = 1;
+        }
+        position = i + separatorLength;
+        lineIndex++;
+        return true;
+    }
+
+    /**
+     * Return the index of the current line, starting with 0.
+     *
+     * <p>Return -1 when {@link #next()} was not yet called.</p>
+     */
+    public int lineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * Return the position of the first byte of the current line in
+     * {@link #buffer()}.
+     */
+    public int lineStart() {
+        return lineStart;
+    }
+
+    /**
+     * Return the number of bytes of the current line, excluding the line
+     * separator.
+     */
+    public int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * Return the number of bytes of the line separator of the current line,
+     * i.e. 0 (no line separator, only possible for the last line),
+     * 1 ("\n" or "\r") or 2 ("\r\n").
+     */
+    public int separatorLength() {
+        return separatorLength;
+    }
+
+    /**
+     * Return the current line, excluding the line separator, as a String,
+     * decoded with <code>charset</code>.
+     *
+     * <p>In contrast to the other methods this allocates a new object.</p>
+     */
+    public String lineText(Charset charset) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(),
+                    buffer.arrayOffset() + lineStart, lineLength, charset);
+        }
+        byte[] bytes = new byte[lineLength];
+        for (int i = 0; i < lineLength; i++) {
+            bytes[i] = buffer.get(lineStart + i);
+        }
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Return the current line, excluding the line separator, as a String,
+     * decoded as UTF-8.
+     *
+     * <p>See {@link #lineText(Charset)}.</p>
+     */
+    public String lineText() {
+        return lineText(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the number of lines in <code>buffer</code>, between its position
+     * and limit, without changing the buffer's position or limit.
+     */
+    public static int lineCount(ByteBuffer buffer) {
+        ByteLineScanner scanner = newByteLineScanner(buffer);
+        while (scanner.next()) {
+            // just count
+        }
+        return scanner.lineIndex() + 1;
+    }
+
+    /**
+     * Return the position of the first '\n' or '\r' at or after
+     * <code>start</code>, or <code>end</code> when there is none.
+     */
+    private int indexOfLineSeparatorByte(int start) {
+        int i = start;
+        // 8 bytes at a time. `buffer` is little endian, so the byte with the
+        // lowest position is the least significant byte of the long.
+        while (i + 8 <= end) {
+            long word = buffer.getLong(i);
+            long found = zeroBytesMarker(word ^ NEWLINES) |
+                    zeroBytesMarker(word ^ CARRIAGE_RETURNS);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            i += 8;
+        }
+        while (i < end) {
+            byte b = buffer.get(i);
+            if (b == NEWLINE_BYTE || b == CARRIAGE_RETURN_BYTE) {
+                return i;
+            }
+            i++;
+        }
+        return end;
+    }
+
+    /**
+     * Return a value with the high bit set in the lowest byte of
+     * <code>word</code> that is zero, and no high bits in the less significant
+     * bytes, or 0 when <code>word</code> contains no zero byte.
+     *
+     * <p>Bytes more significant than the first zero byte may also get marked
+     * (due to the borrow), so only the least significant marker is
+     * reliable.</p>
+     */
+    private static long zeroBytesMarker(long word) {
+        return (word - ONES) & ~word & HIGH_BITS;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link OutputStream} collecting the bytes written to it in memory, to
+ * "capture" output, similar to a {@link java.io.ByteArrayOutputStream}.
+ *
+ * <p>In contrast to a ByteArrayOutputStream the bytes are stored in
+ * segments. When more space is needed a new segment is added, i.e. no
+ * bytes are copied. {@link #text(Charset)} decodes the bytes directly from
+ * the segments, without creating an intermediate byte array.</p>
+ *
+ * <p>A CaptureBuffer can be reused: {@link #reset()} empties the buffer,
+ * but keeps (some of) the segments. {@link #acquireCaptureBuffer()}
+ * returns a buffer from a (bounded) pool of buffers, and
+ * {@link #release()} returns it to the pool.</p>
+ *
+ * <p>A CaptureBuffer is not thread-safe.</p>
+ */
+public final class CaptureBuffer extends OutputStream {
+    private static final int FIRST_SEGMENT_SIZE = 1024;
+    private static final int MAX_SEGMENT_SIZE = 64 * 1024;
+    /**
+     * The maximal number of bytes in segments kept on {@link #reset()}.
+     */
+    private static final int RETAINED_CAPACITY = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 32;
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private static final Queue<CaptureBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    private final List<byte[]> segments = new ArrayList<>();
+    // the segment currently written to, segments.get(segmentIndex)
+    private byte[] segment = NO_BYTES;
+    private int segmentIndex = -1;
+    private int positionInSegment;
+    // the number of bytes in the segments before the current one
+    private long sizeOfFullSegments;
+    private boolean isInPool;
+
+    private CaptureBuffer() {
+        // use factory
+    }
+
+    /**
+     * Return a new (empty) CaptureBuffer.
+     */
+    public static CaptureBuffer newCaptureBuffer() {
+        return new CaptureBuffer();
+    }
+
+    /**
+     * Return an empty CaptureBuffer, reusing a buffer from the pool when
+     * available.
+     *
+     * <p>Call {@link #release()} when the buffer is no longer needed.</p>
+     */
+    public static CaptureBuffer acquireCaptureBuffer() {
+        CaptureBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return newCaptureBuffer();
+        }
+        POOL_SIZE.decrementAndGet();
+        buffer.isInPool = false;
+        return buffer;
+    }
+
+    /**
+     * Empty the buffer and return it to the pool (if the pool is not full).
+     *
+     * <p>The buffer must not be used after it was released.</p>
+     */
+    public void release() {
+        if (isInPool) {
+            return;
+        }
+        reset();
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            isInPool = true;
+            POOL.add(this);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        if (positionInSegment == segment.length) {
+            nextSegment();
+        }
+        segment[positionInSegment++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        int i = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (positionInSegment == segment.length) {
+                nextSegment();
+            }
+            int n = Math.min(remaining, segment.length - positionInSegment);
+            System.arraycopy(bytes, i, segment, positionInSegment, n);
+            positionInSegment += n;
+            i += n;
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Return the number of bytes in the buffer.
+     */
+    public long size() {
+        return sizeOfFullSegments + positionInSegment;
+    }
+
+    /**
+     * Empty the buffer, keeping (some of) the segments for reuse.
+     */
+    public void reset() {
+        long retained = 0;
+        int keep = 0;
+        while (keep < segments.size()
+                && retained + segments.get(keep).length <= RETAINED_CAPACITY) {
+            retained += segments.get(keep).length;
+            keep++;
+        }
+        segments.subList(keep, segments.size()).clear();
+        segment = segments.isEmpty() ? NO_BYTES : segments.get(0);
+        segmentIndex = segments.isEmpty() ? -1 : 0;
+        positionInSegment = 0;
+        sizeOfFullSegments = 0;
+    }
+
+    /**
+     * Return the bytes of the buffer, decoded with <code>charset</code>.
+     *
+     * <p>Malformed input is replaced (as with
+     * {@link String#String(byte[], Charset)}).</p>
+     */
+    public String text(Charset charset) {
+        if (segmentIndex <= 0) {
+            // all bytes in one segment
+            return new String(segment, 0, positionInSegment, charset);
+        }
+        return decodeSegments(charset);
+    }
+
+    /**
+     * Return the bytes of the buffer, decoded as UTF-8.
+     */
+    public String text() {
+        return text(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the bytes of the buffer to <code>outputStream</code>.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        for (int i = 0; i <= segmentIndex; i++) {
+            outputStream.write(segments.get(i), 0, usedLength(i));
+        }
+    }
+
+    /**
+     * Return a copy of the bytes of the buffer.
+     */
+    public byte[] toByteArray() {
+        long size = size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "Buffer too large for a byte array: " + size); //NON-NLS
+        }
+        byte[] result = new byte[(int) size];
+        int position = 0;
+        for (int i = 0; i <= segmentIndex; i++) {
+            int n = usedLength(i);
+            System.arraycopy(segments.get(i), 0, result, position, n);
+            position += n;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return text();
+    }
+
+    private int usedLength(int segmentIndex) {
+        return segmentIndex == this.segmentIndex
+                ? positionInSegment : segments.get(segmentIndex).length;
+    }
+
+    private void nextSegment() {
+        sizeOfFullSegments += positionInSegment;
+        segmentIndex++;
+        if (segmentIndex == segments.size()) {
+            segments.add(new byte[segment.length == 0
+                    ? FIRST_SEGMENT_SIZE
+                    : Math.min(MAX_SEGMENT_SIZE, segment.length * 2)]);
+        }
+        segment = segments.get(segmentIndex);
+        positionInSegment = 0;
+    }
+
+    private String decodeSegments(Charset charset) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        long size = size();
+        CharBuffer chars = CharBuffer.allocate(
+                (int) Math.min(Integer.MAX_VALUE - 16,
+                        size * (double) decoder.averageCharsPerByte() + 16));
+        // bytes of a character split across two segments
+        ByteBuffer seam = ByteBuffer.allocate(32);
+        for (int i = 0; i <= segmentIndex; i++) {
+            ByteBuffer bytes = ByteBuffer.wrap(segments.get(i), 0, usedLength(i));
+            while (seam.position() > 0 && bytes.hasRemaining()) {
+                // complete the split character, byte by byte
+                seam.put(bytes.get());
+                seam.flip();
+                chars = decode(decoder, seam, chars, false);
+                seam.compact();
+            }
+            chars = decode(decoder, bytes, chars, false);
+            seam.put(bytes);
+        }
+        seam.flip();
+        chars = decode(decoder, seam, chars, true);
+        while (decoder.flush(chars).isOverflow()) {
+            chars = enlarged(chars);
+        }
+        return new String(chars.array(), 0, chars.position());
+    }
+
+    private static CharBuffer decode(
+            CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars,
+            boolean endOfInput) {
+        CharBuffer result = chars;
+        while (decoder.decode(bytes, result, endOfInput).isOverflow()) {
+            result = enlarged(result);
+        }
+        return result;
+    }
+
+    private static CharBuffer enlarged(CharBuffer chars) {
+        CharBuffer result = CharBuffer.allocate(chars.capacity() * 2 + 16);
+        chars.flip();
+        result.put(chars);
+        return result;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import static org.abego.commons.io.FileUtil.ensureDirectoryExists;
+
+/**
+ * Appends text to a file, keeping the file open.
+ *
+ * <p>The text is encoded into a large buffer and written to the file when
+ * the buffer is full, or on {@link #flush()}, {@link #sync()} or
+ * {@link #close()}.</p>
+ *
+ * <p>{@link #sync()} makes the text appended so far durable, i.e. forces it
+ * to the storage device. Concurrent calls to {@link #sync()} are combined
+ * ("group commit"): while one thread forces the file the other threads
+ * wait, and the next force then covers the text of all of them. This way
+ * many threads can append durably with far fewer (expensive) force
+ * operations.</p>
+ *
+ * <p>A FileAppender is thread-safe.</p>
+ */
+public final class FileAppender implements Closeable {
+    static final int BUFFER_SIZE = 256 * 1024;
+    static final int CHARS_CHUNK_SIZE = 8 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(CHARS_CHUNK_SIZE);
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // guards the buffer, the encoder, appendCount and writes to the channel
+    private final Object bufferLock = new Object();
+    // makes sure only one thread forces the channel at a time
+    private final Object syncLock = new Object();
+    private long appendCount;
+    private volatile long syncedAppendCount;
+    private long syncCount;
+
+    private FileAppender(FileChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = newEncoder(charset);
+    }
+
+    /**
+     * Return a FileAppender appending text to <code>file</code> using
+     * <code>charset</code>.
+     *
+     * <p>The file (and its directory) is created when it does not exist.</p>
+     */
+    public static FileAppender newFileAppender(File file, Charset charset) {
+        ensureDirectoryExists(file.getParentFile());
+        return FileUtil.runIOCode(() -> new FileAppender(
+                FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND),
+                charset));
+    }
+
+    /**
+     * Return a FileAppender appending UTF-8 encoded text to
+     * <code>file</code>.
+     *
+     * <p>See {@link #newFileAppender(File, Charset)}.</p>
+     */
+    public static FileAppender newFileAppender(File file) {
+        return newFileAppender(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append <code>text</code> to the file.
+     *
+     * <p>The text is buffered, i.e. it may not be written to the file before
+     * {@link #flush()}, {@link #sync()} or {@link #close()} is called.</p>
+     */
+    public void append(CharSequence text) throws IOException {
+        synchronized (bufferLock) {
+            encodeAndWrite(text, encoder, chars, buffer, channel);
+            appendCount++;
+        }
+    }
+
+    /**
+     * Write the buffered text to the file.
+     *
+     * <p>The text is passed to the operating system, but may not yet be
+     * stored on the storage device. Use {@link #sync()} for this.</p>
+     */
+    public void flush() throws IOException {
+        synchronized (bufferLock) {
+            writeBuffer(buffer, channel);
+        }
+    }
+
+    /**
+     * Write the text appended so far to the file and force it to the
+     * storage device.
+     *
+     * <p>When other threads call this method concurrently a single force
+     * operation may cover the text of all of them.</p>
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (bufferLock) {
+            target = appendCount;
+        }
+        synchronized (syncLock) {
+            if (syncedAppendCount >= target) {
+                // another thread already synced our text
+                return;
+            }
+            long synced;
+            synchronized (bufferLock) {
+                synced = appendCount;
+                writeBuffer(buffer, channel);
+            }
+            channel.force(false);
+            syncCount++;
+            syncedAppendCount = synced;
+        }
+    }
+
+    /**
+     * Append <code>text</code> to the file and force it to the storage
+     * device.
+     *
+     * <p>See {@link #append(CharSequence)} and {@link #sync()}.</p>
+     */
+    public void appendAndSync(CharSequence text) throws IOException {
+        append(text);
+        sync();
+    }
+
+    /**
+     * Return how often the file was forced to the storage device.
+     */
+    public long syncCount() {
+        synchronized (syncLock) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Write the buffered text to the file and close it.
+     *
+     * <p>Closing does not force the text to the storage device. Call
+     * {@link #sync()} before closing when this is required.</p>
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (bufferLock) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                writeBuffer(buffer, channel);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    static CharsetEncoder newEncoder(Charset charset) {
+        // replace unmappable characters, like String.getBytes
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Encode <code>text</code> with <code>encoder</code> into
+     * <code>buffer</code>, writing the buffer to <code>channel</code>
+     * whenever it is full.
+     *
+     * <p>The text is copied in chunks into <code>chars</code> first, as the
+     * JDK encoders are much faster with array-backed buffers.</p>
+     *
+     * <p>The encoded text may remain in the buffer, i.e. the caller must
+     * eventually call {@link #writeBuffer(ByteBuffer, WritableByteChannel)}.
+     * The buffer must be in "fill" mode (as after {@link ByteBuffer#clear()}).</p>
+     */
+    static void encodeAndWrite(CharSequence text, CharsetEncoder encoder,
+                               CharBuffer chars, ByteBuffer buffer,
+                               WritableByteChannel channel)
+            throws IOException {
+        encoder.reset();
+        int n = text.length();
+        int start = 0;
+        CoderResult result;
+        do {
+            int end = Math.min(n, start + chars.capacity());
+            if (end < n && Character.isHighSurrogate(text.charAt(end - 1))) {
+                // don't split a surrogate pair
+                end--;
+            }
+            chars.clear();
+            if (text instanceof String) {
+                ((String) text).getChars(start, end, chars.array(), 0);
+                chars.limit(end - start);
+            } else {
+                chars.append(text, start, end);
+                chars.flip();
+            }
+            do {
+                result = encoder.encode(chars, buffer, end == n);
+                handleCoderResult(result, buffer, channel);
+            } while (!result.isUnderflow());
+            start = end;
+        } while (start < n);
+        do {
+            result = encoder.flush(buffer);
+            handleCoderResult(result, buffer, channel);
+        } while (!result.isUnderflow());
+    }
+
+    /**
+     * Write the content of <code>buffer</code> to <code>channel</code> and
+     * clear the buffer.
+     */
+    static void writeBuffer(ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void handleCoderResult(
+            CoderResult result, ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        if (result.isOverflow()) {
+            writeBuffer(buffer, channel);
+        } else if (result.isError()) {
+            // not expected as the encoder replaces malformed/unmappable input
+            result.throwException();
+        }
+    }
+}
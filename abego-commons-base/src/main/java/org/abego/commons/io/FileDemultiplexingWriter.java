@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * A writer that distributes its text to many files, with <em>marker
+ * lines</em> selecting the file the following lines are written to.
+ *
+ * <p>A marker line is a line starting with the marker prefix, followed by
+ * the pathname of the file. Marker lines are not written to any file.
+ * Selecting a file already written before appends to that file.</p>
+ *
+ * <p>E.g. with the marker prefix <code>"@@file "</code> the text</p>
+ * <pre>
+ * &#64;&#64;file a.txt
+ * line 1 of a
+ * &#64;&#64;file b.txt
+ * line 1 of b
+ * &#64;&#64;file a.txt
+ * line 2 of a
+ * </pre>
+ * <p>writes two lines to "a.txt" and one line to "b.txt".</p>
+ *
+ * <p>The files are written through a {@link FileWriterPool}, so switching
+ * between files does not reopen them each time, while the number of open
+ * files stays limited.</p>
+ *
+ * <p>Empty lines before the first marker line are ignored; other text before
+ * the first marker line is an error.</p>
+ *
+ * <p>See also {@link ToFileInHeaderLineWriter}, writing to a single file.</p>
+ */
+public final class FileDemultiplexingWriter extends LineSplittingWriter {
+
+    private final String markerPrefix;
+    private final FileWriterPool fileWriterPool;
+    private final boolean mustCloseFileWriterPool;
+    // the start of the current line, while it may still be a marker line.
+    private final StringBuilder lineStart = new StringBuilder();
+    private boolean isCollectingLineStart = true;
+    @Nullable
+    private File currentFile;
+
+    private FileDemultiplexingWriter(
+            String markerPrefix,
+            FileWriterPool fileWriterPool,
+            boolean mustCloseFileWriterPool) {
+        if (markerPrefix.isEmpty()) {
+            throw new IllegalArgumentException("markerPrefix must not be empty"); //NON-NLS
+        }
+        this.markerPrefix = markerPrefix;
+        this.fileWriterPool = fileWriterPool;
+        this.mustCloseFileWriterPool = mustCloseFileWriterPool;
+    }
+
+    /**
+     * Return a FileDemultiplexingWriter writing through
+     * <code>fileWriterPool</code>, with marker lines starting with
+     * <code>markerPrefix</code>.
+     *
+     * <p>Closing the writer does not close the <code>fileWriterPool</code>,
+     * so the pool may be shared by several writers.</p>
+     */
+    public static FileDemultiplexingWriter fileDemultiplexingWriter(
+            String markerPrefix, FileWriterPool fileWriterPool) {
+        return new FileDemultiplexingWriter(markerPrefix, fileWriterPool, false);
+    }
+
+    /**
+     * Return a FileDemultiplexingWriter writing text with the given
+     * <code>charset</code>, keeping at most <code>maxOpenFiles</code> open,
+     * with marker lines starting with <code>markerPrefix</code>.
+     *
+     * <p>Closing the writer closes all files.</p>
+     */
+    public static FileDemultiplexingWriter fileDemultiplexingWriter(
+            String markerPrefix, Charset charset, int maxOpenFiles) {
+        return new FileDemultiplexingWriter(markerPrefix,
+                FileWriterPool.newFileWriterPool(maxOpenFiles, charset), true);
+    }
+
+    /**
+     * Return a FileDemultiplexingWriter writing UTF-8 encoded text, keeping
+     * at most {@link FileWriterPool#DEFAULT_MAX_OPEN_FILES} files open,
+     * with marker lines starting with <code>markerPrefix</code>.
+     *
+     * <p>Closing the writer closes all files.</p>
+     */
+    public static FileDemultiplexingWriter fileDemultiplexingWriter(
+            String markerPrefix) {
+        return new FileDemultiplexingWriter(markerPrefix,
+                FileWriterPool.newFileWriterPool(), true);
+    }
+
+    @Override
+    protected void processLineContent(
+            char[] characterArray, int startOffset, int length)
+            throws IOException {
+        int i = startOffset;
+        int endIndex = startOffset + length;
+        while (isCollectingLineStart && i < endIndex) {
+            char c = characterArray[i++];
+            lineStart.append(c);
+            int n = lineStart.length();
+            if (n <= markerPrefix.length() && c != markerPrefix.charAt(n - 1)) {
+                // not a marker line
+                isCollectingLineStart = false;
+                writeContent(lineStart);
+                lineStart.setLength(0);
+            }
+        }
+        if (i < endIndex) {
+            writeContent(characterArray, i, endIndex - i);
+        }
+    }
+
+    @Override
+    protected void processLineSeparator(String lineSeparator)
+            throws IOException {
+        if (!handleMarkerLine()) {
+            writeContent(lineStart);
+            writeLineSeparator(lineSeparator);
+        }
+        lineStart.setLength(0);
+        isCollectingLineStart = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        fileWriterPool.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+
+        // handle the last line, when not terminated by a line separator
+        if (!handleMarkerLine()) {
+            writeContent(lineStart);
+        }
+        lineStart.setLength(0);
+
+        if (mustCloseFileWriterPool) {
+            fileWriterPool.close();
+        } else {
+            fileWriterPool.flush();
+        }
+    }
+
+    /**
+     * Return the file currently written to, or <code>null</code> when no
+     * marker line was written yet.
+     */
+    @Nullable
+    public File currentFile() {
+        return currentFile;
+    }
+
+    /**
+     * When the current line is a marker line select the file it specifies
+     * and return <code>true</code>, otherwise return <code>false</code>.
+     */
+    private boolean handleMarkerLine() throws IOException {
+        if (!isCollectingLineStart || lineStart.length() < markerPrefix.length()) {
+            return false;
+        }
+
+        File file = new File(lineStart.substring(markerPrefix.length()));
+        fileWriterPool.touch(file);
+        currentFile = file;
+        return true;
+    }
+
+    private void writeContent(char[] characterArray, int startOffset, int length)
+            throws IOException {
+        if (length > 0) {
+            fileWriterPool.write(currentFileOrThrow(), characterArray, startOffset, length);
+        }
+    }
+
+    private void writeContent(CharSequence text) throws IOException {
+        if (text.length() > 0) {
+            fileWriterPool.write(currentFileOrThrow(), text.toString());
+        }
+    }
+
+    private void writeLineSeparator(String lineSeparator) throws IOException {
+        // line separators before the first marker line are ignored
+        @Nullable File file = currentFile;
+        if (file != null) {
+            fileWriterPool.write(file, lineSeparator);
+        }
+    }
+
+    private File currentFileOrThrow() throws IOException {
+        @Nullable File file = currentFile;
+        if (file == null) {
+            throw new IOException(String.format(
+                    "Text before the first marker line (\"%s...\")", //NON-NLS
+                    markerPrefix));
+        }
+        return file;
+    }
+}
@@ -28,6 +28,7 @@ import org.abego.commons.lang.ThrowableUtil;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -35,18 +36,35 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.text.MessageFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.abego.commons.io.FileCannotBeDeletedException.newFileCannotBeDeletedException;
 
 public final class FileUtil {
+    /**
+     * The (maximal) size of the chunks passed by {@link #forEachChunk(File, Consumer)}.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
 
     FileUtil() {
         throw new MustNotInstantiateException();
@@ -252,8 +270,11 @@ public final class FileUtil {
      * {@link Charset} <code>charset</code>).
      */
     public static String textOf(File file, Charset charset) {
-        String charsetName = charset.name();
-        return textOf(file, charsetName);
+        try {
+            return new String(Files.readAllBytes(file.toPath()), charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -261,11 +282,162 @@ public final class FileUtil {
      * {@link Charset} named <code>charsetName</code>).
      */
     public static String textOf(File file, String charsetName) {
-        try {
-            return new String(Files.readAllBytes(file.toPath()), Charset.forName(charsetName));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return textOf(file, Charset.forName(charsetName));
+    }
+
+    /**
+     * Return the text of <code>file</code> (an UTF-8 encoded text file) as a
+     * {@link CharSequence} backed by the memory-mapped file.
+     *
+     * <p>The bytes are decoded lazily, when characters are accessed.
+     * The file must not change while the result is used, and must not be
+     * larger than {@link Integer#MAX_VALUE} bytes. The result is not
+     * thread-safe.</p>
+     *
+     * <p>Use {@link #forEachLine(File, Consumer)} or
+     * {@link #forEachChunk(File, Consumer)} to process larger files.</p>
+     */
+    public static CharSequence mappedTextOf(File file) {
+        return mappedTextOf(file, UTF_8);
+    }
+
+    /**
+     * Return the text of <code>file</code> (a text file encoded with the
+     * {@link Charset} <code>charset</code>) as a {@link CharSequence} backed
+     * by the memory-mapped file.
+     *
+     * <p>See {@link #mappedTextOf(File)}.</p>
+     */
+    public static CharSequence mappedTextOf(File file, Charset charset) {
+        return MappedFileText.newMappedFileText(file, charset);
+    }
+
+    /**
+     * Return the text of <code>file</code> (a text file encoded with the
+     * {@link Charset} named <code>charsetName</code>) as a
+     * {@link CharSequence} backed by the memory-mapped file.
+     *
+     * <p>See {@link #mappedTextOf(File)}.</p>
+     */
+    public static CharSequence mappedTextOf(File file, String charsetName) {
+        return mappedTextOf(file, Charset.forName(charsetName));
+    }
+
+    /**
+     * Return the lines of <code>file</code> (an UTF-8 encoded text file) as a
+     * {@link Stream}, read lazily.
+     *
+     * <p>The stream must be closed to close the file, e.g. by using a
+     * try-with-resources statement. See also {@link Files#lines(Path, Charset)}.</p>
+     */
+    public static Stream<String> linesOf(File file) {
+        return linesOf(file, UTF_8);
+    }
+
+    /**
+     * Return the lines of <code>file</code> (a text file encoded with the
+     * {@link Charset} <code>charset</code>) as a {@link Stream}, read lazily.
+     *
+     * <p>See {@link #linesOf(File)}.</p>
+     */
+    public static Stream<String> linesOf(File file, Charset charset) {
+        return runIOCode(() -> Files.lines(file.toPath(), charset));
+    }
+
+    /**
+     * Return the lines of <code>file</code> (a text file encoded with the
+     * {@link Charset} named <code>charsetName</code>) as a {@link Stream},
+     * read lazily.
+     *
+     * <p>See {@link #linesOf(File)}.</p>
+     */
+    public static Stream<String> linesOf(File file, String charsetName) {
+        return linesOf(file, Charset.forName(charsetName));
+    }
+
+    /**
+     * Pass every line of <code>file</code> (an UTF-8 encoded text file),
+     * without its line separator, to <code>lineConsumer</code>.
+     *
+     * <p>Only the current line is kept in memory, so also very large files
+     * can be processed.</p>
+     */
+    public static void forEachLine(File file, Consumer<String> lineConsumer) {
+        forEachLine(file, UTF_8, lineConsumer);
+    }
+
+    /**
+     * Pass every line of <code>file</code> (a text file encoded with the
+     * {@link Charset} <code>charset</code>), without its line separator,
+     * to <code>lineConsumer</code>.
+     *
+     * <p>See {@link #forEachLine(File, Consumer)}.</p>
+     */
+    public static void forEachLine(File file, Charset charset, Consumer<String> lineConsumer) {
+        runIOCode(() -> {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), charset)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineConsumer.accept(line);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pass every line of <code>file</code> (a text file encoded with the
+     * {@link Charset} named <code>charsetName</code>), without its line
+     * separator, to <code>lineConsumer</code>.
+     *
+     * <p>See {@link #forEachLine(File, Consumer)}.</p>
+     */
+    public static void forEachLine(File file, String charsetName, Consumer<String> lineConsumer) {
+        forEachLine(file, Charset.forName(charsetName), lineConsumer);
+    }
+
+    /**
+     * Pass the text of <code>file</code> (an UTF-8 encoded text file) in
+     * chunks to <code>chunkConsumer</code>.
+     *
+     * <p>The chunk passed to the consumer is only valid during the call,
+     * as its buffer is reused for the next chunk. Only one chunk is kept in
+     * memory, so also very large files can be processed.</p>
+     */
+    public static void forEachChunk(File file, Consumer<CharSequence> chunkConsumer) {
+        forEachChunk(file, UTF_8, chunkConsumer);
+    }
+
+    /**
+     * Pass the text of <code>file</code> (a text file encoded with the
+     * {@link Charset} <code>charset</code>) in chunks to
+     * <code>chunkConsumer</code>.
+     *
+     * <p>See {@link #forEachChunk(File, Consumer)}.</p>
+     */
+    public static void forEachChunk(File file, Charset charset, Consumer<CharSequence> chunkConsumer) {
+        runIOCode(() -> {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), charset)) {
+                CharBuffer chunk = CharBuffer.allocate(CHUNK_SIZE);
+                while (reader.read(chunk) >= 0) {
+                    chunk.flip();
+                    if (chunk.hasRemaining()) {
+                        chunkConsumer.accept(chunk);
+                    }
+                    chunk.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Pass the text of <code>file</code> (a text file encoded with the
+     * {@link Charset} named <code>charsetName</code>) in chunks to
+     * <code>chunkConsumer</code>.
+     *
+     * <p>See {@link #forEachChunk(File, Consumer)}.</p>
+     */
+    public static void forEachChunk(File file, String charsetName, Consumer<CharSequence> chunkConsumer) {
+        forEachChunk(file, Charset.forName(charsetName), chunkConsumer);
     }
 
     /**
@@ -299,7 +471,7 @@ public final class FileUtil {
      * exists, otherwise the empty string.
      */
     public static String textOfFileIfExisting(File file, Charset charset) {
-        return textOfFileIfExisting(file, charset.name());
+        return file.exists() ? textOf(file, charset) : "";
     }
 
     /**
@@ -426,6 +598,137 @@ public final class FileUtil {
         FileUtil.writeText(file(directory, fileName), text);
     }
 
+    /**
+     * Write <code>text</code> to <code>file</code> "atomically", using
+     * <code>charset</code>.
+     *
+     * <p>The text is written to a temporary file in the directory of
+     * <code>file</code> that is then renamed to <code>file</code>. So readers
+     * either see the old or the new content of the file, but never a
+     * partially written file.</p>
+     *
+     * <p>When <code>sync</code> is <code>true</code> the text (and the
+     * rename) is forced to the storage device before the method returns,
+     * i.e. the new content survives a system crash.</p>
+     *
+     * <p>When the file system does not support atomic renames the file
+     * is replaced non-atomically.</p>
+     *
+     * <p>An existing file keeps its (POSIX) file permissions, a new file
+     * gets the default permissions for new files.</p>
+     */
+    public static void writeTextAtomically(
+            File file, CharSequence text, Charset charset, boolean sync) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        ensureDirectoryExists(directory);
+        Path target = file.toPath();
+        Path temp = runIOCode(() -> createTempFile(directory.toPath(), file.getName()));
+        try {
+            runIOCode(() -> {
+                copyPosixFilePermissions(target, temp);
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(
+                            Math.min(FileAppender.BUFFER_SIZE,
+                                    // assume most text is ASCII
+                                    Math.max(text.length() + 16, 1024)));
+                    CharBuffer chars = CharBuffer.allocate(
+                            Math.min(FileAppender.CHARS_CHUNK_SIZE, text.length() + 1));
+                    FileAppender.encodeAndWrite(text, FileAppender.newEncoder(charset),
+                            chars, buffer, channel);
+                    FileAppender.writeBuffer(buffer, channel);
+                    if (sync) {
+                        channel.force(true);
+                    }
+                }
+                moveReplacing(temp, target);
+                if (sync) {
+                    syncDirectory(directory);
+                }
+            });
+        } finally {
+            runIOCode(() -> Files.deleteIfExists(temp));
+        }
+    }
+
+    /**
+     * Write <code>text</code> to <code>file</code> "atomically", using
+     * <code>charset</code>.
+     *
+     * <p>See {@link #writeTextAtomically(File, CharSequence, Charset, boolean)}.
+     * The file is not forced to the storage device.</p>
+     */
+    public static void writeTextAtomically(
+            File file, CharSequence text, Charset charset) {
+        writeTextAtomically(file, text, charset, false);
+    }
+
+    /**
+     * Write <code>text</code> to <code>file</code> "atomically", UTF-8 encoded.
+     *
+     * <p>See {@link #writeTextAtomically(File, CharSequence, Charset, boolean)}.
+     * The file is not forced to the storage device.</p>
+     */
+    public static void writeTextAtomically(File file, CharSequence text) {
+        writeTextAtomically(file, text, UTF_8);
+    }
+
+    /**
+     * Create a new empty file in <code>directory</code>, with a unique name
+     * derived from <code>name</code>, and return its path.
+     *
+     * <p>Other than {@link Files#createTempFile(Path, String, String, java.nio.file.attribute.FileAttribute[])}
+     * the file gets the default permissions for new files (e.g. as
+     * defined by the umask), not permissions restricted to the owner.</p>
+     */
+    private static Path createTempFile(Path directory, String name) throws IOException {
+        while (true) {
+            Path temp = directory.resolve(String.format(".%s.%s.tmp", //NON-NLS
+                    name, Long.toUnsignedString(ThreadLocalRandom.current().nextLong())));
+            try {
+                FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                        .close();
+                return temp;
+            } catch (FileAlreadyExistsException e) {
+                // try another name
+            }
+        }
+    }
+
+    /**
+     * Set the POSIX file permissions of <code>target</code> to the ones of
+     * <code>source</code>, when <code>source</code> exists and the file
+     * system supports POSIX file permissions.
+     */
+    private static void copyPosixFilePermissions(Path source, Path target) throws IOException {
+        if (Files.exists(source) &&
+                Files.getFileAttributeView(source, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        }
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Force the directory entries of <code>directory</code> to the storage
+     * device, where supported (e.g. not on Windows).
+     */
+    private static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(
+                directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported on this platform/file system
+        }
+    }
+
     private static void writeToFile(File file, String text, Charset charset, boolean append) {
         runIOCode(() -> {
             OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(file, append), charset);
@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.abego.commons.io.FileUtil.ensureDirectoryExists;
+
+/**
+ * Writes text to many files, keeping at most a given number of files open.
+ *
+ * <p>The open files are kept in a "least recently used" (LRU) pool. When a
+ * file not in the pool is written and the pool is full, the least recently
+ * used file is flushed and closed. Switching between many files therefore
+ * does not reopen every file every time, while the number of open file
+ * handles stays bounded.</p>
+ *
+ * <p>The first time a file is written through a pool its old content (if
+ * any) is replaced. When the file is reopened later (after it was evicted
+ * from the pool) the text is appended.</p>
+ *
+ * <p>A FileWriterPool is thread-safe.</p>
+ */
+public final class FileWriterPool implements Closeable {
+    /**
+     * The default maximal number of files kept open.
+     */
+    public static final int DEFAULT_MAX_OPEN_FILES = 64;
+    private static final int WRITER_BUFFER_SIZE = 16 * 1024;
+
+    private final int maxOpenFiles;
+    private final Charset charset;
+    // access-ordered, so the first entry is the least recently used one.
+    private final LinkedHashMap<File, Writer> openWriters =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<File> writtenFiles = new HashSet<>();
+    private long openCount;
+
+    private FileWriterPool(int maxOpenFiles, Charset charset) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException(
+                    "maxOpenFiles must be > 0, got " + maxOpenFiles); //NON-NLS
+        }
+        this.maxOpenFiles = maxOpenFiles;
+        this.charset = charset;
+    }
+
+    /**
+     * Return a new FileWriterPool keeping at most <code>maxOpenFiles</code>
+     * files open, writing text with the given <code>charset</code>.
+     */
+    public static FileWriterPool newFileWriterPool(
+            int maxOpenFiles, Charset charset) {
+        return new FileWriterPool(maxOpenFiles, charset);
+    }
+
+    /**
+     * Return a new FileWriterPool keeping at most
+     * {@link #DEFAULT_MAX_OPEN_FILES} files open, writing UTF-8 encoded text.
+     */
+    public static FileWriterPool newFileWriterPool() {
+        return newFileWriterPool(DEFAULT_MAX_OPEN_FILES, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write <code>length</code> characters of <code>characterArray</code>,
+     * starting at <code>startOffset</code>, to <code>file</code>.
+     */
+    public synchronized void write(
+            File file, char[] characterArray, int startOffset, int length)
+            throws IOException {
+        writer(file).write(characterArray, startOffset, length);
+    }
+
+    /**
+     * Write <code>text</code> to <code>file</code>.
+     */
+    public synchronized void write(File file, String text) throws IOException {
+        writer(file).write(text);
+    }
+
+    /**
+     * Make sure <code>file</code> exists, even when no text is written to it.
+     */
+    public synchronized void touch(File file) throws IOException {
+        writer(file);
+    }
+
+    /**
+     * Flush all open files.
+     */
+    public synchronized void flush() throws IOException {
+        for (Writer writer : openWriters.values()) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Close all open files.
+     *
+     * <p>The pool can still be used after it was closed, i.e. files are
+     * reopened when written again.</p>
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        @Nullable IOException exception = null;
+        for (Writer writer : openWriters.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        openWriters.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Return the number of files currently open.
+     */
+    public synchronized int openFileCount() {
+        return openWriters.size();
+    }
+
+    /**
+     * Return how often files were opened by this pool.
+     */
+    public synchronized long openCount() {
+        return openCount;
+    }
+
+    private Writer writer(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        @Nullable Writer writer = openWriters.get(key);
+        if (writer == null) {
+            if (openWriters.size() >= maxOpenFiles) {
+                closeLeastRecentlyUsedWriter();
+            }
+            writer = openWriter(key);
+            openWriters.put(key, writer);
+        }
+        return writer;
+    }
+
+    private Writer openWriter(File file) throws IOException {
+        ensureDirectoryExists(file.getParentFile());
+        boolean append = !writtenFiles.add(file);
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file, append), charset),
+                WRITER_BUFFER_SIZE);
+        openCount++;
+        return writer;
+    }
+
+    private void closeLeastRecentlyUsedWriter() throws IOException {
+        Iterator<Map.Entry<File, Writer>> iterator =
+                openWriters.entrySet().iterator();
+        Writer writer = iterator.next().getValue();
+        iterator.remove();
+        // closing flushes the writer
+        writer.close();
+    }
+}
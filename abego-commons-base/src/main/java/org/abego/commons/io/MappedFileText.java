@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The text of a memory-mapped file, as a {@link CharSequence}.
+ *
+ * <p>The bytes of the file are decoded lazily, in blocks. Only the block
+ * last accessed is kept decoded, plus the start positions of the blocks
+ * decoded so far, so random access to a position costs decoding at most
+ * one block (once the position was reached).
+ * For single-byte charsets ISO-8859-1 and US-ASCII no decoding is
+ * needed at all.</p>
+ *
+ * <p>Calculating the {@link #length()} requires decoding the complete
+ * file once (except for single-byte charsets).</p>
+ *
+ * <p>The file must not be larger than {@link Integer#MAX_VALUE} bytes and
+ * must not change while the MappedFileText is used. A MappedFileText is not
+ * thread-safe.</p>
+ */
+final class MappedFileText implements CharSequence {
+    private static final int BLOCK_SIZE = 8192;
+
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private final boolean isSingleByteCharset;
+    private final CharsetDecoder decoder;
+    private final CharBuffer block = CharBuffer.allocate(BLOCK_SIZE);
+    // blockCharStarts[i]/blockByteStarts[i]: start of block i in chars/bytes.
+    // The entry at index blockCount is the end of the decoded text.
+    private int[] blockCharStarts = new int[16];
+    private int[] blockByteStarts = new int[16];
+    private int blockCount = 0;
+    private boolean isCompletelyDecoded;
+    private int currentBlock = -1;
+
+    private MappedFileText(ByteBuffer bytes, Charset charset) {
+        this.bytes = bytes;
+        this.charset = charset;
+        this.isSingleByteCharset = charset.equals(StandardCharsets.ISO_8859_1) ||
+                charset.equals(StandardCharsets.US_ASCII);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.isCompletelyDecoded = !bytes.hasRemaining();
+    }
+
+    static MappedFileText newMappedFileText(File file, Charset charset) {
+        return new MappedFileText(mapFile(file), charset);
+    }
+
+    /**
+     * Return the content of <code>file</code> as a read-only, memory-mapped
+     * {@link ByteBuffer}.
+     *
+     * <p>Throws an {@link UncheckedIOException} when the file is larger than
+     * {@link Integer#MAX_VALUE} bytes.</p>
+     */
+    static ByteBuffer mapFile(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new UncheckedIOException(new IOException(String.format(
+                        "File too large to map (%d bytes): %s", //NON-NLS
+                        size, file.getAbsolutePath())));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int length() {
+        if (isSingleByteCharset) {
+            return bytes.limit();
+        }
+        while (!isCompletelyDecoded) {
+            decodeNextBlock();
+        }
+        return blockCharStarts[blockCount];
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index: " + index); //NON-NLS
+        }
+        if (isSingleByteCharset) {
+            int c = bytes.get(index) & 0xFF;
+            return c < 0x80 || charset.equals(StandardCharsets.ISO_8859_1)
+                    ? (char) c : '\uFFFD';
+        }
+        int blockIndex = blockIndexOf(index);
+        return block.get(index - blockCharStarts[blockIndex]);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "start: %d, end: %d", start, end)); //NON-NLS
+        }
+        StringBuilder result = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            if (isSingleByteCharset) {
+                result.append(charAt(i++));
+            } else {
+                int blockIndex = blockIndexOf(i);
+                int blockStart = blockCharStarts[blockIndex];
+                int n = Math.min(end, blockCharStarts[blockIndex + 1]) - i;
+                result.append(block.array(), i - blockStart, n);
+                i += n;
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    /**
+     * Return the index of the block containing the character at
+     * <code>index</code> and make that block the current one.
+     */
+    private int blockIndexOf(int index) {
+        while (!isCompletelyDecoded && blockCharStarts[blockCount] <= index) {
+            decodeNextBlock();
+        }
+        if (index >= blockCharStarts[blockCount]) {
+            throw new IndexOutOfBoundsException("index: " + index); //NON-NLS
+        }
+        int blockIndex = Arrays.binarySearch(blockCharStarts, 0, blockCount + 1, index);
+        if (blockIndex < 0) {
+            blockIndex = -blockIndex - 2;
+        }
+        decodeBlock(blockIndex);
+        return blockIndex;
+    }
+
+    private void decodeNextBlock() {
+        decodeBlock(blockCount);
+        if (blockCount + 2 > blockCharStarts.length) {
+            blockCharStarts = Arrays.copyOf(blockCharStarts, blockCharStarts.length * 2);
+            blockByteStarts = Arrays.copyOf(blockByteStarts, blockByteStarts.length * 2);
+        }
+        blockCount++;
+        blockCharStarts[blockCount] = blockCharStarts[blockCount - 1] + block.limit();
+        blockByteStarts[blockCount] = bytes.position();
+        isCompletelyDecoded = !bytes.hasRemaining();
+    }
+
+    /**
+     * Decode the block with the given index into <code>block</code>.
+     *
+     * <p>Leaves the position of <code>bytes</code> at the end of the
+     * block.</p>
+     */
+    private void decodeBlock(int blockIndex) {
+        if (blockIndex == currentBlock) {
+            return;
+        }
+        bytes.position(blockByteStarts[blockIndex]);
+        block.clear();
+        decoder.reset();
+        decoder.decode(bytes, block, true);
+        if (!bytes.hasRemaining()) {
+            decoder.flush(block);
+        }
+        block.flip();
+        currentBlock = blockIndex;
+    }
+}
@@ -24,40 +24,117 @@
 
 package org.abego.commons.io;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
-
-import static org.abego.commons.io.ByteArrayOutputStreamUtil.textOf;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A PrintStream that prints to an internal buffer.
  *
  * <p>Use {@link #text()} to retrieve the printed text.</p>
+ *
+ * <p>The internal buffer is a {@link CaptureBuffer}, i.e. it grows without
+ * copying and the text is decoded directly from the buffer. To capture
+ * many outputs use {@link #reset()} to reuse a PrintStreamToBuffer, or
+ * {@link #acquirePrintStreamToBuffer()} and {@link #release()} to get one
+ * from a (bounded) pool.</p>
  */
 public final class PrintStreamToBuffer extends PrintStream {
-    private final ByteArrayOutputStream outputStream;
+    private static final int MAX_POOLED_STREAMS = 32;
+    private static final Queue<PrintStreamToBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    private final CaptureBuffer outputStream;
+    private boolean isInPool;
+    private boolean isClosed;
 
-    private PrintStreamToBuffer(ByteArrayOutputStream outputStream)
+    private PrintStreamToBuffer(CaptureBuffer outputStream)
             throws UnsupportedEncodingException {
-        super(outputStream, true, StandardCharsets.UTF_8.name());
+        // No autoflush: the PrintStream passes all text to the buffer anyway,
+        // and flushing the buffer does nothing.
+        super(outputStream, false, StandardCharsets.UTF_8.name());
         this.outputStream = outputStream;
     }
 
     public static PrintStreamToBuffer newPrintStreamToBuffer() {
         try {
-            return new PrintStreamToBuffer(new ByteArrayOutputStream());
+            return new PrintStreamToBuffer(CaptureBuffer.newCaptureBuffer());
         } catch (IOException e) {
             // never reached. Will never throw an IOException.
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Return an empty PrintStreamToBuffer, reusing one from the pool when
+     * available.
+     *
+     * <p>Call {@link #release()} when the PrintStreamToBuffer is no longer
+     * needed.</p>
+     */
+    public static PrintStreamToBuffer acquirePrintStreamToBuffer() {
+        PrintStreamToBuffer stream = POOL.poll();
+        if (stream == null) {
+            return newPrintStreamToBuffer();
+        }
+        POOL_SIZE.decrementAndGet();
+        stream.isInPool = false;
+        return stream;
+    }
+
+    /**
+     * Empty the buffer and return this PrintStreamToBuffer to the pool (if
+     * the pool is not full).
+     *
+     * <p>A PrintStreamToBuffer that was closed or had an error (see
+     * {@link #checkError()}) is not returned to the pool, as it would no
+     * longer capture any text.</p>
+     *
+     * <p>The PrintStreamToBuffer must not be used after it was released.</p>
+     */
+    public void release() {
+        synchronized (this) {
+            if (isInPool || isClosed || checkError()) {
+                return;
+            }
+            reset();
+            if (POOL_SIZE.incrementAndGet() <= MAX_POOLED_STREAMS) {
+                isInPool = true;
+                POOL.add(this);
+            } else {
+                POOL_SIZE.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove all text printed so far.
+     */
+    public void reset() {
+        synchronized (this) {
+            flush();
+            outputStream.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            isClosed = true;
+            super.close();
+        }
+    }
+
     public String text() {
-        return textOf(outputStream);
+        synchronized (this) {
+            flush();
+            return outputStream.text();
+        }
     }
 
     @Override
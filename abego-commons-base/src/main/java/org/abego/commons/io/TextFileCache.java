@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A cache for the texts of files and resources.
+ *
+ * <p>Before a cached text is returned the cache checks the file is still
+ * unchanged, e.g. by comparing its modification time and size. So a
+ * repeated read of an unchanged file costs a "stat" call, but no reading
+ * and decoding of the file.</p>
+ *
+ * <p>The methods behave like the corresponding methods in {@link FileUtil}
+ * and {@link ResourceUtil}, e.g. {@link #textOf(File)} like
+ * {@link FileUtil#textOf(File)}.</p>
+ */
+public interface TextFileCache {
+
+    /**
+     * Return the text of <code>file</code>, assuming the text is encoded
+     * with <code>charset</code>.
+     */
+    String textOf(File file, Charset charset);
+
+    /**
+     * Return the text of <code>file</code> (an UTF-8 encoded text file).
+     */
+    default String textOf(File file) {
+        return textOf(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the text of the resource <code>resourceName</code> of
+     * <code>theClass</code>, assuming the text is encoded with
+     * <code>charset</code>.
+     */
+    String textOfResource(Class<?> theClass, String resourceName, Charset charset);
+
+    /**
+     * Return the text of the resource <code>resourceName</code> of
+     * <code>theClass</code>, assuming the text is UTF-8 encoded.
+     */
+    default String textOfResource(Class<?> theClass, String resourceName) {
+        return textOfResource(theClass, resourceName, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return how often a text was returned from the cache.
+     */
+    long hitCount();
+
+    /**
+     * Return how often a text had to be read, because it was not in the
+     * cache or the file changed.
+     */
+    long missCount();
+
+    /**
+     * Return how often a text was removed from the cache to make room for
+     * other texts.
+     */
+    long evictionCount();
+
+    /**
+     * Return the fraction of the requests returned from the cache, a value
+     * between 0 and 1 (0 when there were no requests yet).
+     */
+    default double hitRate() {
+        long hits = hitCount();
+        long requests = hits + missCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * Return the total number of characters of the texts in the cache.
+     */
+    long cachedCharCount();
+
+    /**
+     * Remove all texts from the cache.
+     */
+    void clear();
+}
@@ -0,0 +1,278 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+
+import static org.abego.commons.io.FileUtil.runIOCode;
+
+/**
+ * A {@link TextFileCache} holding at most a given number of characters,
+ * evicting the least recently used texts when full.
+ *
+ * <p>The cache validates a text of a file by the file's modification time
+ * and size. Resources in JAR files are validated by the CRC (a cheap hash
+ * stored in the JAR file) and size of their entry, resources in the file
+ * system like files. Resources of other kinds (e.g. from the network) are
+ * not cached.</p>
+ *
+ * <p>A change of a file that keeps its size and happens within the
+ * resolution of the file system's modification time is not detected.</p>
+ *
+ * <p>A TextFileCacheDefault is thread-safe.</p>
+ */
+public final class TextFileCacheDefault implements TextFileCache {
+    /**
+     * The default maximal number of characters held in the cache.
+     */
+    public static final long DEFAULT_MAX_CACHED_CHARS = 16 * 1024 * 1024;
+
+    private final long maxCachedChars;
+    // access-ordered, so the first entry is the least recently used one.
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedCharCount;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private TextFileCacheDefault(long maxCachedChars) {
+        if (maxCachedChars < 0) {
+            throw new IllegalArgumentException(
+                    "maxCachedChars must be >= 0, got " + maxCachedChars); //NON-NLS
+        }
+        this.maxCachedChars = maxCachedChars;
+    }
+
+    public static TextFileCacheDefault newTextFileCacheDefault(long maxCachedChars) {
+        return new TextFileCacheDefault(maxCachedChars);
+    }
+
+    public static TextFileCacheDefault newTextFileCacheDefault() {
+        return newTextFileCacheDefault(DEFAULT_MAX_CACHED_CHARS);
+    }
+
+    @Override
+    public String textOf(File file, Charset charset) {
+        String key = key(charset, file.getAbsolutePath());
+        Stamp stamp = stampOfFile(file);
+        @Nullable String text = cachedText(key, stamp);
+        if (text == null) {
+            text = FileUtil.textOf(file, charset);
+            cacheText(key, stamp, text);
+        }
+        return text;
+    }
+
+    @Override
+    public String textOfResource(
+            Class<?> theClass, String resourceName, Charset charset) {
+        @Nullable URL url = theClass.getResource(resourceName);
+        @Nullable Stamp stamp = url != null ? stampOfResource(url) : null;
+        if (url == null || stamp == null) {
+            // missing or not cacheable
+            countMiss();
+            return ResourceUtil.textOfResource(theClass, resourceName, charset);
+        }
+
+        String key = key(charset, url.toExternalForm());
+        @Nullable String text = cachedText(key, stamp);
+        if (text == null) {
+            text = ResourceUtil.textOfResource(theClass, resourceName, charset);
+            cacheText(key, stamp, text);
+        }
+        return text;
+    }
+
+    @Override
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized long cachedCharCount() {
+        return cachedCharCount;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        cachedCharCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "TextFileCacheDefault{texts=%d, chars=%d, hits=%d, misses=%d, evictions=%d}", //NON-NLS
+                entries.size(), cachedCharCount(), hitCount(), missCount(), evictionCount());
+    }
+
+    private static String key(Charset charset, String location) {
+        return charset.name() + ":" + location;
+    }
+
+    /**
+     * Return the text cached for <code>key</code> when its stamp equals
+     * <code>stamp</code>, otherwise <code>null</code> (counted as a miss).
+     */
+    @Nullable
+    private synchronized String cachedText(String key, Stamp stamp) {
+        @Nullable Entry entry = entries.get(key);
+        if (entry != null && entry.stamp.equals(stamp)) {
+            hitCount++;
+            return entry.text;
+        }
+        missCount++;
+        return null;
+    }
+
+    private synchronized void countMiss() {
+        missCount++;
+    }
+
+    private synchronized void cacheText(String key, Stamp stamp, String text) {
+        @Nullable Entry oldEntry = entries.remove(key);
+        if (oldEntry != null) {
+            cachedCharCount -= oldEntry.text.length();
+        }
+        if (text.length() > maxCachedChars) {
+            return;
+        }
+        while (cachedCharCount + text.length() > maxCachedChars) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            cachedCharCount -= eldest.text.length();
+            evictionCount++;
+        }
+        entries.put(key, new Entry(stamp, text));
+        cachedCharCount += text.length();
+    }
+
+    private static Stamp stampOfFile(File file) {
+        BasicFileAttributes attributes = runIOCode(() -> Files.readAttributes(
+                file.toPath(), BasicFileAttributes.class));
+        return new Stamp(attributes.lastModifiedTime().toMillis(),
+                attributes.size(), 0);
+    }
+
+    /**
+     * Return the stamp of the resource at <code>url</code>, or
+     * <code>null</code> when the resource cannot be cached.
+     */
+    @Nullable
+    private static Stamp stampOfResource(URL url) {
+        try {
+            String protocol = url.getProtocol();
+            if ("file".equals(protocol)) { //NON-NLS
+                return stampOfFile(Paths.get(url.toURI()).toFile());
+            }
+            if ("jar".equals(protocol)) { //NON-NLS
+                URLConnection connection = url.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    @Nullable JarEntry jarEntry = ((JarURLConnection) connection).getJarEntry();
+                    if (jarEntry != null && jarEntry.getCrc() != -1) {
+                        return new Stamp(jarEntry.getTime(), jarEntry.getSize(),
+                                jarEntry.getCrc());
+                    }
+                }
+            }
+            return null;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            // not cacheable, the read will report the problem (if any).
+            return null;
+        }
+    }
+
+    /**
+     * Identifies a version of a file or resource.
+     */
+    private static final class Stamp {
+        private final long lastModified;
+        private final long size;
+        private final long hash;
+
+        private Stamp(long lastModified, long size, long hash) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Stamp stamp = (Stamp) o;
+            return lastModified == stamp.lastModified &&
+                    size == stamp.size &&
+                    hash == stamp.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModified) * 31 * 31 +
+                    Long.hashCode(size) * 31 + Long.hashCode(hash);
+        }
+    }
+
+    private static final class Entry {
+        private final Stamp stamp;
+        private final String text;
+
+        private Entry(Stamp stamp, String text) {
+            this.stamp = stamp;
+            this.text = text;
+        }
+    }
+}
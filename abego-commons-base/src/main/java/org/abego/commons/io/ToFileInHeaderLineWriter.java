@@ -37,21 +37,58 @@ import static org.abego.commons.io.FileUtil.ensureDirectoryExists;
 /**
  * A writer that handles the first line as a file pathname and writes the
  * remaining lines to the file specified in the first line.
+ *
+ * <p>When created with an {@link AsyncFileOutput} the writer collects the
+ * text in chunks and the AsyncFileOutput creates and writes the file in the
+ * background. {@link #flush()} and {@link #close()} then only queue the
+ * operation. Use {@link AsyncFileOutput#close()} to wait until all files
+ * are written and to get informed about failures.</p>
  */
 public final class ToFileInHeaderLineWriter extends LineSplittingWriter {
 
+    /**
+     * The number of characters collected before the text is passed to the
+     * {@link AsyncFileOutput}.
+     */
+    private static final int ASYNC_CHUNK_SIZE = 64 * 1024;
+
     private final StringBuilder firstLineContent = new StringBuilder();
     private final Charset charset;
     @Nullable
+    private final AsyncFileOutput asyncFileOutput;
+    @Nullable
     private Writer fileWriter;
+    @Nullable
+    private AsyncFileOutput.AsyncFile asyncFile;
+    private final StringBuilder asyncChunk = new StringBuilder();
 
-    private ToFileInHeaderLineWriter(Charset charset) {
+    private ToFileInHeaderLineWriter(
+            Charset charset, @Nullable AsyncFileOutput asyncFileOutput) {
         this.charset = charset;
+        this.asyncFileOutput = asyncFileOutput;
     }
 
     public static ToFileInHeaderLineWriter toFileInHeaderLineWriter(
             Charset charset) {
-        return new ToFileInHeaderLineWriter(charset);
+        return new ToFileInHeaderLineWriter(charset, null);
+    }
+
+    /**
+     * Return a ToFileInHeaderLineWriter that writes the file in the
+     * background, using <code>asyncFileOutput</code>.
+     */
+    public static ToFileInHeaderLineWriter toFileInHeaderLineWriter(
+            Charset charset, AsyncFileOutput asyncFileOutput) {
+        return new ToFileInHeaderLineWriter(charset, asyncFileOutput);
+    }
+
+    /**
+     * Return a ToFileInHeaderLineWriter that writes the file (UTF-8 encoded)
+     * in the background, using <code>asyncFileOutput</code>.
+     */
+    public static ToFileInHeaderLineWriter toFileInHeaderLineWriter(
+            AsyncFileOutput asyncFileOutput) {
+        return toFileInHeaderLineWriter(StandardCharsets.UTF_8, asyncFileOutput);
     }
 
     public static ToFileInHeaderLineWriter toFileInHeaderLineWriter() {
@@ -64,6 +101,9 @@ public final class ToFileInHeaderLineWriter extends LineSplittingWriter {
             throws IOException {
         if (lineIndex() == 0) {
             firstLineContent.append(characterArray, startOffset, length);
+        } else if (asyncFile != null) {
+            asyncChunk.append(characterArray, startOffset, length);
+            writeAsyncChunkIfFull();
         } else {
             @Nullable Writer w = fileWriter;
             if (w != null) {
@@ -77,8 +117,16 @@ public final class ToFileInHeaderLineWriter extends LineSplittingWriter {
             throws IOException {
         if (lineIndex() == 0) {
             File outputFile = new File(firstLineContent.toString());
-            ensureDirectoryExists(outputFile.getParentFile());
-            fileWriter = WriterUtil.writer(outputFile, charset);
+            @Nullable AsyncFileOutput output = asyncFileOutput;
+            if (output != null) {
+                asyncFile = output.openFile(outputFile, charset);
+            } else {
+                ensureDirectoryExists(outputFile.getParentFile());
+                fileWriter = WriterUtil.writer(outputFile, charset);
+            }
+        } else if (asyncFile != null) {
+            asyncChunk.append(lineSeparator);
+            writeAsyncChunkIfFull();
         } else {
             @Nullable Writer w = fileWriter;
             if (w != null) {
@@ -87,8 +135,29 @@ public final class ToFileInHeaderLineWriter extends LineSplittingWriter {
         }
     }
 
+    private void writeAsyncChunkIfFull() throws IOException {
+        if (asyncChunk.length() >= ASYNC_CHUNK_SIZE) {
+            writeAsyncChunk();
+        }
+    }
+
+    private void writeAsyncChunk() throws IOException {
+        @Nullable AsyncFileOutput.AsyncFile f = asyncFile;
+        if (f != null && asyncChunk.length() > 0) {
+            f.write(asyncChunk.toString());
+            asyncChunk.setLength(0);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
+        @Nullable AsyncFileOutput.AsyncFile f = asyncFile;
+        if (f != null) {
+            writeAsyncChunk();
+            f.flush();
+            return;
+        }
+
         @Nullable Writer w = fileWriter;
         if (w != null) {
             w.flush();
@@ -99,8 +168,12 @@ public final class ToFileInHeaderLineWriter extends LineSplittingWriter {
     public void close() throws IOException {
         super.close();
 
+        @Nullable AsyncFileOutput.AsyncFile f = asyncFile;
         @Nullable Writer w = fileWriter;
-        if (w != null) {
+        if (f != null) {
+            writeAsyncChunk();
+            f.close();
+        } else if (w != null) {
             w.close();
         } else {
             throw new IOException("No file found in first line of output.");  // NON-NLS
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Gives {@link JSONPointer}s access to the children of the nodes (objects
+ * and arrays) of a custom document model.
+ *
+ * <p>By default a JSONPointer navigates {@link java.util.Map}s, arrays,
+ * {@link java.util.List}s, {@link org.abego.commons.seq.Seq}s and other
+ * {@link Iterable}s. For other document models (or to get a faster access
+ * to the items of some {@link Iterable}s) register a JSONNodeAccessor via
+ * {@link JSONPointer#addNodeAccessor(JSONNodeAccessor)}.</p>
+ *
+ * <p>A JSONNodeAccessor must be thread-safe. Its methods are called for
+ * every step of a JSONPointer evaluation, so they should be fast and not
+ * allocate objects.</p>
+ */
+public interface JSONNodeAccessor {
+
+    /**
+     * Return <code>true</code> when <code>value</code> is a node handled by
+     * this accessor, <code>false</code> otherwise.
+     */
+    boolean isNode(Object value);
+
+    /**
+     * Return the child of <code>node</code> selected by a JSON Pointer
+     * token, or <code>defaultValue</code> when <code>node</code> has no
+     * such child.
+     *
+     * @param node         a value this accessor handles, i.e.
+     *                     {@link #isNode(Object)} returned <code>true</code>
+     *                     for it
+     * @param token        the (unescaped) token, e.g. the key of a child of
+     *                     an object node
+     * @param index        the token as an index (negative when the token is
+     *                     not a valid index), e.g. for the items of an array
+     *                     node
+     * @param defaultValue the value to return when <code>node</code> has no
+     *                     child selected by the token
+     */
+    @Nullable
+    Object childOrDefault(
+            Object node, String token, long index, @Nullable Object defaultValue);
+}
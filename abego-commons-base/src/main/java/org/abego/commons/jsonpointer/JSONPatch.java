@@ -0,0 +1,354 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A JSON Patch, as defined in RFC 6902 (https://tools.ietf.org/html/rfc6902).
+ *
+ * <p>A JSONPatch is created from the operations of the patch, in the form
+ * of a parsed JSON Patch document: a {@link List} of operations, each
+ * operation a {@link Map} with the members "op", "path" and (depending on
+ * the operation) "value" or "from". The operations are checked and their
+ * JSONPointers are compiled when the JSONPatch is created, so applying the
+ * patch just runs through the operations once.</p>
+ *
+ * <p>The patch is applied "in place", i.e. it modifies the (mutable)
+ * {@link Map}s and {@link List}s of the document. Values of "add" and
+ * "replace" operations are inserted as given (not copied), values
+ * copied with "copy" are deep copies.</p>
+ *
+ * <p>When an operation fails (including a failing "test" operation)
+ * {@link #applyTo(Object)} throws an {@link IllegalArgumentException}.
+ * The operations before the failing one are already applied to the
+ * document then. To apply a patch atomically apply it to a copy of the
+ * document.</p>
+ *
+ * <p>A JSONPatch is immutable and can be used by multiple threads
+ * concurrently (on different documents).</p>
+ */
+@SuppressWarnings({"HardCodedStringLiteral"})
+public final class JSONPatch {
+    private final List<Operation> operations;
+
+    private JSONPatch(List<? extends Map<String, ?>> operations) {
+        List<Operation> list = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            list.add(Operation.of(i, operations.get(i)));
+        }
+        this.operations = list;
+    }
+
+    /**
+     * Return the JSONPatch with the given <code>operations</code>.
+     *
+     * <p>Throws an {@link IllegalArgumentException} when an operation is
+     * invalid (e.g. an unknown "op" or a missing member).</p>
+     */
+    public static JSONPatch newJSONPatch(List<? extends Map<String, ?>> operations) {
+        return new JSONPatch(operations);
+    }
+
+    /**
+     * Return the number of operations of this patch.
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Apply this patch to the <code>document</code> and return the patched
+     * document.
+     *
+     * <p>The result is the <code>document</code> object itself, except when
+     * an operation replaces the whole document (e.g. by adding a value with
+     * the path "").</p>
+     */
+    public @Nullable Object applyTo(@Nullable Object document) {
+        @Nullable Object result = document;
+        for (Operation operation : operations) {
+            try {
+                result = operation.applyTo(result);
+            } catch (IllegalArgumentException | IllegalStateException
+                    | IndexOutOfBoundsException | UnsupportedOperationException e) {
+                throw new IllegalArgumentException(
+                        String.format("Error in JSON Patch operation %d (%s): %s",
+                                operation.position, operation, e.getMessage()), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return <code>true</code> when the JSON values <code>a</code> and
+     * <code>b</code> are equal, as defined for the "test" operation.
+     *
+     * <p>Numbers are equal when their numeric values are equal (e.g.
+     * <code>1</code> and <code>1.0</code>), Maps are equal when they have
+     * the same keys with equal values, arrays/Lists/Iterables are equal
+     * when they have equal items in the same order.</p>
+     */
+    static boolean jsonEquals(@Nullable Object a, @Nullable Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            try {
+                return toBigDecimal((Number) a).compareTo(toBigDecimal((Number) b)) == 0;
+            } catch (NumberFormatException e) {
+                // e.g. NaN or Infinity (not valid JSON numbers)
+                return a.equals(b);
+            }
+        }
+        if (a instanceof Map && b instanceof Map) {
+            Map<?, ?> mapA = (Map<?, ?>) a;
+            Map<?, ?> mapB = (Map<?, ?>) b;
+            if (mapA.size() != mapB.size()) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : mapA.entrySet()) {
+                if (!mapB.containsKey(entry.getKey())
+                        || !jsonEquals(entry.getValue(), mapB.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        @Nullable Iterable<?> iterableA = asIterable(a);
+        @Nullable Iterable<?> iterableB = asIterable(b);
+        if (iterableA != null && iterableB != null) {
+            Iterator<?> iteratorA = iterableA.iterator();
+            Iterator<?> iteratorB = iterableB.iterator();
+            while (iteratorA.hasNext() && iteratorB.hasNext()) {
+                if (!jsonEquals(iteratorA.next(), iteratorB.next())) {
+                    return false;
+                }
+            }
+            return !iteratorA.hasNext() && !iteratorB.hasNext();
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        return number instanceof BigDecimal
+                ? (BigDecimal) number
+                : new BigDecimal(number.toString());
+    }
+
+    private static @Nullable Iterable<?> asIterable(@Nullable Object value) {
+        if (value instanceof Object[]) {
+            return Arrays.asList((Object[]) value);
+        }
+        return value instanceof Iterable && !(value instanceof Map)
+                ? (Iterable<?>) value : null;
+    }
+
+    /**
+     * Return a deep copy of the JSON <code>value</code>: Maps, Lists
+     * (and other Iterables) and arrays are copied, other values are
+     * shared.
+     */
+    static @Nullable Object deepCopy(@Nullable Object value) {
+        if (value instanceof Map) {
+            Map<@Nullable Object, @Nullable Object> result = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                result.put(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return result;
+        }
+        if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            Object[] result = array.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = deepCopy(array[i]);
+            }
+            return result;
+        }
+        if (value instanceof Iterable) {
+            List<@Nullable Object> result = new ArrayList<>();
+            for (Object item : (Iterable<?>) value) {
+                result.add(deepCopy(item));
+            }
+            return result;
+        }
+        return value;
+    }
+
+    private enum Kind {
+        ADD("add"),
+        REMOVE("remove"),
+        REPLACE("replace"),
+        MOVE("move"),
+        COPY("copy"),
+        TEST("test");
+
+        private final String name;
+
+        Kind(String name) {
+            this.name = name;
+        }
+
+        private static Kind of(String name) {
+            for (Kind kind : values()) {
+                if (kind.name.equals(name)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException(
+                    String.format("unknown op '%s'", name));
+        }
+    }
+
+    private static final class Operation {
+        private final int position;
+        private final Kind kind;
+        private final JSONPointer path;
+        private final @Nullable JSONPointer from;
+        private final @Nullable Object value;
+
+        private Operation(int position, Kind kind, JSONPointer path,
+                          @Nullable JSONPointer from, @Nullable Object value) {
+            this.position = position;
+            this.kind = kind;
+            this.path = path;
+            this.from = from;
+            this.value = value;
+        }
+
+        private static Operation of(int position, Map<String, ?> operation) {
+            try {
+                Kind kind = Kind.of(stringMember(operation, "op"));
+                JSONPointer path = JSONPointer.of(stringMember(operation, "path"));
+                @Nullable JSONPointer from = null;
+                @Nullable Object value = null;
+                switch (kind) {
+                    case ADD:
+                    case REPLACE:
+                    case TEST:
+                        value = member(operation, "value");
+                        break;
+                    case MOVE:
+                    case COPY:
+                        from = JSONPointer.of(stringMember(operation, "from"));
+                        if (kind == Kind.MOVE && path.isInside(from)) {
+                            throw new IllegalArgumentException(
+                                    "a value must not be moved into one of its children");
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                return new Operation(position, kind, path, from, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        String.format("Error in JSON Patch operation %d: %s",
+                                position, e.getMessage()), e);
+            }
+        }
+
+        private static @Nullable Object member(Map<String, ?> operation, String name) {
+            if (!operation.containsKey(name)) {
+                throw new IllegalArgumentException(
+                        String.format("missing member '%s'", name));
+            }
+            return operation.get(name);
+        }
+
+        private static String stringMember(Map<String, ?> operation, String name) {
+            @Nullable Object result = member(operation, name);
+            if (!(result instanceof String)) {
+                throw new IllegalArgumentException(
+                        String.format("member '%s' must be a string", name));
+            }
+            return (String) result;
+        }
+
+        /**
+         * Apply this operation to the <code>document</code> and return the
+         * (possibly replaced) document.
+         */
+        private @Nullable Object applyTo(@Nullable Object document) {
+            switch (kind) {
+                case ADD:
+                    return add(document, path, value);
+                case REMOVE:
+                    path.remove(document);
+                    return document;
+                case REPLACE:
+                    if (path.isRoot()) {
+                        return value;
+                    }
+                    // the value to replace must exist
+                    path.apply(document);
+                    path.set(document, value);
+                    return document;
+                case MOVE:
+                    JSONPointer moveFrom = Objects.requireNonNull(from);
+                    if (moveFrom.equals(path)) {
+                        // (still the value must exist)
+                        path.apply(document);
+                        return document;
+                    }
+                    return add(document, path, moveFrom.remove(document));
+                case COPY:
+                    JSONPointer copyFrom = Objects.requireNonNull(from);
+                    return add(document, path, deepCopy(copyFrom.apply(document)));
+                case TEST:
+                    if (!jsonEquals(path.apply(document), value)) {
+                        throw new IllegalArgumentException("test failed");
+                    }
+                    return document;
+                default:
+                    throw new IllegalStateException("Unexpected op: " + kind);
+            }
+        }
+
+        private static @Nullable Object add(
+                @Nullable Object document, JSONPointer path, @Nullable Object value) {
+            if (path.isRoot()) {
+                return value;
+            }
+            path.add(document, value);
+            return document;
+        }
+
+        @Override
+        public String toString() {
+            return from == null
+                    ? String.format("%s '%s'", kind.name, path)
+                    : String.format("%s '%s' to '%s'", kind.name, from, path);
+        }
+    }
+}
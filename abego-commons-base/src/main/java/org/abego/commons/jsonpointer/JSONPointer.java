@@ -25,27 +25,74 @@
 package org.abego.commons.jsonpointer;
 
 import org.abego.commons.lang.ArrayUtil;
+import org.abego.commons.seq.Seq;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.UnaryOperator;
 
 import static org.abego.commons.lang.ClassUtil.classNameOrNull;
 
+/**
+ * A JSON Pointer, as defined in RFC 6901 (https://tools.ietf.org/html/rfc6901).
+ *
+ * <p>A JSONPointer is "compiled": the pointer text is parsed once, when the
+ * JSONPointer is created. Evaluating the JSONPointer (e.g. via
+ * {@link #apply(Object)}) neither parses nor allocates objects.</p>
+ *
+ * <p>{@link #of(String)} and {@link #referencedValue(Object, String)} reuse
+ * JSONPointers from a cache, so repeatedly using the same pointer text
+ * only parses it once.</p>
+ *
+ * <p>Items of arrays, {@link List}s and {@link Seq}s are accessed by index,
+ * items of other {@link Iterable}s by iterating. Custom document models
+ * can provide their own (typically faster) access to child values via a
+ * {@link JSONNodeAccessor}.</p>
+ */
 @SuppressWarnings({"HardCodedStringLiteral"})
 public final class JSONPointer implements UnaryOperator<@Nullable Object> {
     static final String UNSUPPORTED_FOR_ROOT = "Unsupported for root JSON Pointer";
     static final char TOKEN_PREFIX = '/';
+    /**
+     * The token referencing the (nonexistent) item after the last item of
+     * an array, as used by the "add" operation.
+     */
+    static final String END_OF_ARRAY_TOKEN = "-";
+    /**
+     * The maximal number of JSONPointers in the cache used by
+     * {@link #of(String)}.
+     */
+    static final int MAX_CACHED_POINTERS = 10_000;
+    // marks a token that is not a (syntactically valid) index
+    private static final long NOT_AN_INDEX = Long.MIN_VALUE;
+    private static final @NonNull String[] NO_TOKENS = new @NonNull String[0];
+    private static final long[] NO_INDICES = new long[0];
+    private static final Map<String, JSONPointer> CACHE = new ConcurrentHashMap<>();
+    /**
+     * Stands for "no value", e.g. when a key is missing in a Map.
+     */
+    static final Object MISSING = new Object();
+    private static final JSONNodeAccessor[] NO_NODE_ACCESSORS = new JSONNodeAccessor[0];
+    // copy-on-write, so evaluating a JSONPointer neither locks nor allocates
+    private static volatile JSONNodeAccessor[] nodeAccessors = NO_NODE_ACCESSORS;
+
     private final String pointer;
     private final @NonNull String[] tokens;
+    // indices[i]: tokens[i] as an index (or NOT_AN_INDEX)
+    private final long[] indices;
 
     private JSONPointer(String pointer) {
         this.pointer = pointer;
         this.tokens = toTokens(pointer);
+        this.indices = toIndices(tokens);
     }
 
     /**
@@ -89,54 +136,231 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
      */
     @Nullable
     public static Object referencedValue(Object root, String jsonPointer) {
-        return referencedValue(root, toTokens(jsonPointer), jsonPointer);
-    }
-
-    private static @Nullable Object referencedValue(@Nullable Object root, @NonNull String[] tokens, String jsonPointer) {
-        @Nullable Object result = root;
-        for (String token : tokens) {
-            result = processToken(result, token, jsonPointer);
-        }
-        return result;
+        return of(jsonPointer).apply(root);
     }
 
     private static @NonNull String[] toTokens(String jsonPointer) {
         return jsonPointer.isEmpty()
-                ? new String[0]
+                ? NO_TOKENS
                 : nonEmptyJSONPointerToTokens(jsonPointer);
     }
 
     private static @NonNull String[] nonEmptyJSONPointerToTokens(String jsonPointer) {
-        if (!jsonPointer.startsWith("/"))
+        if (jsonPointer.charAt(0) != TOKEN_PREFIX)
             throw newMissingRootSlash(jsonPointer);
 
         // separate the pointer in the individual navigational tokens
         // (but skip the initial '/')
-        @NonNull String[] steps = jsonPointer.substring(1).split("/", -1);
-        @NonNull String[] tokens = new @NonNull String[steps.length];
-        for (int i = 0; i < steps.length; i++) {
-            tokens[i] = unescape(steps[i]);
+        int n = jsonPointer.length();
+        int tokenCount = 1;
+        for (int i = 1; i < n; i++) {
+            if (jsonPointer.charAt(i) == TOKEN_PREFIX) {
+                tokenCount++;
+            }
+        }
+        @NonNull String[] tokens = new @NonNull String[tokenCount];
+        int start = 1;
+        for (int t = 0; t < tokenCount; t++) {
+            int end = jsonPointer.indexOf(TOKEN_PREFIX, start);
+            if (end < 0) {
+                end = n;
+            }
+            tokens[t] = unescape(jsonPointer, start, end);
+            start = end + 1;
         }
         return tokens;
     }
 
-    private static String unescape(String escapedToken) {
-        return escapedToken.replaceAll("~1", "/").replaceAll("~0", "~");
+    /**
+     * Return the token between <code>start</code> and <code>end</code> in
+     * <code>jsonPointer</code>, with "~1" replaced by "/" and "~0" replaced
+     * by "~".
+     */
+    private static String unescape(String jsonPointer, int start, int end) {
+        int tilde = jsonPointer.indexOf('~', start);
+        if (tilde < 0 || tilde >= end) {
+            return jsonPointer.substring(start, end);
+        }
+        StringBuilder result = new StringBuilder(end - start);
+        result.append(jsonPointer, start, tilde);
+        for (int i = tilde; i < end; i++) {
+            char c = jsonPointer.charAt(i);
+            if (c == '~' && i + 1 < end) {
+                char next = jsonPointer.charAt(i + 1);
+                if (next == '1') {
+                    c = '/';
+                    i++;
+                } else if (next == '0') {
+                    i++;
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static long[] toIndices(@NonNull String[] tokens) {
+        if (tokens.length == 0) {
+            return NO_INDICES;
+        }
+        long[] result = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            try {
+                result[i] = Integer.parseInt(tokens[i]);
+            } catch (NumberFormatException e) {
+                result[i] = NOT_AN_INDEX;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the child of <code>data</code> selected by a token, or
+     * {@link #MISSING} when <code>data</code> has no such child.
+     *
+     * @param data  the JSON value to navigate from
+     * @param token the token, used as the key when <code>data</code> is a
+     *              {@link Map}
+     * @param index the token as an index (negative when the token is not
+     *              a valid index), used when <code>data</code> is an array,
+     *              a {@link List}, a {@link Seq} or an {@link Iterable}.
+     */
+    @SuppressWarnings("unchecked")
+    static @Nullable Object childOrMissing(@Nullable Object data, String token, long index) {
+        @Nullable JSONNodeAccessor accessor = nodeAccessorOrNull(data);
+        if (accessor != null) {
+            return accessor.childOrDefault(data, token, index, MISSING);
+
+        } else if (data instanceof Map) {
+            Map<@Nullable Object, @Nullable Object> map = (Map<@Nullable Object, @Nullable Object>) data;
+            @Nullable Object value = map.get(token);
+            return value != null || map.containsKey(token) ? value : MISSING;
+
+        } else if (data instanceof Object[]) {
+            @Nullable Object[] array = (@Nullable Object[]) data;
+            return index >= 0 && index < array.length ? array[(int) index] : MISSING;
+
+        } else if (data instanceof List) {
+            List<@Nullable Object> list = (List<@Nullable Object>) data;
+            return index >= 0 && index < list.size() ? list.get((int) index) : MISSING;
+
+        } else if (data instanceof Seq) {
+            Seq<@Nullable Object> seq = (Seq<@Nullable Object>) data;
+            return index >= 0 && index < seq.size() ? seq.item((int) index) : MISSING;
+
+        } else if (data instanceof Iterable && index >= 0) {
+            Iterator<@Nullable Object> iterator = ((Iterable<@Nullable Object>) data).iterator();
+            for (long i = 0; iterator.hasNext(); i++) {
+                @Nullable Object item = iterator.next();
+                if (i == index) {
+                    return item;
+                }
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Return <code>true</code> when the items of <code>data</code> are
+     * accessed by index (in constant time, or at least faster than by
+     * iterating), <code>false</code> otherwise.
+     */
+    static boolean hasIndexedItems(@Nullable Object data) {
+        return data instanceof Object[] || data instanceof RandomAccess ||
+                data instanceof Seq || nodeAccessorOrNull(data) != null;
+    }
+
+    /**
+     * Add <code>accessor</code> to the {@link JSONNodeAccessor}s used when
+     * evaluating JSONPointers.
+     *
+     * <p>The accessors are checked in the order they were added, before
+     * the built-in handling of {@link Map}s, arrays, {@link List}s etc.
+     * The first accessor handling a value (see
+     * {@link JSONNodeAccessor#isNode(Object)}) selects the child
+     * values.</p>
+     */
+    public static synchronized void addNodeAccessor(JSONNodeAccessor accessor) {
+        JSONNodeAccessor[] newAccessors = Arrays.copyOf(nodeAccessors, nodeAccessors.length + 1);
+        newAccessors[nodeAccessors.length] = accessor;
+        nodeAccessors = newAccessors;
+    }
+
+    /**
+     * Remove <code>accessor</code> from the {@link JSONNodeAccessor}s used
+     * when evaluating JSONPointers.
+     *
+     * <p>Does nothing when <code>accessor</code> was not added before.</p>
+     */
+    public static synchronized void removeNodeAccessor(JSONNodeAccessor accessor) {
+        List<JSONNodeAccessor> newAccessors = new ArrayList<>(Arrays.asList(nodeAccessors));
+        if (newAccessors.remove(accessor)) {
+            nodeAccessors = newAccessors.toArray(NO_NODE_ACCESSORS);
+        }
+    }
+
+    private static @Nullable JSONNodeAccessor nodeAccessorOrNull(@Nullable Object data) {
+        if (data != null) {
+            for (JSONNodeAccessor accessor : nodeAccessors) {
+                if (accessor.isNode(data)) {
+                    return accessor;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of tokens of this JSONPointer.
+     */
+    int tokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Return the (unescaped) token at <code>tokenIndex</code>.
+     */
+    String token(int tokenIndex) {
+        return tokens[tokenIndex];
+    }
+
+    /**
+     * Return the token at <code>tokenIndex</code> as an index, or a negative
+     * value when the token is not a valid index.
+     */
+    long tokenAsIndex(int tokenIndex) {
+        return indices[tokenIndex];
+    }
+
+    private @Nullable Object processToken(@Nullable Object data, int tokenIndex) {
+        @Nullable Object child = childOrMissing(data, tokens[tokenIndex], indices[tokenIndex]);
+        if (child != MISSING) {
+            return child;
+        }
+        // the child is missing. Find out why and report it.
+        return checkedChild(data, tokenIndex);
     }
 
     @SuppressWarnings("unchecked")
-    private static @Nullable Object processToken(@Nullable Object data, String token, String jsonPointer) {
-        if (data instanceof Map) {
+    private @Nullable Object checkedChild(@Nullable Object data, int tokenIndex) {
+        if (nodeAccessorOrNull(data) != null) {
+
+            throw newMissingChildException(tokens[tokenIndex], data, pointer);
+
+        } else if (data instanceof Map) {
 
             Map<@Nullable Object, @Nullable Object> map = (Map<@Nullable Object, @Nullable Object>) data;
-            if (!map.containsKey(token)) {
-                throw newMissingKeyException(token, jsonPointer);
+            String token = tokens[tokenIndex];
+            @Nullable Object value = map.get(token);
+            if (value == null && !map.containsKey(token)) {
+                throw newMissingKeyException(token, pointer);
             }
-            return map.get(token);
+            return value;
 
         } else if (data instanceof Object[]) {
 
-            return getArrayItem((@Nullable Object[]) data, token, jsonPointer);
+            @Nullable Object[] array = (@Nullable Object[]) data;
+            return array[checkedIndex(tokenIndex, array.length)];
 
         } else if (data instanceof List) {
             // List is also an "Iterable" but we handle it specially because
@@ -144,11 +368,17 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
             // For an iterable we need to iterate and count to find the i-th
             // item. This is typically slower than the `get`.
 
-            return getListItem((List<Object>) data, token, jsonPointer);
+            List<Object> list = (List<Object>) data;
+            return list.get(checkedIndex(tokenIndex, list.size()));
+
+        } else if (data instanceof Seq) {
+
+            Seq<@Nullable Object> seq = (Seq<@Nullable Object>) data;
+            return seq.item(checkedIndex(tokenIndex, seq.size()));
 
         } else if (data instanceof Iterable) {
 
-            return getItemFromIterable((Iterable<@Nullable Object>) data, token, jsonPointer);
+            return getItemFromIterable((Iterable<@Nullable Object>) data, index(tokenIndex), pointer);
 
         } else {
 
@@ -157,9 +387,31 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
         }
     }
 
-    private static @Nullable Object getItemFromIterable(Iterable<@Nullable Object> iterable, String indexString, String jsonPointer) {
+    /**
+     * Return the token at <code>tokenIndex</code> as an index.
+     */
+    private int index(int tokenIndex) {
+        long index = indices[tokenIndex];
+        if (index == NOT_AN_INDEX) {
+            throw newIndexExpectedException(tokens[tokenIndex], pointer);
+        }
+        return (int) index;
+    }
+
+    /**
+     * Return the token at <code>tokenIndex</code> as an index, checking it is
+     * in the range <code>0 .. limit-1</code>.
+     */
+    private int checkedIndex(int tokenIndex, int limit) {
+        int index = index(tokenIndex);
+
+        checkIndexRange(index, limit, pointer);
+
+        return index;
+    }
+
+    private static @Nullable Object getItemFromIterable(Iterable<@Nullable Object> iterable, int index, String jsonPointer) {
 
-        int index = parseIndex(indexString, jsonPointer);
         if (index < 0)
             throw newNegativeIndexException(index, jsonPointer);
 
@@ -179,42 +431,12 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
         }
     }
 
-    private static Object getListItem(List<Object> list, String indexString, String jsonPointer) {
-        int index = parseAndCheckIndex(indexString, list.size(), jsonPointer);
-
-        return list.get(index);
-    }
-
-    private static @Nullable Object getArrayItem(@Nullable Object[] array, String indexString, String jsonPointer) {
-        int index = parseAndCheckIndex(indexString, array.length, jsonPointer);
-
-        return array[index];
-    }
-
-    private static int parseAndCheckIndex(String token, int limit, String jsonPointer) {
-        int index = parseIndex(token, jsonPointer);
-
-        checkIndexRange(index, limit, jsonPointer);
-
-        return index;
-    }
-
     private static void checkIndexRange(int index, int limit, String jsonPointer) {
         if (index < 0 || index >= limit) {
             throw newOutOfRangeException(index, limit, jsonPointer);
         }
     }
 
-    private static int parseIndex(String token, String jsonPointer) {
-        int index;
-        try {
-            index = Integer.parseInt(token);
-        } catch (NumberFormatException e) {
-            throw newIndexExpectedException(token, jsonPointer);
-        }
-        return index;
-    }
-
     private static IllegalArgumentException newMissingRootSlash(String jsonPointer) {
         return new IllegalArgumentException(
                 String.format("Error in '%s': must start with '/' or be empty", jsonPointer));
@@ -225,6 +447,13 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
                 String.format("Error in '%s': Map is missing key '%s'", jsonPointer, token));
     }
 
+    private static IllegalArgumentException newMissingChildException(
+            String token, @Nullable Object data, String jsonPointer) {
+        return new IllegalArgumentException(
+                String.format("Error in '%s': %s has no child '%s'",
+                        jsonPointer, classNameOrNull(data), token));
+    }
+
     private static IllegalArgumentException newOutOfRangeException(int index, int limit, String jsonPointer) {
         return new IllegalArgumentException(
                 String.format("Error in '%s': expected 0 < index < %d, got index with: %d",
@@ -247,8 +476,26 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
         return new JSONPointer(jsonPointer);
     }
 
+    /**
+     * Return the JSONPointer for the <code>jsonPointer</code> text.
+     *
+     * <p>As a JSONPointer is immutable the method may return a JSONPointer
+     * already created before for the same text (from a cache holding
+     * at most {@link #MAX_CACHED_POINTERS} JSONPointers).</p>
+     */
     public static JSONPointer of(String jsonPointer) {
-        return newJSONPointer(jsonPointer);
+        @Nullable JSONPointer result = CACHE.get(jsonPointer);
+        if (result == null) {
+            result = newJSONPointer(jsonPointer);
+            if (CACHE.size() >= MAX_CACHED_POINTERS) {
+                // Simply start over when the cache is full. This keeps
+                // lookups lock-free and still gives a high hit rate for the
+                // typical case of a limited set of frequently used pointers.
+                CACHE.clear();
+            }
+            CACHE.put(jsonPointer, result);
+        }
+        return result;
     }
 
     public boolean isRoot() {
@@ -275,7 +522,144 @@ public final class JSONPointer implements UnaryOperator<@Nullable Object> {
 
     @Override
     public @Nullable Object apply(@Nullable Object root) {
-        return referencedValue(root, tokens, pointer);
+        @Nullable Object result = root;
+        for (int i = 0; i < tokens.length; i++) {
+            result = processToken(result, i);
+        }
+        return result;
+    }
+
+    /**
+     * Set the value referenced by this JSONPointer, relative to
+     * <code>root</code>, to <code>value</code> and return the previous
+     * value.
+     *
+     * <p>When the parent of the referenced value is a {@link Map} the key
+     * (the last token) is added to the Map if it does not yet exist. When
+     * the parent is a {@link List} or an array the index must reference an
+     * existing item. The parent must be modifiable.</p>
+     *
+     * <p>Throws an {@link IllegalStateException} when this is the root
+     * JSONPointer and an {@link IllegalArgumentException} when the value
+     * cannot be set (e.g. because its parent does not exist).</p>
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable Object set(@Nullable Object root, @Nullable Object value) {
+        @Nullable Object parent = parentValue(root);
+        int last = tokens.length - 1;
+        if (parent instanceof Map) {
+            return ((Map<@Nullable Object, @Nullable Object>) parent).put(tokens[last], value);
+
+        } else if (parent instanceof Object[]) {
+            @Nullable Object[] array = (@Nullable Object[]) parent;
+            int index = checkedIndex(last, array.length);
+            @Nullable Object oldValue = array[index];
+            array[index] = value;
+            return oldValue;
+
+        } else if (parent instanceof List) {
+            List<@Nullable Object> list = (List<@Nullable Object>) parent;
+            return list.set(checkedIndex(last, list.size()), value);
+
+        } else {
+            throw newNotModifiableException("Map, array or List", parent);
+        }
+    }
+
+    /**
+     * Add the <code>value</code> at the location referenced by this
+     * JSONPointer, relative to <code>root</code>, as defined by the "add"
+     * operation of JSON Patch (RFC 6902).
+     *
+     * <p>When the parent of the location is a {@link Map} the value is put
+     * into the Map, replacing an existing value. When the parent is a
+     * {@link List} the value is inserted at the index (the items at and
+     * after the index are shifted), or appended when the last token is
+     * "-". The parent must be modifiable.</p>
+     *
+     * <p>Throws an {@link IllegalStateException} when this is the root
+     * JSONPointer and an {@link IllegalArgumentException} when the value
+     * cannot be added (e.g. because its parent does not exist).</p>
+     */
+    @SuppressWarnings("unchecked")
+    public void add(@Nullable Object root, @Nullable Object value) {
+        @Nullable Object parent = parentValue(root);
+        int last = tokens.length - 1;
+        if (parent instanceof Map) {
+            ((Map<@Nullable Object, @Nullable Object>) parent).put(tokens[last], value);
+
+        } else if (parent instanceof List) {
+            List<@Nullable Object> list = (List<@Nullable Object>) parent;
+            if (tokens[last].equals(END_OF_ARRAY_TOKEN)) {
+                list.add(value);
+            } else {
+                // inserting after the last item is allowed, too
+                list.add(checkedIndex(last, list.size() + 1), value);
+            }
+
+        } else {
+            throw newNotModifiableException("Map or List", parent);
+        }
+    }
+
+    /**
+     * Remove the value referenced by this JSONPointer, relative to
+     * <code>root</code>, and return the removed value.
+     *
+     * <p>The referenced value must exist. When its parent is a {@link List}
+     * the items after the removed one are shifted. The parent must be a
+     * modifiable {@link Map} or {@link List}.</p>
+     *
+     * <p>Throws an {@link IllegalStateException} when this is the root
+     * JSONPointer and an {@link IllegalArgumentException} when the value
+     * cannot be removed (e.g. because it does not exist).</p>
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable Object remove(@Nullable Object root) {
+        @Nullable Object parent = parentValue(root);
+        int last = tokens.length - 1;
+        if (parent instanceof Map) {
+            Map<@Nullable Object, @Nullable Object> map = (Map<@Nullable Object, @Nullable Object>) parent;
+            if (!map.containsKey(tokens[last])) {
+                throw newMissingKeyException(tokens[last], pointer);
+            }
+            return map.remove(tokens[last]);
+
+        } else if (parent instanceof List) {
+            List<@Nullable Object> list = (List<@Nullable Object>) parent;
+            return list.remove(checkedIndex(last, list.size()));
+
+        } else {
+            throw newNotModifiableException("Map or List", parent);
+        }
+    }
+
+    /**
+     * Return <code>true</code> when this JSONPointer references a value
+     * inside the value referenced by <code>other</code>, i.e.
+     * <code>other</code> is a proper prefix of this JSONPointer.
+     */
+    boolean isInside(JSONPointer other) {
+        return tokens.length > other.tokens.length
+                && pointer.startsWith(other.pointer)
+                && pointer.charAt(other.pointer.length()) == TOKEN_PREFIX;
+    }
+
+    private @Nullable Object parentValue(@Nullable Object root) {
+        checkNotRoot();
+
+        @Nullable Object result = root;
+        for (int i = 0; i < tokens.length - 1; i++) {
+            result = processToken(result, i);
+        }
+        return result;
+    }
+
+    private IllegalArgumentException newNotModifiableException(
+            String expectedParent, @Nullable Object parent) {
+        return new IllegalArgumentException(
+                String.format("Error in '%s': expected %s as parent, got: %s",
+                        pointer, expectedParent, classNameOrNull(parent)));
     }
 
     @Override
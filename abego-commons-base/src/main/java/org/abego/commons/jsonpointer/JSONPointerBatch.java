@@ -0,0 +1,426 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.abego.commons.jsonpointer.JSONPointer.MISSING;
+import static org.abego.commons.jsonpointer.JSONPointer.childOrMissing;
+import static org.abego.commons.jsonpointer.JSONPointer.hasIndexedItems;
+import static org.abego.commons.jsonpointer.JSONTokenizer.newJSONTokenizer;
+
+/**
+ * A set of {@link JSONPointer}s, evaluated together against a JSON value.
+ *
+ * <p>The pointers are organized in a trie (prefix tree), so each common
+ * prefix of the pointers (like <code>/data/items/3</code> in
+ * <code>/data/items/3/name</code> and <code>/data/items/3/id</code>) is
+ * navigated only once. All values are extracted in one traversal of the
+ * JSON value.</p>
+ *
+ * <p>The pointers can also be evaluated directly against JSON text
+ * (see e.g. {@link #valuesOfJSON(Reader)}), without building the tree of
+ * the complete JSON value. Only the referenced values are built, all
+ * other values are skipped, and reading stops as soon as all pointers
+ * are resolved.</p>
+ *
+ * <p>A JSONPointerBatch is immutable and can be used by multiple threads
+ * concurrently.</p>
+ */
+public final class JSONPointerBatch {
+    private final Set<JSONPointer> pointers;
+    private final Node root;
+
+    private JSONPointerBatch(Iterable<JSONPointer> pointers) {
+        Set<JSONPointer> pointerSet = new LinkedHashSet<>();
+        NodeBuilder rootBuilder = new NodeBuilder("", -1);
+        for (JSONPointer pointer : pointers) {
+            if (pointerSet.add(pointer)) {
+                rootBuilder.add(pointer);
+            }
+        }
+        this.pointers = Collections.unmodifiableSet(pointerSet);
+        this.root = rootBuilder.build();
+    }
+
+    public static JSONPointerBatch newJSONPointerBatch(Iterable<JSONPointer> pointers) {
+        return new JSONPointerBatch(pointers);
+    }
+
+    public static JSONPointerBatch newJSONPointerBatch(JSONPointer... pointers) {
+        return new JSONPointerBatch(Arrays.asList(pointers));
+    }
+
+    /**
+     * Return the JSONPointerBatch for the <code>jsonPointers</code> texts.
+     */
+    public static JSONPointerBatch newJSONPointerBatch(String... jsonPointers) {
+        List<JSONPointer> list = new ArrayList<>(jsonPointers.length);
+        for (String jsonPointer : jsonPointers) {
+            list.add(JSONPointer.of(jsonPointer));
+        }
+        return new JSONPointerBatch(list);
+    }
+
+    /**
+     * Return the pointers of this batch, in the order they were first given
+     * when creating the batch.
+     */
+    public Set<JSONPointer> pointers() {
+        return pointers;
+    }
+
+    /**
+     * Return the values referenced by the pointers of this batch, relative
+     * to <code>root</code>, keyed by pointer.
+     *
+     * <p>A pointer that does not reference a value in <code>root</code>
+     * (e.g. because a key is missing or an index is out of range) has no
+     * entry in the result. A pointer referencing a <code>null</code> value
+     * has an entry with the value <code>null</code>.</p>
+     */
+    public Map<JSONPointer, @Nullable Object> valuesOf(@Nullable Object root) {
+        Map<JSONPointer, @Nullable Object> result =
+                new HashMap<>(pointers.size() * 4 / 3 + 1);
+        forEachValue(root, result::put);
+        return result;
+    }
+
+    /**
+     * Call <code>action</code> with every pointer of this batch that
+     * references a value in <code>root</code> and the referenced value.
+     *
+     * <p>A pointer that does not reference a value in <code>root</code>
+     * is skipped. The order of the calls is undefined.</p>
+     */
+    public void forEachValue(
+            @Nullable Object root, BiConsumer<JSONPointer, @Nullable Object> action) {
+        this.root.visit(root, action);
+    }
+
+    /**
+     * Return the values referenced by the pointers of this batch in the
+     * JSON text read from <code>json</code>, keyed by pointer.
+     *
+     * <p>Works like {@link #valuesOf(Object)}, but with the JSON value
+     * given as JSON text. See {@link #forEachValueOfJSON(Reader, BiConsumer)}
+     * for details.</p>
+     */
+    public Map<JSONPointer, @Nullable Object> valuesOfJSON(Reader json) {
+        Map<JSONPointer, @Nullable Object> result =
+                new HashMap<>(pointers.size() * 4 / 3 + 1);
+        forEachValueOfJSON(json, result::put);
+        return result;
+    }
+
+    /**
+     * Return the values referenced by the pointers of this batch in the
+     * UTF-8 encoded JSON text in <code>json</code>, keyed by pointer.
+     *
+     * <p>Works like {@link #valuesOfJSON(Reader)}, see
+     * {@link #forEachValueOfJSON(ByteBuffer, BiConsumer)} for details.</p>
+     */
+    public Map<JSONPointer, @Nullable Object> valuesOfJSON(ByteBuffer json) {
+        Map<JSONPointer, @Nullable Object> result =
+                new HashMap<>(pointers.size() * 4 / 3 + 1);
+        forEachValueOfJSON(json, result::put);
+        return result;
+    }
+
+    /**
+     * Call <code>action</code> with every pointer of this batch that
+     * references a value in the JSON text read from <code>json</code> and
+     * the referenced value.
+     *
+     * <p>The JSON text is read in a streaming fashion: values not needed to
+     * evaluate the pointers are skipped (without allocating objects), and
+     * reading stops as soon as all pointers are resolved, i.e. the rest of
+     * <code>json</code> remains unread (except for at most one character
+     * following the last value read). <code>json</code> is not closed.</p>
+     *
+     * <p><code>json</code> is read one character at a time. Pass a buffered
+     * {@link Reader} (e.g. a {@link java.io.BufferedReader}) when reading
+     * from an unbuffered source.</p>
+     *
+     * <p>A referenced value is passed as a tree of {@link Map}s,
+     * {@link List}s, {@link String}s, numbers ({@link Long},
+     * {@link java.math.BigInteger} or {@link Double}), {@link Boolean}s and
+     * <code>null</code>. <code>action</code> is called in the order the
+     * values appear in the JSON text.</p>
+     *
+     * <p>Throws an {@link IllegalArgumentException} when the JSON text read
+     * is not valid JSON. Skipped values are only checked for balanced
+     * brackets.</p>
+     */
+    public void forEachValueOfJSON(
+            Reader json, BiConsumer<JSONPointer, @Nullable Object> action) {
+        forEachValueOfJSON(newJSONTokenizer(json), action);
+    }
+
+    /**
+     * Call <code>action</code> with every pointer of this batch that
+     * references a value in the UTF-8 encoded JSON text in
+     * <code>json</code> (from its position up to its limit) and the
+     * referenced value.
+     *
+     * <p>Works like {@link #forEachValueOfJSON(Reader, BiConsumer)}. The
+     * position of <code>json</code> is not changed.</p>
+     *
+     * <p>Combined with a memory-mapped file only the parts of the file
+     * up to the last referenced value are read.</p>
+     */
+    public void forEachValueOfJSON(
+            ByteBuffer json, BiConsumer<JSONPointer, @Nullable Object> action) {
+        forEachValueOfJSON(newJSONTokenizer(json), action);
+    }
+
+    private void forEachValueOfJSON(
+            JSONTokenizer tokenizer, BiConsumer<JSONPointer, @Nullable Object> action) {
+        StreamVisit streamVisit = new StreamVisit(root.pointerCount, action);
+        if (streamVisit.remainingPointerCount > 0) {
+            root.visit(tokenizer, streamVisit);
+        }
+    }
+
+    /**
+     * The state of evaluating the pointers against JSON text.
+     */
+    private static final class StreamVisit {
+        private final BiConsumer<JSONPointer, @Nullable Object> action;
+        private final StringBuilder key = new StringBuilder();
+        // the number of pointers not yet resolved (i.e. neither found nor
+        // known to be missing)
+        private int remainingPointerCount;
+
+        private StreamVisit(
+                int remainingPointerCount, BiConsumer<JSONPointer, @Nullable Object> action) {
+            this.remainingPointerCount = remainingPointerCount;
+            this.action = action;
+        }
+
+        private boolean isDone() {
+            return remainingPointerCount == 0;
+        }
+    }
+
+    private static final class Node {
+        private final String token;
+        private final long index;
+        private final @Nullable JSONPointer pointer;
+        private final Node[] children;
+        // the number of pointers of this node and its descendants
+        private final int pointerCount;
+
+        private Node(String token, long index, @Nullable JSONPointer pointer, Node[] children) {
+            this.token = token;
+            this.index = index;
+            this.pointer = pointer;
+            this.children = children;
+            int count = pointer != null ? 1 : 0;
+            for (Node child : children) {
+                count += child.pointerCount;
+            }
+            this.pointerCount = count;
+        }
+
+        private void visit(
+                @Nullable Object value, BiConsumer<JSONPointer, @Nullable Object> action) {
+            if (pointer != null) {
+                action.accept(pointer, value);
+            }
+            if (children.length > 1 && value instanceof Iterable && !hasIndexedItems(value)) {
+                visitItemsOfIterable((Iterable<?>) value, action);
+                return;
+            }
+            for (Node child : children) {
+                @Nullable Object childValue = childOrMissing(value, child.token, child.index);
+                if (childValue != MISSING) {
+                    child.visit(childValue, action);
+                }
+            }
+        }
+
+        /**
+         * Visit the children referencing items of the <code>iterable</code>,
+         * iterating the iterable only once (and only as far as needed).
+         */
+        private void visitItemsOfIterable(
+                Iterable<?> iterable, BiConsumer<JSONPointer, @Nullable Object> action) {
+            long maxIndex = -1;
+            for (Node child : children) {
+                maxIndex = Math.max(maxIndex, child.index);
+            }
+            Iterator<?> iterator = iterable.iterator();
+            for (long i = 0; i <= maxIndex && iterator.hasNext(); i++) {
+                @Nullable Object item = iterator.next();
+                for (Node child : children) {
+                    if (child.index == i) {
+                        child.visit(item, action);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Visit the next value of <code>tokenizer</code> as the value of
+         * this node, resolving all pointers of this node and its descendants
+         * (or stopping as soon as all pointers of the batch are resolved).
+         */
+        private void visit(JSONTokenizer tokenizer, StreamVisit streamVisit) {
+            if (pointer != null) {
+                visit(tokenizer.readValue(), streamVisit.action);
+                streamVisit.remainingPointerCount -= pointerCount;
+                return;
+            }
+            int c = tokenizer.peekToken();
+            if (c == '{') {
+                visitObject(tokenizer, streamVisit);
+            } else if (c == '[') {
+                visitArray(tokenizer, streamVisit);
+            } else {
+                tokenizer.skipValue();
+                streamVisit.remainingPointerCount -= pointerCount;
+            }
+        }
+
+        private void visitObject(JSONTokenizer tokenizer, StreamVisit streamVisit) {
+            boolean[] isVisited = new boolean[children.length];
+            StringBuilder key = streamVisit.key;
+            tokenizer.beginContainer('{');
+            boolean isFirst = true;
+            while (tokenizer.hasNext('}', isFirst)) {
+                isFirst = false;
+                tokenizer.readKey(key);
+                int i = indexOfChildWithToken(key, isVisited);
+                if (i >= 0) {
+                    isVisited[i] = true;
+                    children[i].visit(tokenizer, streamVisit);
+                    if (streamVisit.isDone()) {
+                        return;
+                    }
+                } else {
+                    tokenizer.skipValue();
+                }
+            }
+            resolveMissingChildren(isVisited, streamVisit);
+        }
+
+        private void visitArray(JSONTokenizer tokenizer, StreamVisit streamVisit) {
+            boolean[] isVisited = new boolean[children.length];
+            tokenizer.beginContainer('[');
+            long itemIndex = 0;
+            while (tokenizer.hasNext(']', itemIndex == 0)) {
+                int i = indexOfChildWithIndex(itemIndex, isVisited);
+                if (i >= 0) {
+                    isVisited[i] = true;
+                    children[i].visit(tokenizer, streamVisit);
+                    if (streamVisit.isDone()) {
+                        return;
+                    }
+                } else {
+                    tokenizer.skipValue();
+                }
+                itemIndex++;
+            }
+            resolveMissingChildren(isVisited, streamVisit);
+        }
+
+        private int indexOfChildWithToken(CharSequence key, boolean[] isVisited) {
+            for (int i = 0; i < children.length; i++) {
+                if (!isVisited[i] && children[i].token.contentEquals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOfChildWithIndex(long itemIndex, boolean[] isVisited) {
+            for (int i = 0; i < children.length; i++) {
+                if (!isVisited[i] && children[i].index == itemIndex) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * The container holding the values of the children was read
+         * completely, so the pointers of the children not visited are
+         * missing.
+         */
+        private void resolveMissingChildren(boolean[] isVisited, StreamVisit streamVisit) {
+            for (int i = 0; i < children.length; i++) {
+                if (!isVisited[i]) {
+                    streamVisit.remainingPointerCount -= children[i].pointerCount;
+                }
+            }
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final String token;
+        private final long index;
+        private @Nullable JSONPointer pointer;
+        private final Map<String, NodeBuilder> children = new LinkedHashMap<>();
+
+        private NodeBuilder(String token, long index) {
+            this.token = token;
+            this.index = index;
+        }
+
+        private void add(JSONPointer jsonPointer) {
+            NodeBuilder node = this;
+            for (int i = 0; i < jsonPointer.tokenCount(); i++) {
+                String t = jsonPointer.token(i);
+                long tokenAsIndex = jsonPointer.tokenAsIndex(i);
+                node = node.children.computeIfAbsent(t, k -> new NodeBuilder(k, tokenAsIndex));
+            }
+            node.pointer = jsonPointer;
+        }
+
+        private Node build() {
+            Node[] childNodes = new Node[children.size()];
+            int i = 0;
+            for (NodeBuilder child : children.values()) {
+                childNodes[i++] = child.build();
+            }
+            return new Node(token, index, pointer, childNodes);
+        }
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads JSON text (RFC 8259) from a character source, one token at a time.
+ *
+ * <p>Values that are not needed can be skipped via {@link #skipValue()}.
+ * Skipping a value does not allocate objects and only checks the
+ * brackets of the skipped value are balanced. Values that are needed are
+ * read via {@link #readValue()}, as a tree of {@link Map}s, {@link List}s,
+ * {@link String}s, numbers ({@link Long}, {@link BigInteger} or
+ * {@link Double}), {@link Boolean}s and <code>null</code>.</p>
+ *
+ * <p>The tokenizer only reads as much of the source as requested (plus at
+ * most one character to detect the end of a token), i.e. the rest of the
+ * source remains unread when the caller stops early. A {@link Reader} is
+ * read one character at a time, without buffering.</p>
+ *
+ * <p>Invalid JSON text results in an {@link IllegalArgumentException},
+ * I/O errors result in an {@link UncheckedIOException}.</p>
+ */
+@SuppressWarnings("HardCodedStringLiteral")
+abstract class JSONTokenizer {
+    static final int EOF = -1;
+    private static final int NO_CHAR = -2;
+
+    private final StringBuilder textBuffer = new StringBuilder();
+    private int peekedChar = NO_CHAR;
+    private long offset;
+
+    static JSONTokenizer newJSONTokenizer(Reader reader) {
+        return new ReaderTokenizer(reader);
+    }
+
+    /**
+     * Return a JSONTokenizer reading the UTF-8 encoded JSON text in
+     * <code>bytes</code>, from its current position up to its limit.
+     *
+     * <p>Reading does not change the position of <code>bytes</code>.</p>
+     */
+    static JSONTokenizer newJSONTokenizer(ByteBuffer bytes) {
+        return new UTF8Tokenizer(bytes.duplicate());
+    }
+
+    /**
+     * Return the next character of the source, or {@link #EOF} at the end
+     * of the source.
+     */
+    protected abstract int read();
+
+    // --- Queries ---
+
+    /**
+     * Return the first character of the next token, without consuming it,
+     * or {@link #EOF} when there are no more tokens.
+     *
+     * <p>Skips whitespace.</p>
+     */
+    int peekToken() {
+        skipWhitespace();
+        return peek();
+    }
+
+    // --- Containers ---
+
+    /**
+     * Consume the start of an object ('{') or array ('[').
+     */
+    void beginContainer(char open) {
+        skipWhitespace();
+        expect(open);
+    }
+
+    /**
+     * Return <code>true</code> when the current container (object or array)
+     * has another member/item, or consume the end of the container and
+     * return <code>false</code> when it ends.
+     *
+     * @param close        the character ending the container ('}' or ']')
+     * @param isFirstCheck <code>true</code> when this is the first check
+     *                     for the container, i.e. no member/item was read
+     *                     yet.
+     */
+    boolean hasNext(char close, boolean isFirstCheck) {
+        skipWhitespace();
+        int c = peek();
+        if (c == close) {
+            next();
+            return false;
+        }
+        if (!isFirstCheck) {
+            expect(',');
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    /**
+     * Read the key of the next object member into <code>key</code> and
+     * consume the ':' following the key.
+     */
+    void readKey(StringBuilder key) {
+        expect('"');
+        key.setLength(0);
+        readStringContent(key);
+        skipWhitespace();
+        expect(':');
+    }
+
+    /**
+     * Skip the key of the next object member and the ':' following it.
+     */
+    void skipKey() {
+        expect('"');
+        skipStringContent();
+        skipWhitespace();
+        expect(':');
+    }
+
+    // --- Values ---
+
+    /**
+     * Skip the next value, without allocating objects.
+     */
+    void skipValue() {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '"':
+                skipStringContent();
+                return;
+            case '{':
+            case '[':
+                skipContainerContent();
+                return;
+            default:
+                if (!isLiteralChar(c)) {
+                    throw newUnexpectedCharException(c);
+                }
+                while (isLiteralChar(peek())) {
+                    next();
+                }
+        }
+    }
+
+    /**
+     * Read the next value.
+     */
+    @Nullable Object readValue() {
+        int c = peekToken();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                next();
+                textBuffer.setLength(0);
+                readStringContent(textBuffer);
+                return textBuffer.toString();
+            case 't':
+                expectLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectLiteral("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw newUnexpectedCharException(c);
+        }
+    }
+
+    private Map<String, @Nullable Object> readObject() {
+        Map<String, @Nullable Object> result = new LinkedHashMap<>();
+        beginContainer('{');
+        StringBuilder key = new StringBuilder();
+        boolean isFirst = true;
+        while (hasNext('}', isFirst)) {
+            isFirst = false;
+            readKey(key);
+            result.put(key.toString(), readValue());
+        }
+        return result;
+    }
+
+    private List<@Nullable Object> readArray() {
+        List<@Nullable Object> result = new ArrayList<>();
+        beginContainer('[');
+        boolean isFirst = true;
+        while (hasNext(']', isFirst)) {
+            isFirst = false;
+            result.add(readValue());
+        }
+        return result;
+    }
+
+    private Number readNumber() {
+        textBuffer.setLength(0);
+        boolean isIntegral = true;
+        while (isLiteralChar(peek())) {
+            int c = next();
+            if (c == '.' || c == 'e' || c == 'E') {
+                isIntegral = false;
+            }
+            textBuffer.append((char) c);
+        }
+        if (!isValidNumber(textBuffer)) {
+            throw newInvalidJSONException(String.format("invalid number '%s'", textBuffer));
+        }
+        String text = textBuffer.toString();
+        try {
+            if (!isIntegral) {
+                return Double.parseDouble(text);
+            }
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return new BigInteger(text);
+            }
+        } catch (NumberFormatException e) {
+            throw newInvalidJSONException(String.format("invalid number '%s'", text));
+        }
+    }
+
+    /**
+     * Return <code>true</code> when <code>text</code> matches the number
+     * grammar of RFC 8259, i.e.
+     * <code>-?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?</code>.
+     *
+     * <p>(Java's number parsing also accepts e.g. "1.5f", "1d", "+1" or
+     * "01".)</p>
+     */
+    private static boolean isValidNumber(CharSequence text) {
+        int n = text.length();
+        int i = 0;
+        if (i < n && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i < n && text.charAt(i) == '0') {
+            i++;
+        } else {
+            int digitsStart = i;
+            i = skipDigits(text, i);
+            if (i == digitsStart) {
+                return false;
+            }
+        }
+        if (i < n && text.charAt(i) == '.') {
+            int digitsStart = ++i;
+            i = skipDigits(text, i);
+            if (i == digitsStart) {
+                return false;
+            }
+        }
+        if (i < n && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int digitsStart = i;
+            i = skipDigits(text, i);
+            if (i == digitsStart) {
+                return false;
+            }
+        }
+        return i == n;
+    }
+
+    private static int skipDigits(CharSequence text, int start) {
+        int i = start;
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private void expectLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            expect(literal.charAt(i));
+        }
+        if (isLiteralChar(peek())) {
+            throw newUnexpectedCharException(peek());
+        }
+    }
+
+    // --- Strings ---
+
+    /**
+     * Read the content of a string (after the opening '"') and the closing
+     * '"', appending the (unescaped) content to <code>text</code>.
+     */
+    private void readStringContent(StringBuilder text) {
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                text.append(readEscapedChar());
+            } else if (c == EOF) {
+                throw newInvalidJSONException("unterminated string");
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private char readEscapedChar() {
+        int c = next();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw newInvalidJSONException("invalid unicode escape");
+                    }
+                    result = result * 16 + digit;
+                }
+                return (char) result;
+            default:
+                throw newInvalidJSONException("invalid escape sequence");
+        }
+    }
+
+    /**
+     * Skip the content of a string (after the opening '"') and the closing
+     * '"'.
+     */
+    private void skipStringContent() {
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                next();
+            } else if (c == EOF) {
+                throw newInvalidJSONException("unterminated string");
+            }
+        }
+    }
+
+    /**
+     * Skip the content of an object or array (after the opening '{' or '[')
+     * and the closing '}' or ']'.
+     */
+    private void skipContainerContent() {
+        int depth = 1;
+        while (true) {
+            int c = next();
+            switch (c) {
+                case '"':
+                    skipStringContent();
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 0) {
+                        return;
+                    }
+                    break;
+                case EOF:
+                    throw newInvalidJSONException("unexpected end of JSON text");
+                default:
+                    break;
+            }
+        }
+    }
+
+    // --- Characters ---
+
+    private int peek() {
+        if (peekedChar == NO_CHAR) {
+            peekedChar = read();
+        }
+        return peekedChar;
+    }
+
+    private int next() {
+        int c = peek();
+        if (c != EOF) {
+            peekedChar = NO_CHAR;
+            offset++;
+        }
+        return c;
+    }
+
+    private int nextNonWhitespace() {
+        skipWhitespace();
+        return next();
+    }
+
+    private void skipWhitespace() {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            next();
+            c = peek();
+        }
+    }
+
+    private void expect(char expected) {
+        int c = peek();
+        if (c != expected) {
+            throw newInvalidJSONException(String.format(
+                    "expected '%s', got %s", expected, charText(c)));
+        }
+        next();
+    }
+
+    /**
+     * Return <code>true</code> when <code>c</code> may occur in a number or
+     * in the literals <code>true</code>, <code>false</code> and
+     * <code>null</code>.
+     */
+    private static boolean isLiteralChar(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') ||
+                c == '-' || c == '+' || c == '.' || c == 'E';
+    }
+
+    private static String charText(int c) {
+        return c == EOF ? "end of JSON text" : "'" + (char) c + "'";
+    }
+
+    private IllegalArgumentException newUnexpectedCharException(int c) {
+        return newInvalidJSONException(String.format("unexpected %s", charText(c)));
+    }
+
+    private IllegalArgumentException newInvalidJSONException(String message) {
+        return new IllegalArgumentException(String.format(
+                "Invalid JSON at offset %d: %s", offset, message));
+    }
+
+    /**
+     * Reads the characters one by one, so no characters are read ahead
+     * (and lost for the caller).
+     */
+    private static final class ReaderTokenizer extends JSONTokenizer {
+        private final Reader reader;
+
+        private ReaderTokenizer(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        protected int read() {
+            try {
+                int c = reader.read();
+                return c < 0 ? EOF : c;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Decodes UTF-8 bytes "on the fly", as the structural characters of
+     * JSON are all ASCII and most content typically is.
+     */
+    private static final class UTF8Tokenizer extends JSONTokenizer {
+        private static final char REPLACEMENT_CHAR = '\uFFFD';
+        private final ByteBuffer bytes;
+        // the low surrogate still to return after a high surrogate, or NO_CHAR
+        private int pendingLowSurrogate = NO_CHAR;
+
+        private UTF8Tokenizer(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected int read() {
+            if (pendingLowSurrogate != NO_CHAR) {
+                int c = pendingLowSurrogate;
+                pendingLowSurrogate = NO_CHAR;
+                return c;
+            }
+            if (!bytes.hasRemaining()) {
+                return EOF;
+            }
+            int b = bytes.get() & 0xFF;
+            if (b < 0x80) {
+                return b;
+            }
+            int extraByteCount;
+            int codePoint;
+            if (b >= 0xF8) {
+                // no valid lead byte
+                return REPLACEMENT_CHAR;
+            } else if (b >= 0xF0) {
+                extraByteCount = 3;
+                codePoint = b & 0x07;
+            } else if (b >= 0xE0) {
+                extraByteCount = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xC0) {
+                extraByteCount = 1;
+                codePoint = b & 0x1F;
+            } else {
+                return REPLACEMENT_CHAR;
+            }
+            for (int i = 0; i < extraByteCount; i++) {
+                if (!bytes.hasRemaining()) {
+                    return REPLACEMENT_CHAR;
+                }
+                int nextByte = bytes.get(bytes.position()) & 0xFF;
+                if ((nextByte & 0xC0) != 0x80) {
+                    return REPLACEMENT_CHAR;
+                }
+                bytes.get();
+                codePoint = (codePoint << 6) | (nextByte & 0x3F);
+            }
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                return codePoint;
+            }
+            if (codePoint > Character.MAX_CODE_POINT) {
+                return REPLACEMENT_CHAR;
+            }
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+    }
+}
@@ -24,15 +24,43 @@
 
 package org.abego.commons.lang;
 
-import org.abego.commons.io.PrintStreamToBuffer;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
+import org.abego.commons.timeout.TimeoutUncheckedException;
+import org.abego.commons.timeout.Timeoutable;
+import org.eclipse.jdt.annotation.Nullable;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static org.abego.commons.io.BufferedReaderUtil.newBufferedReader;
 import static org.abego.commons.io.FileUtil.runIOCode;
-import static org.abego.commons.io.PrintStreamToBuffer.newPrintStreamToBuffer;
-import static org.abego.commons.io.PrintStreamUtil.appendLines;
+import static org.abego.commons.lang.ProcessResultDefault.newProcessResult;
 
 public final class RuntimeUtil {
 
+    /**
+     * Runs the threads reading the output of the processes.
+     */
+    private static final ExecutorService OUTPUT_READERS =
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "RuntimeUtil-output-reader"); //NON-NLS
+                thread.setDaemon(true);
+                return thread;
+            });
+
     RuntimeUtil() {
         throw new MustNotInstantiateException();
     }
@@ -40,20 +68,150 @@ public final class RuntimeUtil {
     /**
      * Execute to the specified command and arguments in a separate process and
      * return the output (both "normal" and "error" output).
+     *
+     * <p>The "normal" output comes first, followed by the "error" output.
+     * Both are read concurrently, so the process cannot block on a full
+     * output pipe.</p>
      */
     public static String execAndReturnOutAndErr(String... commandAndArguments) {
-        return runIOCode(() -> {
-            Process proc = Runtime.getRuntime().exec(commandAndArguments);
+        StringBuilder output = new StringBuilder();
+        StringBuilder errorOutput = new StringBuilder();
+        exec(Arrays.asList(commandAndArguments),
+                line -> output.append(line).append(System.lineSeparator()),
+                line -> errorOutput.append(line).append(System.lineSeparator()),
+                null);
+        return output.append(errorOutput).toString();
+    }
 
+    /**
+     * Execute to the specified command and arguments in a separate process,
+     * wait until it terminates and return its exit code, "normal" output and
+     * "error" output.
+     *
+     * <p>Throw a {@link TimeoutUncheckedException} (and kill the process)
+     * when the process did not terminate within <code>timeout</code>.</p>
+     */
+    @Timeoutable
+    public static ProcessResult execAndReturnResult(
+            Duration timeout, String... commandAndArguments) {
+        long startTime = System.nanoTime();
+        StringBuilder output = new StringBuilder();
+        StringBuilder errorOutput = new StringBuilder();
+        int exitCode = exec(Arrays.asList(commandAndArguments),
+                line -> output.append(line).append("\n"),
+                line -> errorOutput.append(line).append("\n"),
+                timeout);
+        return newProcessResult(exitCode, output.toString(), errorOutput.toString(),
+                Duration.ofNanos(System.nanoTime() - startTime));
+    }
 
-            PrintStreamToBuffer output = newPrintStreamToBuffer();
-            appendLines(output, proc.getInputStream());
-            appendLines(output, proc.getErrorStream());
+    /**
+     * Execute to the specified command and arguments in a separate process,
+     * pass every line of its "normal" output to <code>outputLineHandler</code>
+     * and every line of its "error" output to <code>errorLineHandler</code>,
+     * wait until the process terminates and return its exit code.
+     *
+     * <p>The outputs are read concurrently, in separate threads, so the
+     * process cannot block on a full output pipe. The line handlers are
+     * called in these threads, i.e. <code>outputLineHandler</code> may run
+     * concurrently to <code>errorLineHandler</code>. All handler calls have
+     * finished when this method returns. The output is expected to be UTF-8
+     * encoded. The process gets no input.</p>
+     *
+     * <p>Throw a {@link TimeoutUncheckedException} (and kill the process)
+     * when the process did not terminate within <code>timeout</code>.
+     * A <code>null</code> timeout waits without limit.</p>
+     *
+     * <p>Many processes can be run in parallel by calling this method from
+     * different threads.</p>
+     */
+    @Timeoutable
+    public static int exec(List<String> commandAndArguments,
+                           Consumer<String> outputLineHandler,
+                           Consumer<String> errorLineHandler,
+                           @Nullable Duration timeout) {
+        Process process = runIOCode(() -> new ProcessBuilder(commandAndArguments).start());
+        try {
+            runIOCode(() -> process.getOutputStream().close());
+            Future<?> outputReader = OUTPUT_READERS.submit(
+                    () -> readLines(process.getInputStream(), outputLineHandler));
+            Future<?> errorReader = OUTPUT_READERS.submit(
+                    () -> readLines(process.getErrorStream(), errorLineHandler));
 
-            return output.text();
+            long deadline = timeout != null
+                    ? System.nanoTime() + timeout.toNanos() : Long.MAX_VALUE;
+            if (!waitFor(process, deadline)) {
+                throw new TimeoutUncheckedException(String.format(
+                        "Process did not terminate within %s: %s", //NON-NLS
+                        timeout, commandAndArguments));
+            }
+            awaitReader(outputReader, deadline, commandAndArguments, timeout);
+            awaitReader(errorReader, deadline, commandAndArguments, timeout);
+            return process.exitValue();
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
 
+    private static void readLines(InputStream inputStream, Consumer<String> lineHandler) {
+        runIOCode(() -> {
+            try (BufferedReader reader = newBufferedReader(inputStream)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineHandler.accept(line);
+                }
+            }
         });
     }
 
+    private static boolean waitFor(Process process, long deadline) {
+        try {
+            if (deadline == Long.MAX_VALUE) {
+                process.waitFor();
+                return true;
+            }
+            return process.waitFor(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException(
+                    "Interrupted while waiting for process")); //NON-NLS
+        }
+    }
 
+    /**
+     * Wait until <code>reader</code> read all output, rethrowing its failure
+     * (if any).
+     *
+     * <p>The output may still be read after the process terminated, e.g.
+     * when a child process of the process keeps the output open.</p>
+     */
+    private static void awaitReader(Future<?> reader,
+                                    long deadline,
+                                    List<String> commandAndArguments,
+                                    @Nullable Duration timeout) {
+        try {
+            if (deadline == Long.MAX_VALUE) {
+                reader.get();
+            } else {
+                reader.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            reader.cancel(true);
+            throw new TimeoutUncheckedException(String.format(
+                    "Process output not completed within %s: %s", //NON-NLS
+                    timeout, commandAndArguments), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException(
+                    "Interrupted while reading process output")); //NON-NLS
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
 }
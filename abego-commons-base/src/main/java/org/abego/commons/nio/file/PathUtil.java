@@ -26,6 +26,7 @@ package org.abego.commons.nio.file;
 
 import org.abego.commons.io.FileUtil;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
+import org.abego.commons.nio.file.internal.PathTreeImpl;
 
 import java.net.URL;
 import java.nio.file.Path;
@@ -33,6 +34,11 @@ import java.nio.file.Path;
 import static org.abego.commons.io.FileUtil.runIOCode;
 
 public final class PathUtil {
+    /**
+     * The default hash algorithm used by {@link #hashOfTree(Path)}.
+     */
+    public static final String DEFAULT_HASH_ALGORITHM = "SHA-256"; //NON-NLS
+
     PathUtil() {
         throw new MustNotInstantiateException();
     }
@@ -44,4 +50,100 @@ public final class PathUtil {
     public static void ensureDirectoryExists(Path directory) {
         FileUtil.ensureDirectoryExists(directory.toFile());
     }
+
+    /**
+     * Copy the file tree <code>source</code> to <code>target</code>.
+     *
+     * <p>Missing directories are created, existing files are replaced.
+     * Files are copied with {@link java.nio.channels.FileChannel#transferTo},
+     * subdirectories are copied in parallel, using up to
+     * <code>parallelism</code> threads. Symbolic links are copied as links.</p>
+     *
+     * <p>Throws an {@link java.io.UncheckedIOException} when an I/O error
+     * occurs. The target tree may then be copied only partially.</p>
+     */
+    public static void copyTree(Path source, Path target, int parallelism) {
+        PathTreeImpl.copyTree(source, target, parallelism);
+    }
+
+    /**
+     * Copy the file tree <code>source</code> to <code>target</code>,
+     * with one thread per available processor.
+     *
+     * <p>See {@link #copyTree(Path, Path, int)}.</p>
+     */
+    public static void copyTree(Path source, Path target) {
+        copyTree(source, target, defaultParallelism());
+    }
+
+    /**
+     * Delete the file tree <code>root</code>, if it exists.
+     *
+     * <p>Subdirectories are deleted in parallel, using up to
+     * <code>parallelism</code> threads. Symbolic links are deleted, not the
+     * files they link to.</p>
+     *
+     * <p>Throws an {@link java.io.UncheckedIOException} when an I/O error
+     * occurs. The tree may then be deleted only partially.</p>
+     */
+    public static void deleteTree(Path root, int parallelism) {
+        PathTreeImpl.deleteTree(root, parallelism);
+    }
+
+    /**
+     * Delete the file tree <code>root</code>, if it exists, with one thread
+     * per available processor.
+     *
+     * <p>See {@link #deleteTree(Path, int)}.</p>
+     */
+    public static void deleteTree(Path root) {
+        deleteTree(root, defaultParallelism());
+    }
+
+    /**
+     * Return the total size (in bytes) of all regular files in the file tree
+     * <code>root</code>, using up to <code>parallelism</code> threads.
+     */
+    public static long sizeOfTree(Path root, int parallelism) {
+        return PathTreeImpl.sizeOfTree(root, parallelism);
+    }
+
+    /**
+     * Return the total size (in bytes) of all regular files in the file tree
+     * <code>root</code>, with one thread per available processor.
+     */
+    public static long sizeOfTree(Path root) {
+        return sizeOfTree(root, defaultParallelism());
+    }
+
+    /**
+     * Return a hash of the file tree <code>root</code>, calculated with the
+     * {@link java.security.MessageDigest} <code>algorithm</code>, using up
+     * to <code>parallelism</code> threads.
+     *
+     * <p>The hash covers the relative paths of all directories and regular
+     * files and the content of the files, but no other attributes (like the
+     * modification time). Two trees with the same hash have (very likely)
+     * the same structure and content.</p>
+     *
+     * <p>For a regular file <code>root</code> this is the hash of the file's
+     * content.</p>
+     */
+    public static byte[] hashOfTree(Path root, String algorithm, int parallelism) {
+        return PathTreeImpl.hashOfTree(root, algorithm, parallelism);
+    }
+
+    /**
+     * Return a {@link #DEFAULT_HASH_ALGORITHM} hash of the file tree
+     * <code>root</code>, with one thread per available processor.
+     *
+     * <p>See {@link #hashOfTree(Path, String, int)}.</p>
+     */
+    public static byte[] hashOfTree(Path root) {
+        return hashOfTree(root, DEFAULT_HASH_ALGORITHM, defaultParallelism());
+    }
+
+    private static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
 }
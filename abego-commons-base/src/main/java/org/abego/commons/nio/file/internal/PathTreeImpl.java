@@ -0,0 +1,361 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.nio.file.internal;
+
+import org.abego.commons.lang.exception.MustNotInstantiateException;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import static org.abego.commons.io.FileUtil.runIOCode;
+
+/**
+ * Operations on file trees, parallelized across subdirectories with a
+ * {@link ForkJoinPool}.
+ *
+ * <p>Symbolic links are not followed.</p>
+ */
+public final class PathTreeImpl {
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    PathTreeImpl() {
+        throw new MustNotInstantiateException();
+    }
+
+    public static void copyTree(Path source, Path target, int parallelism) {
+        BasicFileAttributes attributes = attributes(source);
+        if (!attributes.isDirectory()) {
+            copyEntry(source, target, attributes);
+            return;
+        }
+        invoke(parallelism, new CopyTask(source, target));
+    }
+
+    public static void deleteTree(Path root, int parallelism) {
+        @Nullable BasicFileAttributes attributes = attributesOrNull(root);
+        if (attributes == null) {
+            return;
+        }
+        if (!attributes.isDirectory()) {
+            delete(root);
+            return;
+        }
+        invoke(parallelism, new DeleteTask(root));
+    }
+
+    public static long sizeOfTree(Path root, int parallelism) {
+        BasicFileAttributes attributes = attributes(root);
+        if (!attributes.isDirectory()) {
+            return attributes.isRegularFile() ? attributes.size() : 0;
+        }
+        return invoke(parallelism, new SizeTask(root));
+    }
+
+    public static byte[] hashOfTree(Path root, String algorithm, int parallelism) {
+        // check the algorithm early, before walking the tree
+        MessageDigest digest = newMessageDigest(algorithm);
+        BasicFileAttributes attributes = attributes(root);
+        if (!attributes.isDirectory()) {
+            return hashOfFile(root, digest);
+        }
+
+        List<HashEntry> entries =
+                invoke(parallelism, new HashTask(root, "", algorithm));
+        entries.sort(Comparator.comparing(e -> e.relativePath));
+        digest.reset();
+        for (HashEntry entry : entries) {
+            digest.update(entry.relativePath.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.hash);
+        }
+        return digest.digest();
+    }
+
+    private static <T> T invoke(int parallelism, ForkJoinTask<T> task) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "parallelism must be > 0, got %d", parallelism)); //NON-NLS
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // --- Tasks ---
+
+    private static final class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Path source;
+        private final transient Path target;
+
+        private CopyTask(Path source, Path target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            runIOCode(() -> Files.createDirectories(target));
+            List<CopyTask> subtasks = new ArrayList<>();
+            for (Path child : children(source)) {
+                BasicFileAttributes attributes = attributes(child);
+                Path childTarget = target.resolve(child.getFileName().toString());
+                if (attributes.isDirectory()) {
+                    CopyTask subtask = new CopyTask(child, childTarget);
+                    subtask.fork();
+                    subtasks.add(subtask);
+                } else {
+                    copyEntry(child, childTarget, attributes);
+                }
+            }
+            subtasks.forEach(ForkJoinTask::join);
+        }
+    }
+
+    private static final class DeleteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Path directory;
+
+        private DeleteTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            List<DeleteTask> subtasks = new ArrayList<>();
+            for (Path child : children(directory)) {
+                if (attributes(child).isDirectory()) {
+                    DeleteTask subtask = new DeleteTask(child);
+                    subtask.fork();
+                    subtasks.add(subtask);
+                } else {
+                    delete(child);
+                }
+            }
+            subtasks.forEach(ForkJoinTask::join);
+            delete(directory);
+        }
+    }
+
+    private static final class SizeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final transient Path directory;
+
+        private SizeTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected Long compute() {
+            List<SizeTask> subtasks = new ArrayList<>();
+            long size = 0;
+            for (Path child : children(directory)) {
+                BasicFileAttributes attributes = attributes(child);
+                if (attributes.isDirectory()) {
+                    SizeTask subtask = new SizeTask(child);
+                    subtask.fork();
+                    subtasks.add(subtask);
+                } else if (attributes.isRegularFile()) {
+                    size += attributes.size();
+                }
+            }
+            for (SizeTask subtask : subtasks) {
+                size += subtask.join();
+            }
+            return size;
+        }
+    }
+
+    private static final class HashEntry {
+        private final String relativePath;
+        private final byte[] hash;
+
+        private HashEntry(String relativePath, byte[] hash) {
+            this.relativePath = relativePath;
+            this.hash = hash;
+        }
+    }
+
+    private static final class HashTask extends RecursiveTask<List<HashEntry>> {
+        private static final long serialVersionUID = 1L;
+        private static final byte[] DIRECTORY_HASH = new byte[0];
+        private final transient Path directory;
+        private final String relativePath;
+        private final String algorithm;
+
+        private HashTask(Path directory, String relativePath, String algorithm) {
+            this.directory = directory;
+            this.relativePath = relativePath;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected List<HashEntry> compute() {
+            List<HashEntry> entries = new ArrayList<>();
+            List<HashTask> subtasks = new ArrayList<>();
+            @Nullable MessageDigest digest = null;
+            for (Path child : children(directory)) {
+                BasicFileAttributes attributes = attributes(child);
+                // use "/" as separator, to get the same hash on all platforms
+                String childPath = relativePath + child.getFileName().toString();
+                if (attributes.isDirectory()) {
+                    // also include directories, so empty directories count
+                    entries.add(new HashEntry(childPath + "/", DIRECTORY_HASH));
+                    HashTask subtask = new HashTask(child, childPath + "/", algorithm);
+                    subtask.fork();
+                    subtasks.add(subtask);
+                } else if (attributes.isRegularFile()) {
+                    if (digest == null) {
+                        digest = newMessageDigest(algorithm);
+                    }
+                    entries.add(new HashEntry(childPath, hashOfFile(child, digest)));
+                }
+            }
+            for (HashTask subtask : subtasks) {
+                entries.addAll(subtask.join());
+            }
+            return entries;
+        }
+    }
+
+    // --- Helpers ---
+
+    private static void copyEntry(Path source, Path target, BasicFileAttributes attributes) {
+        if (attributes.isRegularFile()) {
+            copyFile(source, target);
+        } else {
+            // e.g. a symbolic link: copy the link, not the file it links to
+            runIOCode(() -> Files.copy(source, target,
+                    LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING));
+        }
+    }
+
+    private static void copyFile(Path source, Path target) {
+        runIOCode(() -> {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target,
+                         StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                transferBytes(in, in.size(), out);
+            }
+            Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+        });
+    }
+
+    /**
+     * Transfer the first <code>size</code> bytes of <code>in</code> to
+     * <code>out</code>.
+     *
+     * <p>Throws an {@link IOException} when <code>in</code> has less than
+     * <code>size</code> bytes (e.g. because the file shrank while
+     * copying).</p>
+     */
+    static void transferBytes(FileChannel in, long size, FileChannel out)
+            throws IOException {
+        long position = 0;
+        // transferTo may transfer less than requested, so loop
+        while (position < size) {
+            long count = in.transferTo(position, size - position, out);
+            if (count == 0) {
+                // transferTo returns 0 when the end of the file is reached
+                throw new IOException(String.format(
+                        "File shrank while copying: %d of %d bytes copied, current size: %d", //NON-NLS
+                        position, size, in.size()));
+            }
+            position += count;
+        }
+    }
+
+    private static byte[] hashOfFile(Path file, MessageDigest digest) {
+        return runIOCode(() -> {
+            digest.reset();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return digest.digest();
+        });
+    }
+
+    private static List<Path> children(Path directory) {
+        return runIOCode(() -> {
+            List<Path> result = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                stream.forEach(result::add);
+            }
+            return result;
+        });
+    }
+
+    private static void delete(Path path) {
+        runIOCode(() -> Files.delete(path));
+    }
+
+    private static BasicFileAttributes attributes(Path path) {
+        return runIOCode(() -> Files.readAttributes(
+                path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+    }
+
+    @Nullable
+    private static BasicFileAttributes attributesOrNull(Path path) {
+        return Files.exists(path, LinkOption.NOFOLLOW_LINKS) ? attributes(path) : null;
+    }
+
+    private static MessageDigest newMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -25,9 +25,25 @@
 package org.abego.commons.blackboard;
 
 import org.abego.commons.seq.Seq;
+import org.abego.commons.timeout.TimeoutUncheckedException;
+import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.abego.commons.seq.SeqUtil.newSeq;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,6 +56,146 @@ abstract class AbstractBlackboardTest {
 
     abstract <T> Blackboard<T> newBlackboard();
 
+    @Test
+    void awaitItemWith_existingItem() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a1");
+        bb.add("a2");
+        bb.add("b");
+
+        assertEquals("a2", bb.awaitItemWith(s -> s.startsWith("a"), Duration.ZERO));
+    }
+
+    @Test
+    void awaitItemWith_itemAddedLater() throws Exception {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> result = executor.submit(
+                    () -> bb.awaitItemWith(s -> s.startsWith("b"), Duration.ofSeconds(10)));
+            bb.add("c");
+            bb.add("b1");
+            bb.add("b2");
+
+            String item = result.get(10, TimeUnit.SECONDS);
+            assertTrue(item.equals("b1") || item.equals("b2"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void awaitItemWith_timeout() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+
+        assertThrows(TimeoutUncheckedException.class,
+                () -> bb.awaitItemWith(s -> s.startsWith("b"), Duration.ofMillis(10)));
+    }
+
+    @Test
+    void awaitItemWithAsyncOk() throws Exception {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+
+        CompletableFuture<String> future = bb.awaitItemWithAsync(s -> s.startsWith("b"));
+        assertFalse(future.isDone());
+
+        bb.add("c");
+        assertFalse(future.isDone());
+
+        // the future is completed by "add", no polling involved
+        bb.add("b1");
+        assertTrue(future.isDone());
+        assertEquals("b1", future.get());
+
+        bb.add("b2");
+        assertEquals("b1", future.get());
+    }
+
+    @Test
+    void awaitItemWithAsync_conditionThrows() {
+        Blackboard<String> bb = newBlackboard();
+
+        CompletableFuture<String> future = bb.awaitItemWithAsync(s -> {
+            if (s.equals("x")) {
+                throw new IllegalStateException("bad item");
+            }
+            return false;
+        });
+        bb.add("a");
+        assertFalse(future.isDone());
+
+        bb.add("x");
+        assertTrue(future.isCompletedExceptionally());
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertEquals("bad item", e.getCause().getMessage());
+    }
+
+    @Test
+    void awaitItemWithAsync_cancel() {
+        Blackboard<String> bb = newBlackboard();
+        AtomicInteger testCount = new AtomicInteger();
+
+        CompletableFuture<String> future = bb.awaitItemWithAsync(s -> {
+            testCount.incrementAndGet();
+            return false;
+        });
+        bb.add("a");
+        assertEquals(1, testCount.get());
+
+        future.cancel(false);
+        bb.add("b");
+
+        assertEquals(1, testCount.get());
+    }
+
+    @Test
+    void subscribeOk() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+        List<String> received = new ArrayList<>();
+
+        BlackboardSubscription subscription = bb.subscribe(received::add);
+        bb.add("b");
+        bb.add("c");
+
+        assertEquals(Arrays.asList("b", "c"), received);
+        assertFalse(subscription.isCancelled());
+
+        subscription.cancel();
+        bb.add("d");
+
+        assertEquals(Arrays.asList("b", "c"), received);
+        assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    void subscribe_subscriberThrows() {
+        Blackboard<String> bb = newBlackboard();
+        List<String> received = new ArrayList<>();
+        BlackboardSubscription failing = bb.subscribe(s -> {
+            throw new IllegalStateException("bad subscriber");
+        });
+        BlackboardSubscription other = bb.subscribe(received::add);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> bb.add("a"));
+
+        assertEquals("bad subscriber", e.getMessage());
+        // the item is added and passed to the other subscribers
+        assertTrue(bb.contains("a"));
+        assertEquals(Collections.singletonList("a"), received);
+        assertTrue(failing.isCancelled());
+        assertFalse(other.isCancelled());
+
+        bb.add("b");
+
+        assertEquals(Arrays.asList("a", "b"), received);
+    }
+
     @Test
     void isEmptyOk() {
         Blackboard<String> bb = newBlackboard();
@@ -121,6 +277,101 @@ abstract class AbstractBlackboardTest {
     }
 
 
+    @Test
+    void writeTextToOk() {
+        Blackboard<@Nullable String> bb = newBlackboard();
+        StringBuilder sb = new StringBuilder();
+
+        bb.writeTextTo(sb);
+
+        assertEquals("", sb.toString());
+
+        bb.add("a");
+        bb.add(null);
+        bb.add("c");
+        bb.writeTextTo(sb);
+
+        assertEquals("a\nnull\nc", sb.toString());
+        assertEquals(bb.text(), sb.toString());
+    }
+
+    @Test
+    void writeTextTo_appendableFails() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+        Appendable failingAppendable = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                throw new IOException("write failed");
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                throw new IOException("write failed");
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                throw new IOException("write failed");
+            }
+        };
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> bb.writeTextTo(failingAppendable));
+        assertEquals("write failed", e.getCause().getMessage());
+        assertThrows(UncheckedIOException.class,
+                () -> bb.writeTextSince(0, failingAppendable));
+    }
+
+    @Test
+    void writeTextSinceOk() {
+        Blackboard<String> bb = newBlackboard();
+        StringBuilder sb = new StringBuilder();
+
+        assertEquals(0, bb.currentPosition());
+        assertEquals(0, bb.writeTextSince(0, sb));
+        assertEquals("", sb.toString());
+
+        bb.add("a");
+        bb.add("b");
+        long position = bb.writeTextSince(0, sb);
+
+        assertEquals(2, position);
+        assertEquals(2, bb.currentPosition());
+        assertEquals("a\nb\n", sb.toString());
+
+        // nothing new
+        assertEquals(2, bb.writeTextSince(position, sb));
+        assertEquals("a\nb\n", sb.toString());
+
+        bb.add("c");
+        position = bb.writeTextSince(position, sb);
+
+        assertEquals(3, position);
+        assertEquals("a\nb\nc\n", sb.toString());
+    }
+
+    @Test
+    void writeTextSince_clear() {
+        Blackboard<String> bb = newBlackboard();
+        StringBuilder sb = new StringBuilder();
+        bb.add("a");
+        bb.add("b");
+        long position = bb.writeTextSince(0, sb);
+
+        bb.add("c");
+        bb.clear();
+        bb.add("d");
+
+        // positions are not reset by clear
+        assertTrue(bb.currentPosition() > position);
+
+        position = bb.writeTextSince(position, sb);
+
+        assertEquals("a\nb\nd\n", sb.toString());
+        assertEquals(bb.currentPosition(), position);
+    }
+
     @Test
     void clearOk() {
         Blackboard<String> bb = newBlackboard();
@@ -137,6 +388,80 @@ abstract class AbstractBlackboardTest {
         assertTrue(bb.isEmpty());
     }
 
+    @Test
+    void contains_withNullItem() {
+        Blackboard<@Nullable String> bb = newBlackboard();
+        bb.add(null);
+        bb.add("a");
+
+        assertTrue(bb.contains("a"));
+        assertFalse(bb.contains("b"));
+        assertEquals(newSeq(null, "a"), bb.items());
+    }
+
+    @Test
+    void addIndexOk() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a1");
+        bb.add("b1");
+        BlackboardIndex<String, Character> index = bb.addIndex(s -> s.charAt(0));
+        bb.add("a2");
+        bb.add("c1");
+
+        assertEquals("a2", index.itemWith('a'));
+        assertEquals("b1", index.itemWith('b'));
+        assertEquals("c1", index.itemWithOrNull('c'));
+        assertTrue(index.containsItemWith('c'));
+
+        assertNull(index.itemWithOrNull('d'));
+        assertFalse(index.containsItemWith('d'));
+        assertThrows(NoSuchElementException.class, () -> index.itemWith('d'));
+    }
+
+    @Test
+    void addIndex_lastAddedItemWins() {
+        Blackboard<String> bb = newBlackboard();
+        BlackboardIndex<String, Integer> index = bb.addIndex(String::length);
+        bb.add("a");
+        bb.add("bb");
+        bb.add("c");
+
+        assertEquals("c", index.itemWith(1));
+        assertEquals(bb.itemWith(s -> s.length() == 1), index.itemWith(1));
+        assertEquals("bb", index.itemWith(2));
+    }
+
+    @Test
+    void addIndex_nullKeyNotIndexed() {
+        Blackboard<String> bb = newBlackboard();
+        BlackboardIndex<String, String> index =
+                bb.addIndex(s -> s.startsWith("x") ? null : s);
+        bb.add("a");
+        bb.add("xb");
+
+        assertEquals("a", index.itemWith("a"));
+        assertFalse(index.containsItemWith("xb"));
+    }
+
+    @Test
+    void addIndex_clear() {
+        Blackboard<String> bb = newBlackboard();
+        BlackboardIndex<String, String> index = bb.addIndex(s -> s);
+        bb.add("a");
+        bb.add("b");
+
+        bb.clear();
+
+        assertFalse(index.containsItemWith("a"));
+        assertFalse(bb.contains("a"));
+
+        bb.add("a");
+
+        assertEquals("a", index.itemWith("a"));
+        assertFalse(index.containsItemWith("b"));
+        assertTrue(bb.contains("a"));
+    }
+
     @Test
     void toStringOk() {
         Blackboard<String> bb = newBlackboard();
@@ -145,7 +470,7 @@ abstract class AbstractBlackboardTest {
         bb.add("c");
 
         String s = bb.toString();
-        assertTrue(s.startsWith("org.abego.commons.blackboard.BlackboardDefault@"));
+        assertTrue(s.startsWith(bb.getClass().getName() + "@"));
         assertTrue(s.endsWith("Text:\na\nab\nc"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.abego.commons.blackboard.BlackboardBounded.newBlackboardBounded;
+import static org.abego.commons.seq.SeqUtil.emptySeq;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlackboardBoundedTest extends AbstractBlackboardTest {
+
+    @Override
+    <T> Blackboard<T> newBlackboard() {
+        return newBlackboardBounded(100);
+    }
+
+    @Test
+    void newBlackboardBounded_illegalCapacity() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> newBlackboardBounded(0));
+
+        assertEquals("capacity must be > 0, got 0", e.getMessage());
+    }
+
+    @Test
+    void add_evictsOldestItems() {
+        BlackboardBounded<String> bb = newBlackboardBounded(3);
+        bb.add("a");
+        bb.add("b");
+        bb.add("c");
+
+        assertEquals(3, bb.capacity());
+        assertEquals(0, bb.evictedCount());
+        assertEquals(newSeq("a", "b", "c"), bb.items());
+
+        bb.add("d");
+        bb.add("e");
+
+        assertEquals(2, bb.evictedCount());
+        assertEquals(newSeq("c", "d", "e"), bb.items());
+        assertEquals("c\nd\ne", bb.text());
+        assertFalse(bb.contains("a"));
+        assertTrue(bb.contains("c"));
+        assertNull(bb.itemWithOrNull(s -> s.equals("b")));
+        assertEquals("c", bb.itemWith(s -> s.compareTo("d") < 0));
+    }
+
+    @Test
+    void add_evictsOneOfEqualItems() {
+        BlackboardBounded<String> bb = newBlackboardBounded(2);
+        bb.add("a");
+        bb.add("a");
+
+        bb.add("b");
+
+        assertTrue(bb.contains("a"));
+
+        bb.add("b");
+
+        assertFalse(bb.contains("a"));
+    }
+
+    @Test
+    void addIndex_evictedItems() {
+        BlackboardBounded<String> bb = newBlackboardBounded(3);
+        BlackboardIndex<String, Character> index = bb.addIndex(s -> s.charAt(0));
+        bb.add("a1");
+        bb.add("b1");
+        bb.add("a2");
+        bb.add("c1");
+
+        // "a1" was evicted, but "a2" is still in the Blackboard
+        assertEquals("a2", index.itemWith('a'));
+
+        bb.add("c2");
+
+        assertFalse(index.containsItemWith('b'));
+
+        bb.add("c3");
+
+        assertFalse(index.containsItemWith('a'));
+        assertEquals("c3", index.itemWith('c'));
+    }
+
+    @Test
+    void subscribe_receivesEvictedItems() {
+        BlackboardBounded<Integer> bb = newBlackboardBounded(10);
+        List<Integer> received = new ArrayList<>();
+        bb.subscribe(received::add);
+
+        for (int i = 0; i < 1000; i++) {
+            bb.add(i);
+        }
+
+        assertEquals(1000, received.size());
+        assertEquals(10, bb.items().size());
+        assertEquals(990, bb.evictedCount());
+    }
+
+    @Test
+    void clear_resetsRing() {
+        BlackboardBounded<String> bb = newBlackboardBounded(2);
+        bb.add("a");
+        bb.add("b");
+        bb.add("c");
+
+        bb.clear();
+
+        assertEquals(emptySeq(), bb.items());
+        assertEquals(1, bb.evictedCount());
+
+        bb.add("d");
+        bb.add("e");
+        bb.add("f");
+
+        assertEquals(newSeq("e", "f"), bb.items());
+    }
+}
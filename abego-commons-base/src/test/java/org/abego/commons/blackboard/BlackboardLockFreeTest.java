@@ -0,0 +1,391 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.seq.Seq;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.abego.commons.seq.SeqUtil.newSeq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlackboardLockFreeTest extends AbstractBlackboardTest {
+
+    @Override
+    <T> Blackboard<T> newBlackboard() {
+        return BlackboardLockFree.newBlackboardLockFree();
+    }
+
+    @Test
+    void items_manyItems() {
+        Blackboard<Integer> bb = newBlackboard();
+        int n = 10_000; // spans many chunks
+        for (int i = 0; i < n; i++) {
+            bb.add(i);
+        }
+
+        Seq<Integer> items = bb.items();
+        assertEquals(n, items.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, items.item(i));
+        }
+        int i = 0;
+        for (Integer item : items) {
+            assertEquals(i++, item);
+        }
+        assertEquals(n, i);
+        assertEquals(n - 1, bb.itemWith(x -> true));
+    }
+
+    @Test
+    void items_isSnapshot() {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+        bb.add("b");
+
+        Seq<String> items = bb.items();
+        bb.add("c");
+        bb.clear();
+        bb.add("d");
+
+        assertEquals(newSeq("a", "b"), items);
+        assertEquals(newSeq("d"), bb.items());
+    }
+
+    @Test
+    void add_concurrently() throws Exception {
+        Blackboard<Integer> bb = newBlackboard();
+        int threadCount = 8;
+        int itemsPerThread = 10_000;
+
+        runConcurrently(threadCount, t -> {
+            for (int i = 0; i < itemsPerThread; i++) {
+                bb.add(t * itemsPerThread + i);
+            }
+        });
+
+        Seq<Integer> items = bb.items();
+        assertEquals(threadCount * itemsPerThread, items.size());
+        boolean[] seen = new boolean[items.size()];
+        for (Integer item : items) {
+            seen[item] = true;
+        }
+        for (boolean b : seen) {
+            assertTrue(b);
+        }
+    }
+
+    @Test
+    void addIndex_concurrently() throws Exception {
+        Blackboard<Integer> bb = newBlackboard();
+        bb.add(-1);
+        BlackboardIndex<Integer, Integer> index = bb.addIndex(i -> i % 100);
+        int threadCount = 8;
+        int itemsPerThread = 10_000;
+
+        runConcurrently(threadCount, t -> {
+            for (int i = 0; i < itemsPerThread; i++) {
+                bb.add(t * itemsPerThread + i);
+            }
+        });
+
+        // the index returns the same item as a (linear) search
+        for (int key = -1; key < 100; key++) {
+            int k = key;
+            assertEquals(bb.itemWith(i -> i % 100 == k), index.itemWith(key));
+        }
+        assertTrue(bb.contains(threadCount * itemsPerThread - 1));
+    }
+
+    @Test
+    void add_notBlockedBySlowReader() throws Exception {
+        Blackboard<String> bb = newBlackboard();
+        bb.add("a");
+        CountDownLatch readerStarted = new CountDownLatch(1);
+        CountDownLatch releaseReader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> reader = executor.submit(() -> bb.containsItemWith(s -> {
+                readerStarted.countDown();
+                try {
+                    return releaseReader.await(10, TimeUnit.SECONDS) && s.equals("x");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            readerStarted.await();
+
+            // the reader is still scanning, but adding items is possible
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 1000; i++) {
+                    bb.add("b" + i);
+                }
+            });
+            assertEquals(1001, bb.items().size());
+
+            releaseReader.countDown();
+            // the reader only sees the items published when it started
+            assertEquals(false, reader.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writer A reserved its slot but is not done when writer B adds its
+     * item. B's add must not return before B's item is visible, i.e. B
+     * waits for A. A future for B's item created while B is waiting must
+     * complete.
+     */
+    @Test
+    void add_waitsForEarlierUnpublishedItem() throws Exception {
+        Blackboard<String> bb = newBlackboard();
+        CountDownLatch writerAStarted = new CountDownLatch(1);
+        CountDownLatch releaseWriterA = new CountDownLatch(1);
+        bb.addIndex(s -> {
+            if (s.equals("A")) {
+                writerAStarted.countDown();
+                try {
+                    releaseWriterA.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return s;
+        });
+        List<String> subscribed = new ArrayList<>();
+        AtomicReference<String> visibleWhenSubscribed = new AtomicReference<>("");
+        bb.subscribe(s -> {
+            synchronized (subscribed) {
+                subscribed.add(s);
+            }
+            if (s.equals("B")) {
+                visibleWhenSubscribed.set(bb.text());
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writerA = executor.submit(() -> bb.add("A"));
+            writerAStarted.await();
+
+            Future<Boolean> writerB = executor.submit(() -> {
+                bb.add("B");
+                // the writer sees its own item when add returned
+                return bb.containsItemWith(s -> s.equals("B"))
+                        && bb.itemWith(s -> s.equals("B")).equals("B");
+            });
+            CompletableFuture<String> futureB = bb.awaitItemWithAsync(s -> s.equals("B"));
+
+            // "B" waits for "A" to be published
+            assertThrows(TimeoutException.class,
+                    () -> writerB.get(100, TimeUnit.MILLISECONDS));
+            assertFalse(futureB.isDone());
+            assertFalse(bb.containsItemWith(s -> s.equals("B")));
+            releaseWriterA.countDown();
+            writerA.get(10, TimeUnit.SECONDS);
+
+            assertTrue(writerB.get(10, TimeUnit.SECONDS));
+            assertEquals("B", futureB.get(10, TimeUnit.SECONDS));
+            assertEquals("A\nB", bb.text());
+            synchronized (subscribed) {
+                assertEquals(2, subscribed.size());
+            }
+            // the subscriber only got "B" when it was visible
+            assertTrue(visibleWhenSubscribed.get().contains("B"));
+        } finally {
+            releaseWriterA.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Many writers add items concurrently. Every writer must see its own
+     * item when its add returned.
+     */
+    @Test
+    void add_itemVisibleWhenAddReturns() throws Exception {
+        Blackboard<Integer> bb = newBlackboard();
+        int writerCount = 4;
+        int itemsPerWriter = 5_000;
+        AtomicInteger invisibleCount = new AtomicInteger();
+
+        runConcurrently(writerCount, t -> {
+            for (int i = 0; i < itemsPerWriter; i++) {
+                int item = t * itemsPerWriter + i;
+                bb.add(item);
+                if (!bb.containsItemWith(x -> x == item)) {
+                    invisibleCount.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, invisibleCount.get());
+    }
+
+    /**
+     * While items are added concurrently futures for the items are
+     * created. Every future must complete.
+     */
+    @Test
+    void awaitItemWithAsync_concurrently() throws Exception {
+        Blackboard<Integer> bb = newBlackboard();
+        int writerCount = 4;
+        int itemsPerWriter = 5_000;
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        runConcurrently(writerCount + 1, t -> {
+            if (t < writerCount) {
+                for (int i = 0; i < itemsPerWriter; i++) {
+                    bb.add(t * itemsPerWriter + i);
+                }
+            } else {
+                for (int i = 0; i < writerCount * itemsPerWriter; i++) {
+                    int item = i;
+                    futures.add(bb.awaitItemWithAsync(x -> x == item));
+                }
+            }
+        });
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * A micro benchmark comparing {@link BlackboardLockFree} with
+     * {@link BlackboardDefault}, reporting the measured times (via the
+     * {@link TestReporter}).
+     *
+     * <p>Some threads add items while other threads concurrently call
+     * {@link Blackboard#items()} and {@link Blackboard#containsItemWith(java.util.function.Predicate)}.
+     * Measures the time until all writers are done.</p>
+     *
+     * <p>Only runs when the system property "benchmark" is "true", e.g. via
+     * the Maven profile "benchmark". The numbers
+     * are only a rough indication (e.g. no forked JVMs, few iterations),
+     * the benchmark is no replacement for a JMH benchmark.</p>
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true") //NON-NLS
+    void benchmark_comparedToBlackboardDefault(TestReporter testReporter)
+            throws Exception {
+        // warm up
+        runBenchmark(BlackboardDefault::newBlackboardDefault);
+        runBenchmark(BlackboardLockFree::newBlackboardLockFree);
+
+        long defaultNanos = runBenchmark(BlackboardDefault::newBlackboardDefault);
+        long lockFreeNanos = runBenchmark(BlackboardLockFree::newBlackboardLockFree);
+
+        Map<String, String> times = new LinkedHashMap<>();
+        times.put("BlackboardDefault [ms]", String.valueOf(defaultNanos / 1_000_000)); //NON-NLS
+        times.put("BlackboardLockFree [ms]", String.valueOf(lockFreeNanos / 1_000_000)); //NON-NLS
+        testReporter.publishEntry(times);
+    }
+
+    private static long runBenchmark(Supplier<Blackboard<Integer>> blackboardFactory)
+            throws Exception {
+        int writerCount = 4;
+        int readerCount = 4;
+        int itemsPerWriter = 20_000;
+        int readsPerReader = 200;
+        Blackboard<Integer> bb = blackboardFactory.get();
+        AtomicLong checksum = new AtomicLong();
+        AtomicLong writersEnd = new AtomicLong();
+
+        long start = System.nanoTime();
+        runConcurrently(writerCount + readerCount, t -> {
+            if (t < writerCount) {
+                for (int i = 0; i < itemsPerWriter; i++) {
+                    bb.add(i);
+                }
+                writersEnd.accumulateAndGet(System.nanoTime(), Math::max);
+            } else {
+                for (int i = 0; i < readsPerReader; i++) {
+                    checksum.addAndGet(bb.items().size());
+                    if (bb.containsItemWith(x -> x < 0)) {
+                        checksum.incrementAndGet();
+                    }
+                }
+            }
+        });
+        long nanos = writersEnd.get() - start;
+
+        assertEquals(writerCount * itemsPerWriter, bb.items().size());
+        assertTrue(checksum.get() >= 0);
+        return nanos;
+    }
+
+    private interface ThreadCode {
+        void run(int threadIndex);
+    }
+
+    private static void runConcurrently(int threadCount, ThreadCode code)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                int threadIndex = t;
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    code.run(threadIndex);
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.blackboard;
+
+import org.abego.commons.seq.Seq;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the default methods of {@link Blackboard}, as used by custom
+ * Blackboard implementations.
+ */
+class BlackboardTest {
+
+    /**
+     * A Blackboard only implementing the abstract methods.
+     */
+    private static final class CustomBlackboard<T> implements Blackboard<T> {
+        private final Blackboard<T> items = BlackboardDefault.newBlackboardDefault();
+
+        @Override
+        public Seq<T> items() {
+            return items.items();
+        }
+
+        @Override
+        public T itemWith(Predicate<T> condition) {
+            return items.itemWith(condition);
+        }
+
+        @Override
+        @Nullable
+        public T itemWithOrNull(Predicate<T> condition) {
+            return items.itemWithOrNull(condition);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+
+        @Override
+        public boolean containsItemWith(Predicate<T> condition) {
+            return items.containsItemWith(condition);
+        }
+
+        @Override
+        public boolean contains(T item) {
+            return items.contains(item);
+        }
+
+        @Override
+        public String text() {
+            return items.text();
+        }
+
+        @Override
+        public void add(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void clear() {
+            items.clear();
+        }
+    }
+
+    @Test
+    void addIndex_default() {
+        Blackboard<String> bb = new CustomBlackboard<>();
+        bb.add("a1");
+        BlackboardIndex<String, Character> index = bb.addIndex(s -> s.charAt(0));
+        bb.add("b1");
+        bb.add("a2");
+
+        assertEquals("a2", index.itemWith('a'));
+        assertEquals("b1", index.itemWithOrNull('b'));
+        assertNull(index.itemWithOrNull('c'));
+        assertFalse(index.containsItemWith(null));
+    }
+
+    @Test
+    void unsupportedDefaults() {
+        Blackboard<String> bb = new CustomBlackboard<>();
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> bb.awaitItemWithAsync(s -> true));
+        assertThrows(UnsupportedOperationException.class,
+                () -> bb.subscribe(s -> {
+                }));
+        assertThrows(UnsupportedOperationException.class, bb::currentPosition);
+        assertThrows(UnsupportedOperationException.class,
+                () -> bb.writeTextSince(0, new StringBuilder()));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.io.FileUtil;
+import org.abego.commons.seq.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.abego.commons.diff.BatchFileDiff.newFilePair;
+import static org.abego.commons.io.WriterUtil.write;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.abego.commons.seq.SeqUtil.newSeq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchFileDiffTest {
+
+    @Test
+    void compareLineWise() {
+        File root = FileUtil.tempDirectoryForRun();
+        List<FilePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            File expected = new File(root, "expected" + i);
+            File actual = new File(root, "actual" + i);
+            write(expected, "a\nb\nc\n");
+            write(actual, i % 2 == 0 ? "a\nb\nc\n" : "a\nx\nc\n");
+            pairs.add(newFilePair(expected, actual));
+        }
+
+        BatchFileDiffResult result = BatchFileDiff.compareLineWise(newSeq(pairs), 4);
+
+        assertEquals(20, result.getFilePairDifferences().size());
+        assertEquals(10, result.getFilePairsWithDifferences().size());
+        assertEquals(20 * 2 * 6, result.getByteCount());
+        for (int i = 0; i < 20; i++) {
+            FilePairDifferences d = result.getFilePairDifferences().item(i);
+            assertSame(pairs.get(i).getExpectedFile(), d.getExpectedFile());
+            assertSame(pairs.get(i).getActualFile(), d.getActualFile());
+            if (i % 2 == 0) {
+                assertFalse(d.hasDifferences());
+            } else {
+                assertEquals(1, d.getDifferences().size());
+                assertEquals(newIntRange(1, 2), d.getDifferences().item(0).getRangeInA());
+                assertEquals(newIntRange(1, 2), d.getDifferences().item(0).getRangeInB());
+            }
+        }
+        assertTrue(result.getTotalDuration().compareTo(result.getMaxDuration()) >= 0);
+    }
+
+    /**
+     * Large files with differences spread over the whole file must not need
+     * memory quadratic in the number of lines.
+     */
+    @Test
+    void compareLineWise_largeFiles() {
+        File root = FileUtil.tempDirectoryForRun();
+        StringBuilder expectedText = new StringBuilder();
+        StringBuilder actualText = new StringBuilder();
+        int lineCount = 50_000;
+        for (int i = 0; i < lineCount; i++) {
+            expectedText.append("line ").append(i).append('\n'); //NON-NLS
+            actualText.append(i % 500 == 0 ? "changed " : "line ").append(i).append('\n'); //NON-NLS
+        }
+        File expected = new File(root, "expectedLarge");
+        File actual = new File(root, "actualLarge");
+        write(expected, expectedText.toString());
+        write(actual, actualText.toString());
+
+        BatchFileDiffResult result = BatchFileDiff.compareLineWise(
+                newSeq(newFilePair(expected, actual)), 1);
+
+        Seq<Difference> differences =
+                result.getFilePairDifferences().item(0).getDifferences();
+        assertEquals(lineCount / 500, differences.size());
+        assertEquals(newIntRange(500, 501), differences.item(1).getRangeInA());
+        assertEquals(newIntRange(500, 501), differences.item(1).getRangeInB());
+    }
+
+    @Test
+    void compareLineWise_invalidParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchFileDiff.compareLineWise(newSeq(), 0));
+    }
+
+    @Test
+    void compareDirectoriesLineWise() {
+        File root = FileUtil.tempDirectoryForRun();
+        File a = new File(root, "a");
+        File b = new File(root, "b");
+        write(new File(a, "same"), "foo\n");
+        write(new File(b, "same"), "foo\n");
+        write(new File(a, "sub/changed"), "foo\n");
+        write(new File(b, "sub/changed"), "bar\n");
+        write(new File(a, "onlyInA"), "foo\n");
+        write(new File(b, "onlyInB"), "foo\n");
+
+        Seq<FilePair> pairs = BatchFileDiff.filePairsInDirectories(a, b);
+        BatchFileDiffResult result = BatchFileDiff.compareDirectoriesLineWise(a, b);
+
+        assertEquals(2, pairs.size());
+        assertEquals(new File(a, "same").getAbsoluteFile(), pairs.item(0).getExpectedFile());
+        assertEquals(new File(b, "sub/changed").getAbsoluteFile(), pairs.item(1).getActualFile());
+        assertEquals(2, result.getFilePairDifferences().size());
+        assertEquals(1, result.getFilePairsWithDifferences().size());
+        assertEquals(new File(a, "sub/changed").getAbsoluteFile(),
+                result.getFilePairsWithDifferences().item(0).getExpectedFile());
+    }
+}
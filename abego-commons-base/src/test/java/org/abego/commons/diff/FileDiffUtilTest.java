@@ -26,16 +26,20 @@ package org.abego.commons.diff;
 
 import org.abego.commons.io.FileUtil;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
+import org.abego.commons.seq.Seq;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.text.MessageFormat;
 
 import static org.abego.commons.diff.FileDiffUtil.DirectoryDifferencesOptions.IGNORE_DOT_DS_STORE_FILES;
+import static org.abego.commons.diff.FileDiffUtil.DirectoryDifferencesOptions.TRUST_SIZE_AND_LAST_MODIFIED;
+import static org.abego.commons.diff.FileDiffUtil.compareDirectories;
 import static org.abego.commons.diff.FileDiffUtil.directoryDifferences;
 import static org.abego.commons.io.WriterUtil.write;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FileDiffUtilTest {
 
@@ -85,4 +89,72 @@ class FileDiffUtilTest {
                         "> bar\n", root.getAbsolutePath()),
                 directoryDifferences(a, b, IGNORE_DOT_DS_STORE_FILES));
     }
-}
\ No newline at end of file
+
+    @Test
+    void compareDirectoriesOK() {
+        File root = FileUtil.tempDirectoryForRun();
+        File a = new File(root, "a");
+        File b = new File(root, "b");
+        write(new File(a, "sub/same.txt"), "same\n");
+        write(new File(b, "sub/same.txt"), "same\n");
+        write(new File(a, "sub/text.txt"), "foo\n");
+        write(new File(b, "sub/text.txt"), "bar\n");
+        FileUtil.ensureFileExists(new File(a, "sub/onlyInA"));
+        FileUtil.ensureFileExists(new File(b, "onlyInB/file"));
+        FileUtil.ensureFileExists(new File(a, "dirOrFile/file"));
+        FileUtil.ensureFileExists(new File(b, "dirOrFile"));
+        write(new File(a, "binary"), "a\0b");
+        write(new File(b, "binary"), "a\0c");
+
+        Seq<DirectoryDifference> differences = compareDirectories(a, b);
+
+        assertEquals(5, differences.size());
+        assertDirectoryDifferenceEquals(DirectoryDifference.Kind.BINARY_FILES_DIFFER,
+                "binary", differences.item(0));
+        assertDirectoryDifferenceEquals(DirectoryDifference.Kind.DIRECTORY_AND_FILE,
+                "dirOrFile", differences.item(1));
+        assertDirectoryDifferenceEquals(DirectoryDifference.Kind.ONLY_IN_B,
+                "onlyInB", differences.item(2));
+        assertDirectoryDifferenceEquals(DirectoryDifference.Kind.ONLY_IN_A,
+                "sub/onlyInA", differences.item(3));
+        assertDirectoryDifferenceEquals(DirectoryDifference.Kind.TEXT_FILES_DIFFER,
+                "sub/text.txt", differences.item(4));
+        assertEquals(new File(b, "sub/text.txt").getAbsoluteFile(),
+                differences.item(4).getFileInB());
+
+        assertEquals(MessageFormat.format(
+                "Binary files {0}/a/binary and {0}/b/binary differ\n" +
+                        "File {0}/a/dirOrFile is a directory while file {0}/b/dirOrFile is a regular empty file\n" +
+                        "Only in {0}/b: onlyInB\n" +
+                        "Only in {0}/a/sub: onlyInA\n" +
+                        "diff -r {0}/a/sub/text.txt {0}/b/sub/text.txt\n" +
+                        "1c1\n" +
+                        "< foo\n" +
+                        "---\n" +
+                        "> bar\n", root.getAbsolutePath()),
+                FileDiffUtil.directoryDifferencesText(differences));
+    }
+
+    @Test
+    void compareDirectories_TRUST_SIZE_AND_LAST_MODIFIED() {
+        File root = FileUtil.tempDirectoryForRun();
+        File a = new File(root, "a");
+        File b = new File(root, "b");
+        File fileA = new File(a, "f");
+        File fileB = new File(b, "f");
+        write(fileA, "foo\n");
+        write(fileB, "bar\n");
+        assertTrue(fileB.setLastModified(fileA.lastModified()));
+
+        assertEquals(1, compareDirectories(a, b).size());
+        assertTrue(compareDirectories(a, b, TRUST_SIZE_AND_LAST_MODIFIED).isEmpty());
+    }
+
+    private static void assertDirectoryDifferenceEquals(
+            DirectoryDifference.Kind expectedKind,
+            String expectedRelativePath,
+            DirectoryDifference actual) {
+        assertEquals(expectedKind, actual.getKind());
+        assertEquals(expectedRelativePath, actual.getRelativePath());
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.seq.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.abego.commons.lang.StringUtil.lines;
+import static org.abego.commons.lang.StringUtil.replaceRange;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalTextDiffTest {
+
+    /**
+     * Check the <code>differences</code> describe how to get from
+     * <code>textA</code> to <code>textB</code>, i.e. all lines outside the
+     * differences are equal and differences don't touch each other.
+     */
+    private static void assertValidDifferences(
+            String textA, String textB, Seq<Difference> differences) {
+        Seq<String> linesA = lines(textA);
+        Seq<String> linesB = lines(textB);
+        int iA = 0;
+        int iB = 0;
+        for (Difference d : differences) {
+            assertTrue(d.getRangeInA().getLength() > 0 || d.getRangeInB().getLength() > 0);
+            assertEquals(d.getRangeInA().getStart() - iA, d.getRangeInB().getStart() - iB);
+            assertTrue(iA == 0 && iB == 0 || d.getRangeInA().getStart() > iA);
+            while (iA < d.getRangeInA().getStart()) {
+                assertEquals(linesA.item(iA++), linesB.item(iB++));
+            }
+            iA = d.getRangeInA().getEnd();
+            iB = d.getRangeInB().getEnd();
+        }
+        assertEquals(linesA.size() - iA, linesB.size() - iB);
+        while (iA < linesA.size()) {
+            assertEquals(linesA.item(iA++), linesB.item(iB++));
+        }
+    }
+
+    @Test
+    void replaceRangeInB() {
+        String textA = "a\nb\nc\nd\n";
+        IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff(textA, textA);
+
+        assertEquals(0, diff.getDifferences().size());
+
+        Seq<Difference> differences = diff.replaceRangeInB(2, 3, "X\nY");
+
+        assertEquals("a\nX\nY\nc\nd\n", diff.getTextB());
+        assertEquals(1, differences.size());
+        assertEquals(newIntRange(1, 2), differences.item(0).getRangeInA());
+        assertEquals(newIntRange(1, 3), differences.item(0).getRangeInB());
+
+        differences = diff.replaceRangeInB(newIntRange(2, 5), "b");
+
+        assertEquals(textA, diff.getTextB());
+        assertEquals(0, differences.size());
+    }
+
+    @Test
+    void replaceRangeInB_invalidRange() {
+        IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff("a", "b");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> diff.replaceRangeInB(0, 2, ""));
+        assertThrows(IndexOutOfBoundsException.class, () -> diff.replaceRangeInB(1, 0, ""));
+    }
+
+    @Test
+    void replaceRangeInB_randomEdits() {
+        String[] snippets = {"", "x", "y", "\n", "\r\n", "x\ny\n", "\nz", "a\n"};
+        Random random = new Random(4711);
+        String textA = "a\nb\nc\nd\ne\nf\ng\nh\ni\nj\n";
+        String textB = textA;
+        IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff(textA, textB);
+        for (int i = 0; i < 3000; i++) {
+            int start = random.nextInt(textB.length() + 1);
+            int end = Math.min(textB.length(), start + random.nextInt(4));
+            String newRangeText = snippets[random.nextInt(snippets.length)];
+            textB = replaceRange(textB, start, end, newRangeText);
+
+            Seq<Difference> differences = diff.replaceRangeInB(start, end, newRangeText);
+
+            assertEquals(textB, diff.getTextB());
+            assertValidDifferences(textA, textB, differences);
+        }
+    }
+
+    private static int changedLineCount(Seq<Difference> differences) {
+        int result = 0;
+        for (Difference d : differences) {
+            result += d.getRangeInA().getLength() + d.getRangeInB().getLength();
+        }
+        return result;
+    }
+
+    @Test
+    void replaceRangeInB_editMakesNeighbouringDifferencesCancelOut() {
+        IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff("\n\n", "\n");
+
+        assertEquals(1, diff.getDifferences().size());
+
+        Seq<Difference> differences = diff.replaceRangeInB(0, 0, "\n");
+
+        assertEquals("\n\n", diff.getTextB());
+        assertEquals(0, differences.size());
+    }
+
+    /**
+     * Apply a random edit to short texts with many duplicate lines and check
+     * the result has no more changed lines than a fresh diff.
+     *
+     * <p>The texts are short enough for the widened window to cover the
+     * whole text (for longer texts the result is only minimal near the
+     * edit). A fresh diff may have more changed lines, as it aligns lines
+     * treating a replaced line as one change, not as two.</p>
+     */
+    @Test
+    void replaceRangeInB_randomEditsGiveMinimalDifferences() {
+        String[] snippets = {"", "a", "b", "\n", "a\n", "\nb", "a\nb\n"};
+        Random random = new Random(4712);
+        for (int round = 0; round < 20_000; round++) {
+            String textA = randomLines(random, snippets);
+            String textB = randomLines(random, snippets);
+            IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff(textA, textB);
+            int start = random.nextInt(textB.length() + 1);
+            int end = Math.min(textB.length(), start + random.nextInt(3));
+            String newRangeText = snippets[random.nextInt(snippets.length)];
+            textB = replaceRange(textB, start, end, newRangeText);
+
+            Seq<Difference> differences = diff.replaceRangeInB(start, end, newRangeText);
+
+            assertValidDifferences(textA, textB, differences);
+            int freshChangedLineCount =
+                    changedLineCount(TextDiff.compareLineWise(textA, textB));
+            assertTrue(changedLineCount(differences) <= freshChangedLineCount,
+                    String.format("%d changed lines, fresh diff: %d", //NON-NLS
+                            changedLineCount(differences), freshChangedLineCount));
+        }
+    }
+
+    /**
+     * A long text with a difference far away from the edits (two swapped
+     * lines) must still be updated correctly.
+     */
+    @Test
+    void replaceRangeInB_farAwayDifference() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("line ").append(i).append('\n'); //NON-NLS
+        }
+        String textA = text.toString();
+        String textB = textA.replace("line 1\nline 2\n", "line 2\nline 1\n"); //NON-NLS
+        IncrementalTextDiff diff = TextDiff.newIncrementalLineDiff(textA, textB);
+        Random random = new Random(4713);
+        for (int i = 0; i < 200; i++) {
+            int start = textB.length() / 2 + random.nextInt(textB.length() / 2);
+            String newRangeText = i % 2 == 0 ? "x\n" : "";
+            int end = i % 2 == 0 ? start : Math.min(textB.length(), start + 2);
+            textB = replaceRange(textB, start, end, newRangeText);
+
+            Seq<Difference> differences = diff.replaceRangeInB(start, end, newRangeText);
+
+            assertEquals(textB, diff.getTextB());
+            assertValidDifferences(textA, textB, differences);
+        }
+    }
+
+    private static String randomLines(Random random, String[] snippets) {
+        StringBuilder text = new StringBuilder();
+        int lineCount = random.nextInt(6);
+        for (int i = 0; i < lineCount; i++) {
+            text.append(snippets[random.nextInt(snippets.length)]).append('\n');
+        }
+        return text.toString();
+    }
+}
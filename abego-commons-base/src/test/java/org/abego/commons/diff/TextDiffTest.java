@@ -60,6 +60,39 @@ class TextDiffTest {
         assertDifferenceEquals(8, 10, 8, 10, diffs.item(2));
     }
 
+    @Test
+    void compareCharacterWise_longTexts() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append("{\"id\":").append(i).append('}');
+        }
+        String oldText = sb.toString();
+        String newText = oldText.replace("\"id\":12345}", "\"id\":12346}");
+
+        Seq<Difference> diffs = TextDiff.compareCharacterWise(oldText, newText);
+
+        assertEquals(1, diffs.size());
+        int i = oldText.indexOf("12345}") + 4;
+        assertDifferenceEquals(i, i + 1, i, i + 1, diffs.item(0));
+    }
+
+    @Test
+    void compareWordWise() {
+
+        String oldText = "The quick brown fox jumps.";
+        String newText = "The slow brown fox jumped!";
+
+        Seq<Difference> diffs = TextDiff.compareWordWise(oldText, newText);
+
+        assertEquals(2, diffs.size());
+
+        // "quick" replaced by "slow"
+        assertDifferenceEquals(4, 9, 4, 8, diffs.item(0));
+
+        // "jumps." replaced by "jumped!"
+        assertDifferenceEquals(20, 26, 19, 26, diffs.item(1));
+    }
+
     @Test
     void compareLineWise() {
 
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff;
+
+import org.abego.commons.seq.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.abego.commons.lang.StringUtil.lines;
+import static org.abego.commons.range.IntRangeDefault.newIntRange;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ThreeWayMergeTest {
+
+    @Test
+    void merge_noChanges() {
+        assertEquals("a\nb\nc\n", ThreeWayMerge.merge("a\nb\nc\n", "a\nb\nc\n", "a\nb\nc\n"));
+    }
+
+    @Test
+    void merge_nonConflictingChanges() {
+        String base = "a\nb\nc\nd\ne\n";
+        String ours = "a\nB\nc\nd\ne\nf\n";
+        String theirs = "x\na\nb\nc\ne\n";
+
+        assertEquals("x\na\nB\nc\ne\nf\n", ThreeWayMerge.merge(base, ours, theirs));
+    }
+
+    @Test
+    void merge_sameChangeOnBothSides() {
+        String base = "a\nb\nc\n";
+        String changed = "a\nB\nc\n";
+
+        assertEquals(changed, ThreeWayMerge.merge(base, changed, changed));
+    }
+
+    @Test
+    void merge_conflict() {
+        Seq<String> base = lines("a\nb\nc\nd\n");
+        Seq<String> ours = lines("a\nB1\nc\nd\n");
+        Seq<String> theirs = lines("a\nB2\nB3\nc\nD\n");
+        StringWriter output = new StringWriter();
+
+        Seq<MergeConflict> conflicts = ThreeWayMerge.merge(base, ours, theirs, output);
+
+        assertEquals("a\n" +
+                        "<<<<<<< ours\n" +
+                        "B1\n" +
+                        "=======\n" +
+                        "B2\n" +
+                        "B3\n" +
+                        ">>>>>>> theirs\n" +
+                        "c\n" +
+                        "D\n",
+                output.toString());
+        assertEquals(1, conflicts.size());
+        assertEquals(newIntRange(1, 2), conflicts.item(0).getRangeInBase());
+        assertEquals(newIntRange(1, 2), conflicts.item(0).getRangeInOurs());
+        assertEquals(newIntRange(1, 3), conflicts.item(0).getRangeInTheirs());
+    }
+
+    @Test
+    void merge_largeTexts() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        String base = sb.toString();
+        String ours = base.replace("line 10\n", "line ten\n");
+        String theirs = base.replace("line 99990\n", "");
+
+        String expected = ours.replace("line 99990\n", "");
+        assertEquals(expected, ThreeWayMerge.merge(base, ours, theirs));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.io.FileUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryDiffImplTest {
+
+    private static String normalDiffText(String textA, String textB) {
+        StringBuilder result = new StringBuilder();
+        DirectoryDiffImpl.appendNormalDiffText(result, textA, textB);
+        return result.toString();
+    }
+
+    @Test
+    void appendNormalDiffText() {
+        assertEquals("", normalDiffText("a\nb\n", "a\nb\n"));
+        assertEquals("1a2,3\n> x\n> y\n", normalDiffText("a\nb\n", "a\nx\ny\nb\n"));
+        assertEquals("2,3d1\n< x\n< y\n", normalDiffText("a\nx\ny\nb\n", "a\nb\n"));
+        assertEquals("2,3c2\n< x\n< y\n---\n> z\n", normalDiffText("a\nx\ny\nb\n", "a\nz\nb\n"));
+        assertEquals("1c1\n< a\n\\ No newline at end of file\n---\n> a\n",
+                normalDiffText("a", "a\n"));
+    }
+
+    @Test
+    void haveSameContent_mapped() throws IOException {
+        File fileA = FileUtil.tempFileForRun();
+        File fileB = FileUtil.tempFileForRun();
+        long size = DirectoryDiffImpl.MAPPED_COMPARISON_MIN_SIZE + 10;
+        try (RandomAccessFile a = new RandomAccessFile(fileA, "rw");
+             RandomAccessFile b = new RandomAccessFile(fileB, "rw")) {
+            a.setLength(size);
+            b.setLength(size);
+        }
+
+        assertTrue(DirectoryDiffImpl.haveSameContent(fileA, fileB, false));
+
+        try (RandomAccessFile b = new RandomAccessFile(fileB, "rw")) {
+            b.seek(size - 1);
+            b.write(1);
+        }
+
+        assertFalse(DirectoryDiffImpl.haveSameContent(fileA, fileB, false));
+    }
+}
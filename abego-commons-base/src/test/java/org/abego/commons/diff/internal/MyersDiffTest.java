@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.diff.internal;
+
+import org.abego.commons.diff.Difference;
+import org.abego.commons.seq.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MyersDiffTest {
+
+    private static int lcsLength(int[] a, int[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1] == b[j - 1]
+                        ? table[i - 1][j - 1] + 1
+                        : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+
+    private static int[] randomItems(Random random, int maxLength) {
+        int[] result = new int[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = random.nextInt(4);
+        }
+        return result;
+    }
+
+    /**
+     * Check the differences describe a shortest edit script, i.e. the
+     * unchanged items are a longest common subsequence.
+     */
+    private static void assertShortestEditScript(int[] a, int[] b, Seq<Difference> differences) {
+        int iA = 0;
+        int iB = 0;
+        int unchangedCount = 0;
+        for (Difference d : differences) {
+            assertTrue(d.getRangeInA().getStart() - iA > 0 || iA == 0 && iB == 0,
+                    "differences are separated by unchanged items");
+            assertEquals(d.getRangeInA().getStart() - iA, d.getRangeInB().getStart() - iB);
+            while (iA < d.getRangeInA().getStart()) {
+                assertEquals(a[iA++], b[iB++]);
+                unchangedCount++;
+            }
+            iA = d.getRangeInA().getEnd();
+            iB = d.getRangeInB().getEnd();
+        }
+        assertEquals(a.length - iA, b.length - iB);
+        while (iA < a.length) {
+            assertEquals(a[iA++], b[iB++]);
+            unchangedCount++;
+        }
+        assertEquals(lcsLength(a, b), unchangedCount);
+    }
+
+    @Test
+    void compare_random() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int[] a = randomItems(random, 30);
+            int[] b = randomItems(random, 30);
+
+            assertShortestEditScript(a, b, MyersDiff.compare(a, b));
+        }
+    }
+
+    @Test
+    void compare_noCommonItems() {
+        Seq<Difference> differences = MyersDiff.compare(new int[]{1, 2, 3}, new int[]{4, 5});
+
+        assertEquals(1, differences.size());
+        assertEquals("0..3", differences.item(0).getRangeInA().toString());
+        assertEquals("0..2", differences.item(0).getRangeInB().toString());
+    }
+}
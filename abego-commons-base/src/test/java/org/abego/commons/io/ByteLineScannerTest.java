@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.abego.commons.io.ByteLineScanner.lineCount;
+import static org.abego.commons.io.ByteLineScanner.newByteLineScanner;
+import static org.abego.commons.io.WriterUtil.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteLineScannerTest {
+
+    private static String linesText(ByteLineScanner scanner) {
+        StringBuilder result = new StringBuilder();
+        while (scanner.next()) {
+            result.append(scanner.lineText())
+                    .append("[")
+                    .append(scanner.separatorLength())
+                    .append("]");
+        }
+        return result.toString();
+    }
+
+    private static String linesText(String text) {
+        return linesText(newByteLineScanner(ByteBuffer.wrap(text.getBytes(UTF_8))));
+    }
+
+    /**
+     * Return the lines of <code>text</code> in the format of
+     * {@link #linesText(ByteLineScanner)}, calculated "char by char".
+     */
+    private static String expectedLinesText(String text) {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            int start = i;
+            while (i < n && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+                i++;
+            }
+            int separatorLength = i >= n ? 0
+                    : text.startsWith("\r\n", i) ? 2 : 1;
+            result.append(text, start, i)
+                    .append("[")
+                    .append(separatorLength)
+                    .append("]");
+            i += separatorLength;
+        }
+        return result.toString();
+    }
+
+    @Test
+    void smokeTest() {
+        ByteLineScanner scanner = newByteLineScanner(
+                ByteBuffer.wrap("foo\nbar\r\nbaz".getBytes(UTF_8)));
+
+        assertEquals(-1, scanner.lineIndex());
+
+        assertTrue(scanner.next());
+        assertEquals(0, scanner.lineIndex());
+        assertEquals(0, scanner.lineStart());
+        assertEquals(3, scanner.lineLength());
+        assertEquals(1, scanner.separatorLength());
+        assertEquals("foo", scanner.lineText());
+
+        assertTrue(scanner.next());
+        assertEquals(1, scanner.lineIndex());
+        assertEquals(4, scanner.lineStart());
+        assertEquals(3, scanner.lineLength());
+        assertEquals(2, scanner.separatorLength());
+        assertEquals("bar", scanner.lineText());
+
+        assertTrue(scanner.next());
+        assertEquals(2, scanner.lineIndex());
+        assertEquals(9, scanner.lineStart());
+        assertEquals(3, scanner.lineLength());
+        assertEquals(0, scanner.separatorLength());
+        assertEquals("baz", scanner.lineText());
+
+        assertFalse(scanner.next());
+        assertFalse(scanner.next());
+    }
+
+    @Test
+    void lineSeparators() {
+        assertEquals("", linesText(""));
+        assertEquals("[1]", linesText("\n"));
+        assertEquals("[1]", linesText("\r"));
+        assertEquals("[2]", linesText("\r\n"));
+        assertEquals("[1][1]", linesText("\n\r"));
+        assertEquals("a[1]", linesText("a\n"));
+        assertEquals("a[1][1]b[0]", linesText("a\r\rb"));
+        assertEquals("a[2][1]", linesText("a\r\n\n"));
+        assertEquals("0123456789abcdef[1]x[0]", linesText("0123456789abcdef\rx"));
+        assertEquals("0123456[2]89abcdef[0]", linesText("0123456\r\n89abcdef"));
+    }
+
+    @Test
+    void multiByteCharacters() {
+        String text = "\u00e4\u00f6\u00fc\u20ac\ud83d\ude00 line 1\n\u0d0a\u0a0d line 2\r\n";
+
+        assertEquals(expectedLinesText(text), linesText(text));
+    }
+
+    @Test
+    void randomTexts() {
+        Random random = new Random(42);
+        char[] chars = {'a', 'b', '\n', '\r', '\u00e4', ' '};
+        for (int round = 0; round < 1000; round++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(100);
+            for (int i = 0; i < length; i++) {
+                // mostly non separator chars, to get longer lines
+                sb.append(random.nextInt(4) == 0
+                        ? chars[random.nextInt(chars.length)] : 'x');
+            }
+            String text = sb.toString();
+
+            assertEquals(expectedLinesText(text), linesText(text), text);
+        }
+    }
+
+    @Test
+    void directBufferWithPositionAndLimit() {
+        byte[] bytes = "skip\nfoo\nbar\r\nbaz\nignored".getBytes(UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.position(5);
+        buffer.limit(18);
+
+        ByteLineScanner scanner = newByteLineScanner(buffer);
+
+        assertEquals("foo[1]bar[2]baz[1]", linesText(scanner));
+        assertEquals(5, buffer.position());
+        assertEquals(18, buffer.limit());
+        assertEquals(3, lineCount(buffer));
+    }
+
+    @Test
+    void file(@TempDir File tempDir) {
+        StringBuilder sb = new StringBuilder();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String line = "line " + i;
+            lines.add(line);
+            sb.append(line).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        File file = new File(tempDir, "sample.txt");
+        write(file, sb.toString());
+
+        ByteLineScanner scanner = newByteLineScanner(file);
+        List<String> actual = new ArrayList<>();
+        while (scanner.next()) {
+            actual.add(scanner.lineText());
+        }
+
+        assertEquals(lines, actual);
+    }
+}
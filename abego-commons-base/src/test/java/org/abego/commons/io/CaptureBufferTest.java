@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.abego.commons.io.CaptureBuffer.acquireCaptureBuffer;
+import static org.abego.commons.io.CaptureBuffer.newCaptureBuffer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CaptureBufferTest {
+
+    private static String randomText(Random random, int length) {
+        String[] parts = {"a", "ä", "€", "😀", "\n", "xyz"};
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append(parts[random.nextInt(parts.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void smokeTest() throws IOException {
+        CaptureBuffer buffer = newCaptureBuffer();
+        assertEquals("", buffer.text());
+        assertEquals(0, buffer.size());
+
+        buffer.write('a');
+        buffer.write("bä".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("bä".length() + 1, buffer.text().length());
+        assertEquals("abä", buffer.text());
+        assertEquals("abä", buffer.toString());
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void manySegments_textAndBytes() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            String text = randomText(random, random.nextInt(200_000));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            CaptureBuffer buffer = newCaptureBuffer();
+
+            // write in pieces of random size, to get characters split
+            // across segments
+            int i = 0;
+            while (i < bytes.length) {
+                int n = Math.min(bytes.length - i, random.nextInt(5000));
+                buffer.write(bytes, i, n);
+                i += n;
+            }
+
+            assertEquals(bytes.length, buffer.size());
+            assertEquals(text, buffer.text());
+            assertEquals(new String(bytes, StandardCharsets.UTF_16LE),
+                    buffer.text(StandardCharsets.UTF_16LE));
+            assertArrayEquals(bytes, buffer.toByteArray());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            buffer.writeTo(out);
+            assertArrayEquals(bytes, out.toByteArray());
+        }
+    }
+
+    @Test
+    void malformedInput() {
+        CaptureBuffer buffer = newCaptureBuffer();
+        byte[] bytes = new byte[3000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7 == 0 ? 0xC3 : 'a');
+        }
+
+        buffer.write(bytes, 0, bytes.length);
+
+        assertEquals(new String(bytes, StandardCharsets.UTF_8), buffer.text());
+    }
+
+    @Test
+    void reset() throws IOException {
+        CaptureBuffer buffer = newCaptureBuffer();
+        String text = randomText(new Random(1), 100_000);
+        buffer.write(text.getBytes(StandardCharsets.UTF_8));
+
+        buffer.reset();
+
+        assertEquals(0, buffer.size());
+        assertEquals("", buffer.text());
+
+        buffer.write(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(text, buffer.text());
+    }
+
+    @Test
+    void acquireAndRelease() throws IOException {
+        CaptureBuffer buffer = acquireCaptureBuffer();
+        buffer.write("foo".getBytes(StandardCharsets.UTF_8));
+        buffer.release();
+        buffer.release();
+
+        CaptureBuffer buffer2 = acquireCaptureBuffer();
+        CaptureBuffer buffer3 = acquireCaptureBuffer();
+
+        assertNotSame(buffer2, buffer3);
+        assertEquals("", buffer2.text());
+        assertEquals("", buffer3.text());
+        buffer2.release();
+        buffer3.release();
+    }
+
+    @Test
+    void write_invalidArguments() {
+        CaptureBuffer buffer = newCaptureBuffer();
+
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> buffer.write(new byte[2], 1, 2));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.abego.commons.io.FileAppender.newFileAppender;
+import static org.abego.commons.io.FileUtil.textOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileAppenderTest {
+
+    @Test
+    void append(@TempDir File dir) throws IOException {
+        File file = new File(dir, "sub/log.txt");
+
+        try (FileAppender appender = newFileAppender(file)) {
+            appender.append("foo\n");
+            appender.append("\u00e4\u00f6\u00fc\n");
+            appender.flush();
+            assertEquals("foo\n\u00e4\u00f6\u00fc\n", textOf(file));
+            appender.append("bar");
+        }
+        assertEquals("foo\n\u00e4\u00f6\u00fc\nbar", textOf(file));
+
+        // appends to existing content
+        try (FileAppender appender = newFileAppender(file)) {
+            appender.appendAndSync("\nbaz");
+            assertEquals(1, appender.syncCount());
+            // nothing new to sync
+            appender.sync();
+            assertEquals(1, appender.syncCount());
+        }
+        assertEquals("foo\n\u00e4\u00f6\u00fc\nbar\nbaz", textOf(file));
+    }
+
+    @Test
+    void append_textLargerThanBuffer(@TempDir File dir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 3 * FileAppender.BUFFER_SIZE) {
+            text.append("line ").append(text.length()).append(" \u20ac\n");
+        }
+        File file = new File(dir, "log.txt");
+
+        try (FileAppender appender = newFileAppender(file)) {
+            appender.append(text);
+        }
+
+        assertEquals(text.toString(), textOf(file));
+    }
+
+    @Test
+    void appendAndSync_concurrently(@TempDir File dir) throws Exception {
+        int threadCount = 8;
+        int linesPerThread = 200;
+        File file = new File(dir, "log.txt");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try (FileAppender appender = newFileAppender(file)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                int threadIndex = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < linesPerThread; i++) {
+                        appender.appendAndSync("thread " + threadIndex + " line " + i + "\n");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertTrue(appender.syncCount() <= threadCount * linesPerThread);
+        } finally {
+            executor.shutdown();
+        }
+
+        String[] lines = textOf(file).split("\n");
+        assertEquals(threadCount * linesPerThread, lines.length);
+        // the lines of each thread are in order
+        int[] nextLine = new int[threadCount];
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            int threadIndex = Integer.parseInt(parts[1]);
+            assertEquals(nextLine[threadIndex]++, Integer.parseInt(parts[3]));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.abego.commons.io.FileDemultiplexingWriter.fileDemultiplexingWriter;
+import static org.abego.commons.io.FileUtil.file;
+import static org.abego.commons.io.FileUtil.textOf;
+import static org.abego.commons.io.FileWriterPool.newFileWriterPool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileDemultiplexingWriterTest {
+    private static final String MARKER = "@@file ";
+
+    private static String marker(File file) {
+        return MARKER + file.getAbsolutePath() + "\n";
+    }
+
+    @Test
+    void smokeTest(@TempDir File dir) throws IOException {
+        File a = file(dir, "a.txt");
+        File b = file(dir, "sub/b.txt");
+
+        FileDemultiplexingWriter writer = fileDemultiplexingWriter(MARKER);
+        assertNull(writer.currentFile());
+        writer.write("\n");
+        writer.write(marker(a));
+        writer.write("line 1 of a\n@@ not a marker\r\n");
+        writer.write(marker(b));
+        writer.write("line 1 of b\n");
+        writer.write(marker(a));
+        writer.write("line 2 of a");
+        assertEquals(a, writer.currentFile());
+        writer.close();
+
+        assertEquals("line 1 of a\n@@ not a marker\r\nline 2 of a", textOf(a));
+        assertEquals("line 1 of b\n", textOf(b));
+    }
+
+    @Test
+    void markerSplitAcrossWrites(@TempDir File dir) throws IOException {
+        File a = file(dir, "a.txt");
+        String text = marker(a) + "@@fil\n@@\nfoo\n" + MARKER;
+
+        Writer writer = fileDemultiplexingWriter(MARKER);
+        for (char c : text.toCharArray()) {
+            writer.write(c);
+        }
+        writer.write(a.getAbsolutePath());
+        writer.close();
+
+        assertEquals("@@fil\n@@\nfoo\n", textOf(a));
+    }
+
+    @Test
+    void emptyFile(@TempDir File dir) throws IOException {
+        File a = file(dir, "a.txt");
+
+        Writer writer = fileDemultiplexingWriter(MARKER);
+        writer.write(marker(a));
+        writer.close();
+
+        assertEquals("", textOf(a));
+    }
+
+    @Test
+    void textBeforeFirstMarker() {
+        Writer writer = fileDemultiplexingWriter(MARKER);
+
+        assertThrows(IOException.class, () -> writer.write("foo\n"));
+    }
+
+    @Test
+    void emptyMarkerPrefix() {
+        assertThrows(IllegalArgumentException.class,
+                () -> fileDemultiplexingWriter(""));
+    }
+
+    @Test
+    void manyFilesWithFewOpenFiles(@TempDir File dir) throws IOException {
+        int fileCount = 50;
+        StringBuilder[] expected = new StringBuilder[fileCount];
+        for (int i = 0; i < fileCount; i++) {
+            expected[i] = new StringBuilder();
+        }
+
+        FileWriterPool pool = newFileWriterPool(5, UTF_8);
+        Writer writer = fileDemultiplexingWriter(MARKER, pool);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < fileCount; i++) {
+                // switch between a few "hot" files most of the time
+                int fileIndex = round % 2 == 0 ? i : i % 3;
+                String line = "round " + round + ", item " + i + "\n";
+                writer.write(marker(file(dir, "file" + fileIndex + ".txt")));
+                writer.write(line);
+                expected[fileIndex].append(line);
+                assertTrue(pool.openFileCount() <= 5);
+            }
+        }
+        writer.close();
+        pool.close();
+
+        for (int i = 0; i < fileCount; i++) {
+            assertEquals(expected[i].toString(),
+                    textOf(file(dir, "file" + i + ".txt")));
+        }
+        // the "hot" files are not reopened for every line
+        assertTrue(pool.openCount() < 10 * fileCount);
+        assertEquals(0, pool.openFileCount());
+    }
+
+    @Test
+    void existingFileIsReplaced(@TempDir File dir) throws IOException {
+        File a = file(dir, "a.txt");
+        WriterUtil.write(a, "old content");
+
+        Writer writer = fileDemultiplexingWriter(MARKER, UTF_8, 1);
+        writer.write(marker(a));
+        writer.write("new\n");
+        writer.close();
+
+        assertEquals("new\n", textOf(a));
+    }
+
+    @Test
+    void newFileWriterPool_invalidMaxOpenFiles() {
+        assertThrows(IllegalArgumentException.class,
+                () -> newFileWriterPool(0, UTF_8));
+    }
+}
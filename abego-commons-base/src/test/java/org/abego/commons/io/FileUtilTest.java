@@ -34,9 +34,20 @@ import java.io.File;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.abego.commons.TestData.EMPTY_TEXT;
 import static org.abego.commons.TestData.MISSING_RESOURCE_NAME;
@@ -54,6 +65,7 @@ import static org.abego.commons.io.FileUtil.ensureFileExists;
 import static org.abego.commons.io.FileUtil.file;
 import static org.abego.commons.io.FileUtil.fileForRun;
 import static org.abego.commons.io.FileUtil.isDirectory;
+import static org.abego.commons.io.FileUtil.mappedTextOf;
 import static org.abego.commons.io.FileUtil.normalFile;
 import static org.abego.commons.io.FileUtil.runIOCode;
 import static org.abego.commons.io.FileUtil.setReadOnly;
@@ -75,6 +87,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class FileUtilTest {
 
@@ -664,4 +677,163 @@ class FileUtilTest {
         File result = FileUtil.requireFileExists(file);
         assertEquals(file, result);
     }
+
+    private static String longTextWithMultiByteChars() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("line ").append(i).append(": \u00e4\u00f6\u00fc \u20ac \ud83d\ude00\n"); //NON-NLS
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void mappedTextOf_UTF8(@TempDir File tempDir) {
+        String text = longTextWithMultiByteChars();
+        File file = new File(tempDir, "sample.txt");
+        write(file, text, StandardCharsets.UTF_8);
+
+        CharSequence mappedText = mappedTextOf(file);
+
+        // access some chars before the length is known
+        assertEquals(text.charAt(40000), mappedText.charAt(40000));
+        assertEquals(text.charAt(17), mappedText.charAt(17));
+        assertEquals(text.length(), mappedText.length());
+        for (int i = 0; i < text.length(); i += 997) {
+            assertEquals(text.charAt(i), mappedText.charAt(i));
+        }
+        assertEquals(text.charAt(text.length() - 1),
+                mappedText.charAt(text.length() - 1));
+        assertEquals(text.substring(8000, 9000),
+                mappedText.subSequence(8000, 9000).toString());
+        assertEquals(text, mappedText.toString());
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> mappedText.charAt(text.length()));
+    }
+
+    @Test
+    void mappedTextOf_ISO_8859_1(@TempDir File tempDir) {
+        String text = "abc\u00e4\u00f6\u00fc\n"; //NON-NLS
+        File file = new File(tempDir, "sample.txt");
+        write(file, text, StandardCharsets.ISO_8859_1);
+
+        CharSequence mappedText = mappedTextOf(file, StandardCharsets.ISO_8859_1);
+
+        assertEquals(text.length(), mappedText.length());
+        assertEquals('\u00e4', mappedText.charAt(3));
+        assertEquals(text, mappedText.toString());
+        assertEquals(text, mappedTextOf(file, "ISO-8859-1").toString()); //NON-NLS
+    }
+
+    @Test
+    void mappedTextOf_emptyFile(@TempDir File tempDir) {
+        File file = new File(tempDir, "empty.txt");
+        write(file, EMPTY_TEXT);
+
+        CharSequence mappedText = mappedTextOf(file);
+
+        assertEquals(0, mappedText.length());
+        assertEquals(EMPTY_TEXT, mappedText.toString());
+    }
+
+    @Test
+    void linesOf(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.txt");
+        write(file, "foo\nbar\r\nbaz"); //NON-NLS
+
+        try (Stream<String> lines = FileUtil.linesOf(file)) {
+            assertEquals("foo|bar|baz", //NON-NLS
+                    lines.collect(Collectors.joining("|")));
+        }
+    }
+
+    @Test
+    void forEachLine(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.txt");
+        write(file, "foo\nbar\r\nbaz\n"); //NON-NLS
+        List<String> lines = new ArrayList<>();
+
+        FileUtil.forEachLine(file, lines::add);
+
+        assertEquals(Arrays.asList("foo", "bar", "baz"), lines); //NON-NLS
+    }
+
+    @Test
+    void forEachLine_missingFile(@TempDir File tempDir) {
+        File file = new File(tempDir, "missing.txt");
+
+        assertThrows(UncheckedIOException.class,
+                () -> FileUtil.forEachLine(file, s -> fail()));
+    }
+
+    @Test
+    void forEachChunk(@TempDir File tempDir) {
+        String text = longTextWithMultiByteChars();
+        File file = new File(tempDir, "sample.txt");
+        write(file, text);
+        StringBuilder result = new StringBuilder();
+        int[] chunkCount = {0};
+
+        FileUtil.forEachChunk(file, chunk -> {
+            chunkCount[0]++;
+            result.append(chunk);
+        });
+
+        assertEquals(text, result.toString());
+        assertTrue(chunkCount[0] > 1);
+    }
+
+    @Test
+    void writeTextAtomically(@TempDir File tempDir) {
+        File file = new File(tempDir, "sub/sample.txt");
+
+        FileUtil.writeTextAtomically(file, SAMPLE_TEXT);
+        assertEquals(SAMPLE_TEXT, textOf(file));
+
+        FileUtil.writeTextAtomically(file, SAMPLE_TEXT_2, StandardCharsets.UTF_8, true);
+        assertEquals(SAMPLE_TEXT_2, textOf(file));
+
+        // no temporary files left
+        assertEquals(1, file.getParentFile().list().length);
+    }
+
+    @Test
+    void writeTextAtomically_largeText(@TempDir File tempDir) {
+        String text = longTextWithMultiByteChars();
+        File file = new File(tempDir, "sample.txt");
+
+        FileUtil.writeTextAtomically(file, text, StandardCharsets.UTF_16);
+
+        assertEquals(text, textOf(file, StandardCharsets.UTF_16));
+    }
+
+    @Test
+    void writeTextAtomically_keepsPermissions(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.txt");
+        Path path = file.toPath();
+        assumeTrue(Files.getFileAttributeView(tempDir.toPath(), PosixFileAttributeView.class) != null);
+        writeText(file, SAMPLE_TEXT);
+
+        for (String permissions : new String[]{"rw-r--r--", "rw-r-----", "rwxrw-r--"}) {
+            Set<PosixFilePermission> expected = PosixFilePermissions.fromString(permissions);
+            runIOCode(() -> Files.setPosixFilePermissions(path, expected));
+
+            FileUtil.writeTextAtomically(file, SAMPLE_TEXT_2);
+
+            assertEquals(SAMPLE_TEXT_2, textOf(file));
+            assertEquals(expected, runIOCode(() -> Files.getPosixFilePermissions(path)));
+        }
+    }
+
+    @Test
+    void writeTextAtomically_newFileHasDefaultPermissions(@TempDir File tempDir) {
+        assumeTrue(Files.getFileAttributeView(tempDir.toPath(), PosixFileAttributeView.class) != null);
+        Path file = new File(tempDir, "sample.txt").toPath();
+        Path otherFile = new File(tempDir, "other.txt").toPath();
+        runIOCode(() -> Files.createFile(otherFile));
+
+        FileUtil.writeTextAtomically(file.toFile(), SAMPLE_TEXT);
+
+        assertEquals(runIOCode(() -> Files.getPosixFilePermissions(otherFile)),
+                runIOCode(() -> Files.getPosixFilePermissions(file)));
+    }
 }
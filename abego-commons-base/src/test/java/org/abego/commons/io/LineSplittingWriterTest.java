@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import static org.abego.commons.TestUtil.allocatedBytesOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineSplittingWriterTest {
+
+    /**
+     * Records the calls as text, line separators in brackets and contents
+     * in braces, e.g. "{foo}[\n]{bar}".
+     */
+    private static class RecordingWriter extends LineSplittingWriter {
+        private final StringBuilder calls = new StringBuilder();
+
+        @Override
+        protected void processLineContent(char[] characterArray, int startOffset, int length) {
+            calls.append("{").append(characterArray, startOffset, length).append("}");
+        }
+
+        @Override
+        protected void processLineSeparator(String lineSeparator) {
+            calls.append("[").append(lineSeparator).append("]");
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        String calls() {
+            return calls.toString();
+        }
+    }
+
+    /**
+     * Does nothing but counting, so the writer itself is the only source of
+     * allocations.
+     */
+    private static class CountingWriter extends LineSplittingWriter {
+        private long contentLength;
+
+        @Override
+        protected void processLineContent(char[] characterArray, int startOffset, int length) {
+            contentLength += length;
+        }
+
+        @Override
+        protected void processLineSeparator(String lineSeparator) {
+            // nothing to do, lineIndex() counts the lines
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+    }
+
+    private static String callsForChunks(String... chunks) throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        for (String chunk : chunks) {
+            writer.write(chunk.toCharArray(), 0, chunk.length());
+        }
+        writer.close();
+        return writer.calls();
+    }
+
+    /**
+     * Return the lines and line separators of <code>text</code> in the
+     * format of {@link RecordingWriter}, with one content call per line.
+     */
+    private static String expectedLines(String text) {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            int start = i;
+            while (i < n && text.charAt(i) != '\n' && text.charAt(i) != '\r') {
+                i++;
+            }
+            result.append("{").append(text, start, i).append("}");
+            if (i < n) {
+                int separatorLength = text.startsWith("\r\n", i) ? 2 : 1;
+                result.append("[")
+                        .append(text, i, i + separatorLength)
+                        .append("]");
+                i += separatorLength;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Remove empty content calls and join the content calls for the same
+     * line, as the writer may split the content of a line across calls.
+     */
+    private static String normalized(String calls) {
+        return calls.replace("{}", "").replace("}{", "");
+    }
+
+    @Test
+    void write() throws Exception {
+        assertEquals("{foo}[\n]{bar}[\r\n]{baz}[\r]{}[\r]{qux}",
+                callsForChunks("foo\nbar\r\nbaz\r\rqux"));
+        assertEquals("{foo}[\r\n]{bar}",
+                callsForChunks("foo\r", "\nbar"));
+        assertEquals("{foo}[\r]{bar}",
+                callsForChunks("foo\r", "bar"));
+        assertEquals("{foo}[\r]",
+                callsForChunks("foo\r"));
+        assertEquals("{foo}{bar}",
+                callsForChunks("foo", "bar"));
+        assertEquals("[\n]",
+                callsForChunks("", "\n"));
+    }
+
+    @Test
+    void write_randomChunks() throws Exception {
+        Random random = new Random(42);
+        char[] chars = {'a', 'b', '\n', '\r'};
+        for (int round = 0; round < 1000; round++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                sb.append(chars[random.nextInt(chars.length)]);
+            }
+            String text = sb.toString();
+
+            RecordingWriter writer = new RecordingWriter();
+            int i = 0;
+            while (i < text.length()) {
+                int chunkLength = 1 + random.nextInt(text.length() - i);
+                writer.write(text.substring(i, i + chunkLength).toCharArray(),
+                        0, chunkLength);
+                i += chunkLength;
+            }
+            writer.close();
+
+            assertEquals(normalized(expectedLines(text)),
+                    normalized(writer.calls()), text);
+        }
+    }
+
+    @Test
+    void lineIndex() throws Exception {
+        CountingWriter writer = new CountingWriter();
+
+        writer.write("a\nb\r\nc\r".toCharArray(), 0, 7);
+        assertEquals(2, writer.lineIndex());
+
+        writer.close();
+        assertEquals(3, writer.lineIndex());
+        assertEquals(3, writer.contentLength);
+    }
+
+    /**
+     * A micro benchmark: writing lines must not allocate objects per line.
+     *
+     * <p>Measures the bytes allocated by the current thread while writing
+     * many lines, and checks it is (much) smaller than the number of
+     * lines.</p>
+     */
+    @Test
+    void write_noAllocationPerLine() throws Exception {
+        char[] text = "some line\nanother line\r\nand a third\r".toCharArray();
+        CountingWriter writer = new CountingWriter();
+        int rounds = 100_000;
+
+        // warm up (e.g. let the JIT compile the code)
+        for (int i = 0; i < rounds; i++) {
+            writer.write(text, 0, text.length);
+        }
+
+        int lineIndexBefore = writer.lineIndex();
+        long start = System.nanoTime();
+        long allocated = allocatedBytesOf(() -> {
+            try {
+                for (int i = 0; i < rounds; i++) {
+                    writer.write(text, 0, text.length);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long nanos = System.nanoTime() - start;
+        int lines = writer.lineIndex() - lineIndexBefore;
+
+        assertEquals(3 * rounds, lines);
+        assertTrue(allocated < lines / 10,
+                String.format("%d bytes allocated for %d lines (%d ns/line)", //NON-NLS
+                        allocated, lines, nanos / lines));
+    }
+}
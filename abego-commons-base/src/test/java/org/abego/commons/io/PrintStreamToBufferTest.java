@@ -26,9 +26,14 @@ package org.abego.commons.io;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.abego.commons.TestData.SAMPLE_TEXT;
+import static org.abego.commons.io.PrintStreamToBuffer.acquirePrintStreamToBuffer;
 import static org.abego.commons.io.PrintStreamToBuffer.newPrintStreamToBuffer;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 class PrintStreamToBufferTest {
 
@@ -47,4 +52,56 @@ class PrintStreamToBufferTest {
 
         assertEquals(SAMPLE_TEXT + SAMPLE_TEXT, stream.text());
     }
-}
\ No newline at end of file
+
+    @Test
+    void reset() {
+        PrintStreamToBuffer stream = newPrintStreamToBuffer();
+        stream.print(SAMPLE_TEXT);
+
+        stream.reset();
+
+        assertEquals("", stream.text());
+        stream.print("foo");
+        assertEquals("foo", stream.text());
+    }
+
+    @Test
+    void acquireAndRelease() {
+        PrintStreamToBuffer stream = acquirePrintStreamToBuffer();
+        stream.println("foo");
+        assertEquals("foo" + System.lineSeparator(), stream.text());
+        stream.release();
+        // releasing twice is OK
+        stream.release();
+
+        PrintStreamToBuffer stream2 = acquirePrintStreamToBuffer();
+        PrintStreamToBuffer stream3 = acquirePrintStreamToBuffer();
+
+        assertNotSame(stream2, stream3);
+        assertEquals("", stream2.text());
+        assertEquals("", stream3.text());
+        stream2.release();
+        stream3.release();
+    }
+
+    @Test
+    void release_closedStreamNotPooled() {
+        PrintStreamToBuffer closedStream;
+        try (PrintStreamToBuffer stream = acquirePrintStreamToBuffer()) {
+            stream.print("foo");
+            closedStream = stream;
+        }
+        closedStream.release();
+
+        // acquire more streams than the pool may hold
+        List<PrintStreamToBuffer> streams = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            PrintStreamToBuffer stream = acquirePrintStreamToBuffer();
+            streams.add(stream);
+            assertNotSame(closedStream, stream);
+            stream.print("bar");
+            assertEquals("bar", stream.text());
+        }
+        streams.forEach(PrintStreamToBuffer::release);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.io;
+
+import org.abego.commons.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.MissingResourceException;
+
+import static org.abego.commons.TestData.SAMPLE_TXT_RESOURCE_NAME;
+import static org.abego.commons.TestData.SAMPLE_TXT_TEXT;
+import static org.abego.commons.io.TextFileCacheDefault.newTextFileCacheDefault;
+import static org.abego.commons.io.WriterUtil.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextFileCacheDefaultTest {
+
+    @Test
+    void textOf(@TempDir File dir) {
+        File file = new File(dir, "a.txt");
+        write(file, "foo");
+        TextFileCache cache = newTextFileCacheDefault();
+
+        assertEquals(0, cache.hitRate());
+        assertEquals("foo", cache.textOf(file));
+        assertEquals("foo", cache.textOf(file));
+        assertEquals("foo", cache.textOf(file));
+
+        assertEquals(1, cache.missCount());
+        assertEquals(2, cache.hitCount());
+        assertEquals(2.0 / 3, cache.hitRate());
+        assertEquals(3, cache.cachedCharCount());
+    }
+
+    @Test
+    void textOf_changedFile(@TempDir File dir) {
+        File file = new File(dir, "a.txt");
+        write(file, "foo");
+        TextFileCache cache = newTextFileCacheDefault();
+        assertEquals("foo", cache.textOf(file));
+
+        write(file, "foobar");
+
+        assertEquals("foobar", cache.textOf(file));
+        assertEquals(2, cache.missCount());
+        assertEquals(6, cache.cachedCharCount());
+
+        // also detect changes with same size, but different modification time
+        write(file, "barbaz");
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+        assertEquals("barbaz", cache.textOf(file));
+        assertEquals(3, cache.missCount());
+    }
+
+    @Test
+    void textOf_missingFile(@TempDir File dir) {
+        TextFileCache cache = newTextFileCacheDefault();
+
+        assertThrows(UncheckedIOException.class,
+                () -> cache.textOf(new File(dir, "missing.txt")));
+    }
+
+    @Test
+    void eviction(@TempDir File dir) {
+        TextFileCache cache = newTextFileCacheDefault(10);
+        File a = new File(dir, "a.txt");
+        File b = new File(dir, "b.txt");
+        File c = new File(dir, "c.txt");
+        File large = new File(dir, "large.txt");
+        write(a, "aaaa");
+        write(b, "bbbb");
+        write(c, "cccc");
+        write(large, "larger than the cache");
+
+        cache.textOf(a);
+        cache.textOf(b);
+        cache.textOf(a); // now b is least recently used
+        cache.textOf(c);
+
+        assertEquals(1, cache.evictionCount());
+        assertEquals(8, cache.cachedCharCount());
+        long misses = cache.missCount();
+        cache.textOf(a);
+        cache.textOf(c);
+        assertEquals(misses, cache.missCount());
+        cache.textOf(b);
+        assertEquals(misses + 1, cache.missCount());
+
+        // texts larger than the cache are not cached
+        assertEquals("larger than the cache", cache.textOf(large));
+        assertTrue(cache.cachedCharCount() <= 10);
+
+        cache.clear();
+        assertEquals(0, cache.cachedCharCount());
+    }
+
+    @Test
+    void textOfResource() {
+        TextFileCache cache = newTextFileCacheDefault();
+
+        assertEquals(SAMPLE_TXT_TEXT,
+                cache.textOfResource(TestData.class, SAMPLE_TXT_RESOURCE_NAME));
+        assertEquals(SAMPLE_TXT_TEXT,
+                cache.textOfResource(TestData.class, SAMPLE_TXT_RESOURCE_NAME));
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void textOfResource_missingResource() {
+        TextFileCache cache = newTextFileCacheDefault();
+
+        Exception e = assertThrows(Exception.class,
+                () -> cache.textOfResource(TestData.class, "missing.txt"));
+        assertTrue(e.getCause() instanceof MissingResourceException);
+    }
+
+    @Test
+    void newTextFileCacheDefault_negativeMax() {
+        assertThrows(IllegalArgumentException.class,
+                () -> newTextFileCacheDefault(-1));
+    }
+
+    @Test
+    void toStringTest() {
+        assertEquals(
+                "TextFileCacheDefault{texts=0, chars=0, hits=0, misses=0, evictions=0}",
+                newTextFileCacheDefault().toString());
+    }
+}
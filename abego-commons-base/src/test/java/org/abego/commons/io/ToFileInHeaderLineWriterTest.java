@@ -29,13 +29,22 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
-
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.abego.commons.io.AsyncFileOutput.newAsyncFileOutput;
 import static org.abego.commons.io.FileUtil.file;
 import static org.abego.commons.io.FileUtil.tempDirectoryForRun;
 import static org.abego.commons.io.FileUtil.tempFileForRun;
 import static org.abego.commons.io.ToFileInHeaderLineWriter.toFileInHeaderLineWriter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ToFileInHeaderLineWriterTest {
 
@@ -93,4 +102,134 @@ class ToFileInHeaderLineWriterTest {
 
         assertEquals(text, FileUtil.textOf(file));
     }
+
+    @Test
+    void asyncFileOutput_manyFiles() throws IOException {
+        File dir = tempDirectoryForRun();
+        int fileCount = 200;
+
+        try (AsyncFileOutput output = newAsyncFileOutput()) {
+            for (int i = 0; i < fileCount; i++) {
+                Writer writer = toFileInHeaderLineWriter(output);
+                writer.write(file(dir, "sub" + (i % 7) + "/file" + i + ".txt").getAbsolutePath());
+                writer.write("\n");
+                writer.write("hello\nfile " + i + "\r");
+                writer.close();
+            }
+        }
+
+        for (int i = 0; i < fileCount; i++) {
+            assertEquals("hello\nfile " + i + "\r",
+                    FileUtil.textOf(file(dir, "sub" + (i % 7) + "/file" + i + ".txt")));
+        }
+    }
+
+    @Test
+    void asyncFileOutput_largeFileWithSmallInFlightLimit() throws IOException {
+        File file = tempFileForRun();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("line ").append(i).append("\n");
+        }
+
+        try (AsyncFileOutput output = newAsyncFileOutput(2, 1000)) {
+            Writer writer = toFileInHeaderLineWriter(output);
+            writer.write(file.getAbsolutePath());
+            writer.write("\n");
+            // write in small pieces, to test the chunking
+            for (int i = 0; i < text.length(); i += 100) {
+                writer.write(text.substring(i, Math.min(i + 100, text.length())));
+            }
+            writer.flush();
+            writer.close();
+        }
+
+        assertEquals(text.toString(), FileUtil.textOf(file));
+    }
+
+    @Test
+    void asyncFileOutput_failureReportedOnClose() throws IOException {
+        File dir = tempDirectoryForRun();
+        // a directory cannot be written as a file
+        File file = file(dir, "sub");
+        FileUtil.ensureDirectoryExists(file);
+
+        AsyncFileOutput output = newAsyncFileOutput();
+        Writer writer = toFileInHeaderLineWriter(output);
+        writer.write(file.getAbsolutePath());
+        writer.write("\nhello");
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // the failure may already be detected here, but is also
+            // reported by output.close().
+            assertTrue(e.getMessage().contains(file.getAbsolutePath()));
+        }
+
+        IOException e = assertThrows(IOException.class, output::close);
+        assertTrue(e.getMessage().contains(file.getAbsolutePath()));
+    }
+
+    @Test
+    void asyncFileOutput_writeAfterClose() throws IOException {
+        AsyncFileOutput output = newAsyncFileOutput();
+        output.close();
+
+        Writer writer = toFileInHeaderLineWriter(output);
+        writer.write(tempFileForRun().getAbsolutePath());
+
+        assertThrows(IOException.class, () -> writer.write("\n"));
+    }
+
+    /**
+     * Files are written and closed while the AsyncFileOutput is closed
+     * concurrently. Every file whose close succeeded must be completely
+     * written when the AsyncFileOutput's close returned.
+     */
+    @Test
+    void asyncFileOutput_closeWhileFilesAreClosed() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            File dir = tempDirectoryForRun();
+            int fileCount = 50;
+            AsyncFileOutput output = newAsyncFileOutput(2, 1000);
+            List<File> closedFiles = new CopyOnWriteArrayList<>();
+            CountDownLatch writerStarted = new CountDownLatch(1);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> writing = executor.submit(() -> {
+                    for (int i = 0; i < fileCount; i++) {
+                        File file = file(dir, "file" + i + ".txt");
+                        try {
+                            Writer writer = toFileInHeaderLineWriter(output);
+                            writer.write(file.getAbsolutePath());
+                            writer.write("\nhello " + i);
+                            writer.close();
+                            closedFiles.add(file);
+                        } catch (IOException e) {
+                            // the output is already closed
+                        }
+                        writerStarted.countDown();
+                    }
+                });
+                writerStarted.await();
+
+                output.close();
+                writing.get(10, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            for (File file : closedFiles) {
+                assertTrue(FileUtil.textOf(file).startsWith("hello "));
+            }
+        }
+    }
+
+    @Test
+    void newAsyncFileOutput_invalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> newAsyncFileOutput(0, 1000));
+        assertThrows(IllegalArgumentException.class,
+                () -> newAsyncFileOutput(1, 0));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.abego.commons.jsonpointer.JSONPatch.jsonEquals;
+import static org.abego.commons.jsonpointer.JSONPatch.newJSONPatch;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link JSONPatch}, mainly using the examples of appendix A of
+ * RFC 6902.
+ */
+class JSONPatchTest {
+
+    private static Map<String, @Nullable Object> map(@Nullable Object... keysAndValues) {
+        Map<String, @Nullable Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            result.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return result;
+    }
+
+    private static List<@Nullable Object> list(@Nullable Object... items) {
+        return new ArrayList<>(Arrays.asList(items));
+    }
+
+    private static Map<String, @Nullable Object> op(
+            String op, String path, @Nullable Object value) {
+        return map("op", op, "path", path, "value", value);
+    }
+
+    private static Map<String, @Nullable Object> opFrom(
+            String op, String from, String path) {
+        return map("op", op, "from", from, "path", path);
+    }
+
+    private static @Nullable Object apply(
+            @Nullable Object document, List<Map<String, @Nullable Object>> operations) {
+        return newJSONPatch(operations).applyTo(document);
+    }
+
+    @Test
+    void addObjectMember() {
+        Object doc = map("foo", "bar");
+
+        Object result = apply(doc, Collections.singletonList(op("add", "/baz", "qux")));
+
+        assertSame(doc, result);
+        assertEquals(map("foo", "bar", "baz", "qux"), result);
+    }
+
+    @Test
+    void addArrayElement() {
+        Object doc = map("foo", list("bar", "baz"));
+
+        Object result = apply(doc, Collections.singletonList(op("add", "/foo/1", "qux")));
+
+        assertEquals(map("foo", list("bar", "qux", "baz")), result);
+    }
+
+    @Test
+    void removeObjectMember() {
+        Object doc = map("baz", "qux", "foo", "bar");
+
+        Object result = apply(doc, Collections.singletonList(map("op", "remove", "path", "/baz")));
+
+        assertEquals(map("foo", "bar"), result);
+    }
+
+    @Test
+    void removeArrayElement() {
+        Object doc = map("foo", list("bar", "qux", "baz"));
+
+        Object result = apply(doc, Collections.singletonList(map("op", "remove", "path", "/foo/1")));
+
+        assertEquals(map("foo", list("bar", "baz")), result);
+    }
+
+    @Test
+    void replaceValue() {
+        Object doc = map("baz", "qux", "foo", "bar");
+
+        Object result = apply(doc, Collections.singletonList(op("replace", "/baz", "boo")));
+
+        assertEquals(map("baz", "boo", "foo", "bar"), result);
+    }
+
+    @Test
+    void replaceValue_missingTarget() {
+        Object doc = map("foo", "bar");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> apply(doc, Collections.singletonList(op("replace", "/baz", "boo"))));
+
+        assertEquals("Error in JSON Patch operation 0 (replace '/baz'): Error in '/baz': Map is missing key 'baz'",
+                e.getMessage());
+    }
+
+    @Test
+    void moveValue() {
+        Object doc = map(
+                "foo", map("bar", "baz", "waldo", "fred"),
+                "qux", map("corge", "grault"));
+
+        Object result = apply(doc, Collections.singletonList(
+                opFrom("move", "/foo/waldo", "/qux/thud")));
+
+        assertEquals(map(
+                "foo", map("bar", "baz"),
+                "qux", map("corge", "grault", "thud", "fred")), result);
+    }
+
+    @Test
+    void moveArrayElement() {
+        Object doc = map("foo", list("all", "grass", "cows", "eat"));
+
+        Object result = apply(doc, Collections.singletonList(
+                opFrom("move", "/foo/1", "/foo/3")));
+
+        assertEquals(map("foo", list("all", "cows", "eat", "grass")), result);
+    }
+
+    @Test
+    void moveIntoChild() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(opFrom("move", "/a", "/a/b"))));
+
+        assertEquals("Error in JSON Patch operation 0: a value must not be moved into one of its children",
+                e.getMessage());
+    }
+
+    @Test
+    void testValue_success() {
+        Object doc = map("baz", "qux", "foo", list("a", 2, "c"));
+
+        Object result = apply(doc, Arrays.asList(
+                op("test", "/baz", "qux"),
+                op("test", "/foo/1", 2L),
+                op("test", "/foo", list("a", 2.0, "c"))));
+
+        assertEquals(map("baz", "qux", "foo", list("a", 2, "c")), result);
+    }
+
+    @Test
+    void testValue_error() {
+        Object doc = map("baz", "qux");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> apply(doc, Collections.singletonList(op("test", "/baz", "bar"))));
+
+        assertEquals("Error in JSON Patch operation 0 (test '/baz'): test failed", e.getMessage());
+    }
+
+    @Test
+    void addNestedMember() {
+        Object doc = map("foo", "bar");
+
+        Object result = apply(doc, Collections.singletonList(
+                op("add", "/child", map("grandchild", map()))));
+
+        assertEquals(map("foo", "bar", "child", map("grandchild", map())), result);
+    }
+
+    @Test
+    void addToNonexistentTarget() {
+        Object doc = map("foo", "bar");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> apply(doc, Collections.singletonList(op("add", "/baz/bat", "qux"))));
+
+        assertEquals("Error in JSON Patch operation 0 (add '/baz/bat'): Error in '/baz/bat': Map is missing key 'baz'",
+                e.getMessage());
+    }
+
+    @Test
+    void tildeEscapeOrdering() {
+        Object doc = map("/", 9, "~1", 10);
+
+        Object result = apply(doc, Collections.singletonList(op("test", "/~01", 10)));
+
+        assertSame(doc, result);
+    }
+
+    @Test
+    void comparingStringsAndNumbers() {
+        Object doc = map("/", 9, "~1", 10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> apply(doc, Collections.singletonList(op("test", "/~01", "10"))));
+    }
+
+    @Test
+    void addArrayValue() {
+        Object doc = map("foo", list("bar"));
+
+        Object result = apply(doc, Collections.singletonList(
+                op("add", "/foo/-", list("abc", "def"))));
+
+        assertEquals(map("foo", list("bar", list("abc", "def"))), result);
+    }
+
+    @Test
+    void copyValue() {
+        List<@Nullable Object> source = list("a", map("b", 1));
+        Object doc = map("source", source);
+
+        Object result = apply(doc, Collections.singletonList(
+                opFrom("copy", "/source", "/target")));
+
+        @Nullable Object target = JSONPointer.of("/target").apply(result);
+        assertEquals(source, target);
+        // a deep copy
+        assertNotSame(source, target);
+        assertNotSame(source.get(1), JSONPointer.of("/target/1").apply(result));
+    }
+
+    @Test
+    void replaceDocument() {
+        Object doc = map("foo", "bar");
+        Object newDoc = map("baz", "qux");
+
+        assertSame(newDoc, apply(doc, Collections.singletonList(op("replace", "", newDoc))));
+        assertSame(newDoc, apply(doc, Collections.singletonList(op("add", "", newDoc))));
+    }
+
+    @Test
+    void invalidOperations() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(op("foo", "/a", 1))));
+        assertEquals("Error in JSON Patch operation 0: unknown op 'foo'", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(map("op", "add", "path", "/a"))));
+        assertEquals("Error in JSON Patch operation 0: missing member 'value'", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(map("op", "copy", "path", "/a"))));
+        assertEquals("Error in JSON Patch operation 0: missing member 'from'", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(map("op", "remove", "path", 1))));
+        assertEquals("Error in JSON Patch operation 0: member 'path' must be a string", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPatch(Collections.singletonList(map("op", "remove", "path", "a"))));
+        assertEquals("Error in JSON Patch operation 0: Error in 'a': must start with '/' or be empty", e.getMessage());
+    }
+
+    @Test
+    void applyTo_largePatch() {
+        List<@Nullable Object> items = list();
+        Map<String, @Nullable Object> doc = map("items", items);
+        List<Map<String, @Nullable Object>> operations = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            operations.add(op("add", "/items/-", map("id", i)));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            operations.add(op("replace", "/items/" + i + "/id", -i));
+        }
+        JSONPatch patch = newJSONPatch(operations);
+
+        patch.applyTo(doc);
+
+        assertEquals(15_000, patch.size());
+        assertEquals(10_000, items.size());
+        assertEquals(-4, JSONPointer.of("/items/4/id").apply(doc));
+        assertEquals(5, JSONPointer.of("/items/5/id").apply(doc));
+    }
+
+    @Test
+    void jsonEqualsOk() {
+        assertTrue(jsonEquals(1, 1.0));
+        assertTrue(jsonEquals(null, null));
+        assertTrue(jsonEquals(new Object[]{"a", 1}, list("a", 1L)));
+        assertTrue(jsonEquals(map("a", 1, "b", 2), map("b", 2.0, "a", 1)));
+        assertTrue(jsonEquals(Double.NaN, Double.NaN));
+        assertFalse(jsonEquals(map("a", 1), map("a", 1, "b", 2)));
+        assertFalse(jsonEquals(map("a", 1), map("b", 1)));
+        assertFalse(jsonEquals(list("a"), list("a", "b")));
+        assertFalse(jsonEquals("1", 1));
+        assertFalse(jsonEquals(null, 1));
+    }
+}
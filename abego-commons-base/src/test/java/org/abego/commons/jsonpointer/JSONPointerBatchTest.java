@@ -0,0 +1,342 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.abego.commons.TestUtil.allocatedBytesOf;
+import static org.abego.commons.jsonpointer.JSONPointer.referencedValue;
+import static org.abego.commons.jsonpointer.JSONPointerBatch.newJSONPointerBatch;
+import static org.abego.commons.util.ListUtil.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JSONPointerBatchTest {
+
+    private static Map<String, @Nullable Object> item(String name, int id) {
+        Map<String, @Nullable Object> result = new HashMap<>();
+        result.put("name", name);
+        result.put("id", id);
+        result.put("tags", new String[]{name + "-tag"});
+        result.put("note", null);
+        return result;
+    }
+
+    private static Map<String, Object> sampleDocument() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("items", toList(item("a", 0), item("b", 1), item("c", 2), item("d", 3)));
+        data.put("count", 4);
+        Map<String, Object> document = new HashMap<>();
+        document.put("data", data);
+        document.put("a/b", "slash");
+        return document;
+    }
+
+    @Test
+    void valuesOfOk() {
+        Map<String, Object> document = sampleDocument();
+        JSONPointerBatch batch = newJSONPointerBatch(
+                "/data/items/3/name",
+                "/data/items/3/id",
+                "/data/items/0/tags/0",
+                "/data/count",
+                "/a~1b",
+                "");
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOf(document);
+
+        assertEquals(6, values.size());
+        for (JSONPointer pointer : batch.pointers()) {
+            assertEquals(pointer.apply(document), values.get(pointer));
+        }
+        assertEquals("d", values.get(JSONPointer.of("/data/items/3/name")));
+        assertSame(document, values.get(JSONPointer.of("")));
+    }
+
+    @Test
+    void valuesOf_missingValues() {
+        Map<String, Object> document = sampleDocument();
+        JSONPointerBatch batch = newJSONPointerBatch(
+                "/data/items/3/note",
+                "/data/items/4/name",
+                "/data/items/-1/name",
+                "/data/items/x",
+                "/data/missing",
+                "/data/count/0",
+                "/data/items/1/name");
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOf(document);
+
+        assertEquals(2, values.size());
+        assertTrue(values.containsKey(JSONPointer.of("/data/items/3/note")));
+        assertNull(values.get(JSONPointer.of("/data/items/3/note")));
+        assertEquals("b", values.get(JSONPointer.of("/data/items/1/name")));
+    }
+
+    @Test
+    void valuesOf_iterable() {
+        Set<String> set = new LinkedHashSet<>(Arrays.asList("a", "b", "c"));
+        AtomicInteger iteratorCount = new AtomicInteger();
+        Iterable<String> iterable = () -> {
+            iteratorCount.incrementAndGet();
+            return set.iterator();
+        };
+        JSONPointerBatch batch = newJSONPointerBatch("/0", "/2", "/02", "/5");
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOf(iterable);
+
+        assertEquals("a", values.get(JSONPointer.of("/0")));
+        assertEquals("c", values.get(JSONPointer.of("/2")));
+        assertEquals("c", values.get(JSONPointer.of("/02")));
+        assertFalse(values.containsKey(JSONPointer.of("/5")));
+        // the iterable is only iterated once
+        assertEquals(1, iteratorCount.get());
+    }
+
+    @Test
+    void pointers_duplicatesRemoved() {
+        JSONPointerBatch batch = newJSONPointerBatch(
+                JSONPointer.of("/a"), JSONPointer.of("/b"), JSONPointer.of("/a"));
+
+        assertEquals(Arrays.asList(JSONPointer.of("/a"), JSONPointer.of("/b")),
+                new ArrayList<>(batch.pointers()));
+    }
+
+    @Test
+    void forEachValue_sharedPrefixNavigatedOnce() {
+        AtomicInteger getCount = new AtomicInteger();
+        Map<String, Object> inner = new HashMap<>();
+        inner.put("x", 1);
+        inner.put("y", 2);
+        Map<String, Object> outer = new HashMap<String, Object>() {
+            @Override
+            public Object get(Object key) {
+                getCount.incrementAndGet();
+                return super.get(key);
+            }
+        };
+        outer.put("prefix", inner);
+        JSONPointerBatch batch = newJSONPointerBatch(
+                "/prefix/x", "/prefix/y", "/prefix");
+        List<String> visited = new ArrayList<>();
+
+        batch.forEachValue(outer, (p, v) -> visited.add(p + "=" + v));
+
+        assertEquals(1, getCount.get());
+        assertEquals(3, visited.size());
+        assertTrue(visited.contains("/prefix/x=1"));
+        assertTrue(visited.contains("/prefix/y=2"));
+    }
+
+    @Test
+    void valuesOf_manyPointers() {
+        Map<String, Object> document = new HashMap<>();
+        List<String> pointers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("value", i);
+            document.put("k" + i, entry);
+            pointers.add("/k" + i + "/value");
+        }
+        JSONPointerBatch batch = newJSONPointerBatch(pointers.toArray(new String[0]));
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOf(document);
+
+        assertEquals(500, values.size());
+        Iterator<String> iterator = pointers.iterator();
+        for (int i = 0; i < 500; i++) {
+            String pointer = iterator.next();
+            assertEquals(referencedValue(document, pointer),
+                    values.get(JSONPointer.of(pointer)));
+        }
+    }
+
+    private static final String SAMPLE_JSON = "{\n" +
+            "  \"meta\": {\"skipped\": [1, 2, {\"x\": \"}]\"}], \"count\": 3},\n" +
+            "  \"items\": [\n" +
+            "    {\"name\": \"a\", \"id\": 1, \"tags\": [\"a-tag\"]},\n" +
+            "    {\"name\": \"b\", \"id\": 2, \"tags\": []},\n" +
+            "    {\"name\": \"c\", \"id\": 3, \"note\": null}\n" +
+            "  ],\n" +
+            "  \"a/b\": true,\n" +
+            "  \"0\": \"zero\"\n" +
+            "}";
+
+    @Test
+    void valuesOfJSON_ok() {
+        JSONPointerBatch batch = newJSONPointerBatch(
+                "/meta/count", "/items/1/name", "/items/2/note", "/items/0",
+                "/items/0/tags/0", "/a~1b", "/0", "/items/9/name", "/meta/missing",
+                "/meta/count/x", "/items/name");
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOfJSON(new StringReader(SAMPLE_JSON));
+
+        Map<String, @Nullable Object> item0 = new LinkedHashMap<>();
+        item0.put("name", "a");
+        item0.put("id", 1L);
+        item0.put("tags", toList("a-tag"));
+        assertEquals(7, values.size());
+        assertEquals(3L, values.get(JSONPointer.of("/meta/count")));
+        assertEquals("b", values.get(JSONPointer.of("/items/1/name")));
+        assertTrue(values.containsKey(JSONPointer.of("/items/2/note")));
+        assertNull(values.get(JSONPointer.of("/items/2/note")));
+        assertEquals(item0, values.get(JSONPointer.of("/items/0")));
+        assertEquals("a-tag", values.get(JSONPointer.of("/items/0/tags/0")));
+        assertEquals(true, values.get(JSONPointer.of("/a~1b")));
+        assertEquals("zero", values.get(JSONPointer.of("/0")));
+    }
+
+    @Test
+    void valuesOfJSON_byteBuffer() {
+        JSONPointerBatch batch = newJSONPointerBatch("/items/2/name", "/meta/skipped/2/x", "");
+        ByteBuffer bytes = ByteBuffer.wrap(SAMPLE_JSON.getBytes(StandardCharsets.UTF_8));
+
+        Map<JSONPointer, @Nullable Object> values = batch.valuesOfJSON(bytes);
+
+        assertEquals(3, values.size());
+        assertEquals("c", values.get(JSONPointer.of("/items/2/name")));
+        assertEquals("}]", values.get(JSONPointer.of("/meta/skipped/2/x")));
+        assertEquals(values.get(JSONPointer.of("")),
+                newJSONPointerBatch("").valuesOfJSON(new StringReader(SAMPLE_JSON))
+                        .get(JSONPointer.of("")));
+        assertEquals(0, bytes.position());
+    }
+
+    @Test
+    void forEachValueOfJSON_documentOrder() {
+        JSONPointerBatch batch = newJSONPointerBatch("/0", "/items/2/id", "/meta/count");
+        List<String> visited = new ArrayList<>();
+
+        batch.forEachValueOfJSON(new StringReader(SAMPLE_JSON),
+                (p, v) -> visited.add(p + "=" + v));
+
+        assertEquals(toList("/meta/count=3", "/items/2/id=3", "/0=zero"), visited);
+    }
+
+    @Test
+    void forEachValueOfJSON_stopsWhenAllPointersAreResolved() {
+        // the JSON text after the "meta" member is invalid, so reading it
+        // would fail.
+        String json = "{\"meta\": {\"count\": 3, \"skipped\": 4}, \"items\": [ ...";
+        CountingReader reader = new CountingReader(json);
+        Map<JSONPointer, @Nullable Object> values =
+                newJSONPointerBatch("/meta/count", "/meta/other").valuesOfJSON(reader);
+
+        assertEquals(1, values.size());
+        assertEquals(3L, values.get(JSONPointer.of("/meta/count")));
+        assertTrue(reader.readCount < json.indexOf("items"));
+
+        // when a pointer is not resolved reading continues
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> newJSONPointerBatch("/meta/count", "/items/0")
+                        .valuesOfJSON(new StringReader(json)));
+        assertEquals("Invalid JSON at offset 48: unexpected '.'", e.getMessage());
+    }
+
+    @Test
+    void forEachValueOfJSON_noPointers() {
+        CountingReader reader = new CountingReader("[1]");
+
+        assertTrue(newJSONPointerBatch(new String[0]).valuesOfJSON(reader).isEmpty());
+        assertEquals(0, reader.readCount);
+    }
+
+    /**
+     * A micro benchmark: skipping values not referenced by a pointer must
+     * not allocate objects (per skipped value).
+     */
+    @Test
+    void forEachValueOfJSON_noAllocationForSkippedValues() {
+        int itemCount = 100_000;
+        StringBuilder json = new StringBuilder("{\"items\": [");
+        for (int i = 0; i < itemCount; i++) {
+            json.append("{\"name\": \"item").append(i)
+                    .append("\", \"id\": ").append(i)
+                    .append(", \"tags\": [\"x\", 1.5, true, null]},\n");
+        }
+        json.append("{\"name\": \"last\"}], \"count\": ").append(itemCount + 1).append("}");
+        ByteBuffer bytes = ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8));
+        JSONPointerBatch batch = newJSONPointerBatch(
+                "/items/" + itemCount + "/name", "/count");
+
+        // warm up (e.g. let the JIT compile the code)
+        assertEquals(2, batch.valuesOfJSON(bytes).size());
+
+        List<Map<JSONPointer, @Nullable Object>> result = new ArrayList<>(1);
+        long allocated = allocatedBytesOf(() -> result.add(batch.valuesOfJSON(bytes)));
+        Map<JSONPointer, @Nullable Object> values = result.get(0);
+
+        assertEquals("last", values.get(JSONPointer.of("/items/" + itemCount + "/name")));
+        assertEquals((long) itemCount + 1, values.get(JSONPointer.of("/count")));
+        assertTrue(allocated < itemCount,
+                String.format("%d bytes allocated when skipping %d items", //NON-NLS
+                        allocated, itemCount));
+    }
+
+    private static final class CountingReader extends Reader {
+        private final String text;
+        private int readCount;
+
+        private CountingReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (readCount >= text.length()) {
+                return -1;
+            }
+            // deliver one character per call, to be able to tell how far
+            // the text was read.
+            buffer[offset] = text.charAt(readCount++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
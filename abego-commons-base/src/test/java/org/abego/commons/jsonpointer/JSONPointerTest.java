@@ -24,16 +24,21 @@
 
 package org.abego.commons.jsonpointer;
 
+import org.abego.commons.seq.AbstractSeq;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.abego.commons.TestUtil.allocatedBytesOf;
 import static org.abego.commons.jsonpointer.JSONPointer.newJSONPointer;
 import static org.abego.commons.jsonpointer.JSONPointer.referencedValue;
 import static org.abego.commons.lang.StringUtil.array;
@@ -42,6 +47,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -319,4 +327,279 @@ class JSONPointerTest {
         assertEquals(jp.hashCode(), jp2.hashCode());
         Assertions.assertNotEquals(jp.hashCode(), jp3.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void of_returnsCachedPointer() {
+        JSONPointer jp = JSONPointer.of("/foo/0");
+
+        assertSame(jp, JSONPointer.of("/foo/0"));
+        assertNotSame(jp, newJSONPointer("/foo/0"));
+        assertEquals(jp, newJSONPointer("/foo/0"));
+    }
+
+    @Test
+    void of_manyPointers() {
+        for (int i = 0; i < 3 * JSONPointer.MAX_CACHED_POINTERS; i++) {
+            assertEquals("/" + i, JSONPointer.of("/" + i).toString());
+        }
+    }
+
+    @Test
+    void referencedValue_emptyTokens() {
+        Map<String, Object> inner = new HashMap<>();
+        inner.put("", "x");
+        Map<String, Object> outer = new HashMap<>();
+        outer.put("", inner);
+
+        assertEquals("x", referencedValue(outer, "//"));
+    }
+
+    @Test
+    void referencedValue_nullValue() {
+        Map<String, @Nullable Object> map = new HashMap<>();
+        map.put("a", null);
+
+        assertNull(referencedValue(map, "/a"));
+    }
+
+    @Test
+    void getLastToken_escaped() {
+        assertEquals("a/b", JSONPointer.of("/a~1b").getLastToken());
+        assertEquals("~1", JSONPointer.of("/~01").getLastToken());
+        assertEquals("m~n", JSONPointer.of("/x/m~0n").getLastToken());
+        // not a valid escape, kept as is
+        assertEquals("a~2~", JSONPointer.of("/a~2~").getLastToken());
+    }
+
+    /**
+     * A micro benchmark: evaluating a JSONPointer must not allocate objects.
+     */
+    @Test
+    void apply_noAllocation() {
+        Map<String, Object> item = new HashMap<>();
+        item.put("name", "foo");
+        item.put("tags", sampleArray);
+        Map<String, Object> data = new HashMap<>();
+        data.put("items", toList(item, item, item, item));
+        Map<String, Object> document = new HashMap<>();
+        document.put("data", data);
+        JSONPointer jp = JSONPointer.of("/data/items/3/tags/2");
+        int rounds = 100_000;
+
+        // warm up (e.g. let the JIT compile the code)
+        for (int i = 0; i < rounds; i++) {
+            assertSame("c", jp.apply(document));
+        }
+
+        @Nullable Object[] result = new Object[1];
+        long allocated = allocatedBytesOf(() -> {
+            for (int i = 0; i < rounds; i++) {
+                result[0] = jp.apply(document);
+            }
+        });
+
+        assertEquals("c", result[0]);
+        assertTrue(allocated < rounds / 10,
+                String.format("%d bytes allocated for %d evaluations", //NON-NLS
+                        allocated, rounds));
+    }
+
+    @Test
+    void set_ok() {
+        Map<String, Object> document = new HashMap<>();
+        document.put("list", new ArrayList<>(toList("a", "b")));
+        document.put("array", array("x", "y"));
+
+        assertEquals("b", JSONPointer.of("/list/1").set(document, "B"));
+        assertEquals("x", JSONPointer.of("/array/0").set(document, "X"));
+        assertNull(JSONPointer.of("/new").set(document, 1));
+        assertEquals(1, JSONPointer.of("/new").set(document, 2));
+
+        assertEquals(toList("a", "B"), document.get("list"));
+        assertEquals("X", referencedValue(document, "/array/0"));
+        assertEquals(2, document.get("new"));
+    }
+
+    @Test
+    void set_errors() {
+        Map<String, Object> document = new HashMap<>();
+        document.put("list", new ArrayList<>(toList("a", "b")));
+        document.put("text", "abc");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/list/2").set(document, "c"));
+        assertEquals("Error in '/list/2': expected 0 < index < 2, got index with: 2", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/text/0").set(document, "c"));
+        assertEquals("Error in '/text/0': expected Map, array or List as parent, got: java.lang.String", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/missing/0").set(document, "c"));
+        assertEquals("Error in '/missing/0': Map is missing key 'missing'", e.getMessage());
+
+        IllegalStateException e2 = assertThrows(IllegalStateException.class,
+                () -> JSONPointer.of("").set(document, "c"));
+        assertEquals(JSONPointer.UNSUPPORTED_FOR_ROOT, e2.getMessage());
+    }
+
+    @Test
+    void add_ok() {
+        Map<String, Object> document = new HashMap<>();
+        List<String> list = new ArrayList<>(toList("a", "c"));
+        document.put("list", list);
+
+        JSONPointer.of("/list/1").add(document, "b");
+        JSONPointer.of("/list/-").add(document, "d");
+        JSONPointer.of("/list/4").add(document, "e");
+        JSONPointer.of("/list/0").add(document, "_");
+        JSONPointer.of("/key").add(document, "value");
+
+        assertEquals(toList("_", "a", "b", "c", "d", "e"), list);
+        assertEquals("value", document.get("key"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/list/7").add(document, "x"));
+        assertEquals("Error in '/list/7': expected 0 < index < 7, got index with: 7", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/list/x").add(document, "x"));
+        assertEquals("Error in '/list/x': expected index, got: 'x'", e.getMessage());
+    }
+
+    @Test
+    void remove_ok() {
+        Map<String, Object> document = new HashMap<>();
+        List<String> list = new ArrayList<>(toList("a", "b", "c"));
+        document.put("list", list);
+        document.put("key", "value");
+
+        assertEquals("b", JSONPointer.of("/list/1").remove(document));
+        assertEquals("value", JSONPointer.of("/key").remove(document));
+
+        assertEquals(toList("a", "c"), list);
+        assertFalse(document.containsKey("key"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/key").remove(document));
+        assertEquals("Error in '/key': Map is missing key 'key'", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/list/2").remove(document));
+        assertEquals("Error in '/list/2': expected 0 < index < 2, got index with: 2", e.getMessage());
+    }
+
+    @Test
+    void isInside() {
+        assertTrue(JSONPointer.of("/a/b").isInside(JSONPointer.of("/a")));
+        assertTrue(JSONPointer.of("/a").isInside(JSONPointer.of("")));
+        assertFalse(JSONPointer.of("/a").isInside(JSONPointer.of("/a")));
+        assertFalse(JSONPointer.of("/ab").isInside(JSONPointer.of("/a")));
+        assertFalse(JSONPointer.of("/a").isInside(JSONPointer.of("/a/b")));
+    }
+
+    /**
+     * A Seq that can only be accessed by index.
+     */
+    private static final class IndexOnlySeq extends AbstractSeq<String> {
+        private final String[] items;
+
+        private IndexOnlySeq(String... items) {
+            this.items = items;
+        }
+
+        @Override
+        public int size() {
+            return items.length;
+        }
+
+        @Override
+        public String item(int index) {
+            return items[index];
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    void apply_seqAccessedByIndex() {
+        Map<String, Object> document = new HashMap<>();
+        document.put("seq", new IndexOnlySeq("a", "b", "c"));
+
+        assertEquals("c", JSONPointer.of("/seq/2").apply(document));
+        assertEquals("a", JSONPointer.of("/seq/0").apply(document));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/seq/3").apply(document));
+        assertEquals("Error in '/seq/3': expected 0 < index < 3, got index with: 3",
+                e.getMessage());
+
+        Map<JSONPointer, @Nullable Object> values = JSONPointerBatch.newJSONPointerBatch(
+                "/seq/1", "/seq/2", "/seq/5").valuesOf(document);
+        assertEquals(2, values.size());
+        assertEquals("b", values.get(JSONPointer.of("/seq/1")));
+        assertEquals("c", values.get(JSONPointer.of("/seq/2")));
+    }
+
+    /**
+     * A node of a custom document model.
+     */
+    private static final class Record {
+        private final String[] names;
+        private final Object[] values;
+
+        private Record(String[] names, Object[] values) {
+            this.names = names;
+            this.values = values;
+        }
+    }
+
+    private static final class RecordAccessor implements JSONNodeAccessor {
+        @Override
+        public boolean isNode(Object value) {
+            return value instanceof Record;
+        }
+
+        @Override
+        public @Nullable Object childOrDefault(
+                Object node, String token, long index, @Nullable Object defaultValue) {
+            Record record = (Record) node;
+            for (int i = 0; i < record.names.length; i++) {
+                if (record.names[i].equals(token)) {
+                    return record.values[i];
+                }
+            }
+            return defaultValue;
+        }
+    }
+
+    @Test
+    void nodeAccessor() {
+        Record record = new Record(array("name", "tags"),
+                new Object[]{"foo", toList("x", "y")});
+        Map<String, Object> document = new HashMap<>();
+        document.put("record", record);
+        JSONNodeAccessor accessor = new RecordAccessor();
+
+        JSONPointer.addNodeAccessor(accessor);
+        try {
+            assertEquals("foo", JSONPointer.of("/record/name").apply(document));
+            assertEquals("y", JSONPointer.of("/record/tags/1").apply(document));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> JSONPointer.of("/record/id").apply(document));
+            assertEquals("Error in '/record/id': org.abego.commons.jsonpointer.JSONPointerTest$Record has no child 'id'",
+                    e.getMessage());
+            assertEquals(1, JSONPointerBatch.newJSONPointerBatch("/record/name", "/record/id")
+                    .valuesOf(document).size());
+        } finally {
+            JSONPointer.removeNodeAccessor(accessor);
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JSONPointer.of("/record/name").apply(document));
+        assertEquals("Expected Map, array or Iterable, got: org.abego.commons.jsonpointer.JSONPointerTest$Record",
+                e.getMessage());
+        // removing an accessor not added is OK
+        JSONPointer.removeNodeAccessor(accessor);
+    }
+}
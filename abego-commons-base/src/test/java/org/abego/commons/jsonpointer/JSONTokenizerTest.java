@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.jsonpointer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.abego.commons.jsonpointer.JSONTokenizer.EOF;
+import static org.abego.commons.jsonpointer.JSONTokenizer.newJSONTokenizer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JSONTokenizerTest {
+
+    private static JSONTokenizer tokenizer(String json) {
+        return newJSONTokenizer(new StringReader(json));
+    }
+
+    private static JSONTokenizer utf8Tokenizer(String json) {
+        return newJSONTokenizer(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void readValue_ok() {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("a", Arrays.asList(1L, -2.5, 1e3, true, false, null));
+        expected.put("b", "x\"\\/\b\f\n\r\t\u00e4");
+        expected.put("c", new BigInteger("123456789012345678901234567890"));
+        expected.put("d", Collections.emptyMap());
+        expected.put("e", Collections.emptyList());
+
+        assertEquals(expected, tokenizer(
+                " {\"a\" : [1, -2.5, 1e3, true, false, null],\n" +
+                        "\t\"b\": \"x\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e4\",\r\n" +
+                        "\"c\":123456789012345678901234567890, \"d\":{}, \"e\":[ ]} ")
+                .readValue());
+    }
+
+    @Test
+    void readValue_utf8() {
+        String text = "a\u00e4\u20ac\uD83D\uDE00z";
+
+        assertEquals(text, utf8Tokenizer("\"" + text + "\"").readValue());
+        assertEquals(text, tokenizer("\"" + text + "\"").readValue());
+    }
+
+    @Test
+    void readValue_utf8Malformed() {
+        byte[] bytes = {'"', 'a', (byte) 0xC3, '"', (byte) 0x80, '"'};
+
+        assertEquals("a\uFFFD", newJSONTokenizer(ByteBuffer.wrap(bytes)).readValue());
+    }
+
+    @Test
+    void readValue_utf8InvalidLeadBytes() {
+        for (int b = 0xF8; b <= 0xFF; b++) {
+            byte[] bytes = {'"', (byte) b, (byte) 0x80, (byte) 0x80, (byte) 0x80, 'a', '"'};
+
+            assertEquals("\uFFFD\uFFFD\uFFFD\uFFFDa",
+                    newJSONTokenizer(ByteBuffer.wrap(bytes)).readValue());
+        }
+    }
+
+    @Test
+    void readValue_doesNotReadAhead() throws IOException {
+        StringReader reader = new StringReader("[1, 2] [3]");
+
+        JSONTokenizer tokenizer = newJSONTokenizer(reader);
+
+        assertEquals(Arrays.asList(1L, 2L), tokenizer.readValue());
+        assertEquals(" [3]", readAll(reader));
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder result = new StringBuilder();
+        int c;
+        while ((c = reader.read()) >= 0) {
+            result.append((char) c);
+        }
+        return result.toString();
+    }
+
+    @Test
+    void readValue_doesNotChangeByteBufferPosition() {
+        ByteBuffer bytes = ByteBuffer.wrap("[1] 2".getBytes(StandardCharsets.UTF_8));
+
+        JSONTokenizer tokenizer = newJSONTokenizer(bytes);
+
+        assertEquals(Collections.singletonList(1L), tokenizer.readValue());
+        assertEquals(2L, tokenizer.readValue());
+        assertEquals(EOF, tokenizer.peekToken());
+        assertEquals(0, bytes.position());
+    }
+
+    @Test
+    void skipValue_ok() {
+        JSONTokenizer tokenizer = tokenizer(
+                "{\"a\":[1,{\"b\":\"]}\\\"\"}],\"c\":null} \"x\" -1.5e+3 true [\"y\"]");
+
+        tokenizer.skipValue();
+        tokenizer.skipValue();
+        tokenizer.skipValue();
+        tokenizer.skipValue();
+
+        assertEquals(Collections.singletonList("y"), tokenizer.readValue());
+        assertEquals(EOF, tokenizer.peekToken());
+    }
+
+    @Test
+    void invalidJSON() {
+        assertEquals("Invalid JSON at offset 5: expected ':', got '1'",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("{\"a\" 1}").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 6: expected ',', got '2'",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("[1, 1 2]").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 3: unterminated string",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("\"ab").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 3: invalid number '1-2'",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("1-2").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 0: unexpected '}'",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("}").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 3: expected 'l', got 'x'",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("nulx").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 0: unexpected end of JSON text",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("").readValue()).getMessage());
+        assertEquals("Invalid JSON at offset 4: unexpected end of JSON text",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("[[1]").skipValue()).getMessage());
+        for (String number : new String[]{
+                "1.5f", "1d", "01", "-", "1.", "1e", "1e+", "-01", "0x1", "1.5e3.2"}) {
+            assertEquals(String.format("Invalid JSON at offset %d: invalid number '%s'",
+                    number.length(), number),
+                    assertThrows(IllegalArgumentException.class,
+                            () -> tokenizer(number).readValue()).getMessage());
+        }
+        assertEquals("Invalid JSON at offset 4: invalid escape sequence",
+                assertThrows(IllegalArgumentException.class,
+                        () -> tokenizer("\"a\\x\"").readValue()).getMessage());
+    }
+
+    @Test
+    void readValue_null() {
+        assertNull(tokenizer("null").readValue());
+    }
+}
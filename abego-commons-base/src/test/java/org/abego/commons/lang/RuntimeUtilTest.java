@@ -26,13 +26,24 @@ package org.abego.commons.lang;
 
 import org.abego.commons.io.FileUtil;
 import org.abego.commons.lang.exception.MustNotInstantiateException;
+import org.abego.commons.timeout.TimeoutUncheckedException;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.abego.commons.lang.ObjectUtil.ignore;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RuntimeUtilTest {
 
@@ -59,4 +70,75 @@ class RuntimeUtilTest {
             ignore(file.delete());
         }
     }
+
+    @Test
+    void execAndReturnOutAndErr_withMuchOutputToStdErr() {
+        // more output to stderr than fits into a pipe. Reading stdout and
+        // stderr sequentially would block.
+        String s = RuntimeUtil.execAndReturnOutAndErr("sh", "-c",
+                "i=0; while [ $i -lt 20000 ]; do echo \"line $i\" 1>&2; i=$((i+1)); done; echo done");
+
+        assertTrue(s.startsWith("done\nline 0\nline 1\n"));
+        assertTrue(s.endsWith("line 19999\n"));
+    }
+
+    @Test
+    void execAndReturnResult() {
+        ProcessResult result = RuntimeUtil.execAndReturnResult(Duration.ofSeconds(30),
+                "sh", "-c", "echo foo; echo bar 1>&2; exit 3");
+
+        assertEquals(3, result.getExitCode());
+        assertEquals("foo\n", result.getOutput());
+        assertEquals("bar\n", result.getErrorOutput());
+        assertTrue(result.getDuration().toNanos() > 0);
+        assertTrue(result.toString().startsWith("ProcessResult{exitCode=3, duration="));
+    }
+
+    @Test
+    void execAndReturnResult_timeout() {
+        long startTime = System.nanoTime();
+
+        assertThrows(TimeoutUncheckedException.class,
+                () -> RuntimeUtil.execAndReturnResult(Duration.ofMillis(200), "sleep", "10"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - startTime).getSeconds() < 5);
+    }
+
+    @Test
+    void exec_lineHandlers() {
+        List<String> output = new ArrayList<>();
+        List<String> errorOutput = new ArrayList<>();
+
+        int exitCode = RuntimeUtil.exec(
+                Arrays.asList("sh", "-c", "echo a; echo b; echo c 1>&2"),
+                output::add, errorOutput::add, null);
+
+        assertEquals(0, exitCode);
+        assertEquals(Arrays.asList("a", "b"), output);
+        assertEquals(Collections.singletonList("c"), errorOutput);
+    }
+
+    @Test
+    void exec_manyProcessesInParallel() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProcessResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String text = "process " + i;
+                futures.add(executor.submit(() -> RuntimeUtil.execAndReturnResult(
+                        Duration.ofSeconds(30), "echo", text)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("process " + i + "\n", futures.get(i).get().getOutput());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void exec_missingCommand() {
+        assertThrows(UncheckedIOException.class, () -> RuntimeUtil.exec(
+                Collections.singletonList("no-such-command-xyz"), s -> {}, s -> {}, null));
+    }
 }
\ No newline at end of file
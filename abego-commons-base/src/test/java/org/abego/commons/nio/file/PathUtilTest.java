@@ -26,13 +26,21 @@ package org.abego.commons.nio.file;
 
 import org.abego.commons.lang.exception.MustNotInstantiateException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.abego.commons.io.FileUtil.fileForRun;
 import static org.abego.commons.io.FileUtil.tempDirectoryForRun;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -65,4 +73,100 @@ class PathUtilTest {
 
         assertTrue(dir.exists());
     }
+
+    private static Path sampleTree(Path root) throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Path dir = root.resolve("dir" + i + "/sub" + (i % 2));
+            Files.createDirectories(dir);
+            for (int j = 0; j < 4; j++) {
+                Files.write(dir.resolve("file" + j + ".txt"),
+                        ("content " + i + "/" + j).getBytes(UTF_8));
+            }
+        }
+        Files.createDirectories(root.resolve("empty"));
+        Files.write(root.resolve("top.txt"), new byte[100_000]);
+        return root;
+    }
+
+    @Test
+    void copyTree(@TempDir Path tempDir) throws IOException {
+        Path source = sampleTree(tempDir.resolve("source"));
+        Path target = tempDir.resolve("target");
+
+        PathUtil.copyTree(source, target);
+
+        assertTrue(Files.isDirectory(target.resolve("empty")));
+        assertEquals("content 3/2", new String(Files.readAllBytes(
+                target.resolve("dir3/sub1/file2.txt")), UTF_8));
+        assertEquals(PathUtil.sizeOfTree(source), PathUtil.sizeOfTree(target));
+        assertArrayEquals(PathUtil.hashOfTree(source), PathUtil.hashOfTree(target));
+    }
+
+    @Test
+    void copyTree_singleFile(@TempDir Path tempDir) throws IOException {
+        Path source = tempDir.resolve("a.txt");
+        Files.write(source, "foo".getBytes(UTF_8));
+        Path target = tempDir.resolve("b.txt");
+
+        PathUtil.copyTree(source, target, 1);
+
+        assertEquals("foo", new String(Files.readAllBytes(target), UTF_8));
+    }
+
+    @Test
+    void copyTree_missingSource(@TempDir Path tempDir) {
+        assertThrows(UncheckedIOException.class, () -> PathUtil.copyTree(
+                tempDir.resolve("missing"), tempDir.resolve("target")));
+    }
+
+    @Test
+    void deleteTree(@TempDir Path tempDir) throws IOException {
+        Path root = sampleTree(tempDir.resolve("root"));
+
+        PathUtil.deleteTree(root, 3);
+
+        assertFalse(Files.exists(root));
+        // deleting a missing tree is OK
+        PathUtil.deleteTree(root);
+    }
+
+    @Test
+    void sizeOfTree(@TempDir Path tempDir) throws IOException {
+        Path root = sampleTree(tempDir.resolve("root"));
+
+        assertEquals(100_000 + 20 * "content 0/0".length(),
+                PathUtil.sizeOfTree(root));
+        assertEquals(100_000, PathUtil.sizeOfTree(root.resolve("top.txt")));
+    }
+
+    @Test
+    void hashOfTree(@TempDir Path tempDir) throws IOException {
+        Path root = sampleTree(tempDir.resolve("root"));
+        byte[] hash = PathUtil.hashOfTree(root);
+
+        // independent of the parallelism
+        assertArrayEquals(hash, PathUtil.hashOfTree(root, "SHA-256", 1));
+
+        // content change
+        Path file = root.resolve("dir1/sub1/file0.txt");
+        Files.write(file, "changed".getBytes(UTF_8));
+        byte[] hash2 = PathUtil.hashOfTree(root);
+        assertFalse(Arrays.equals(hash, hash2));
+
+        // new empty directory
+        Files.createDirectories(root.resolve("dir1/new"));
+        assertFalse(Arrays.equals(hash2, PathUtil.hashOfTree(root)));
+    }
+
+    @Test
+    void hashOfTree_unknownAlgorithm(@TempDir Path tempDir) {
+        assertThrows(IllegalArgumentException.class,
+                () -> PathUtil.hashOfTree(tempDir, "no such algorithm", 1));
+    }
+
+    @Test
+    void deleteTree_invalidParallelism(@TempDir Path tempDir) {
+        assertThrows(IllegalArgumentException.class,
+                () -> PathUtil.deleteTree(tempDir, 0));
+    }
 }
\ No newline at end of file
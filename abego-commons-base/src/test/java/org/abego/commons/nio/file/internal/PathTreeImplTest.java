@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.commons.nio.file.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PathTreeImplTest {
+
+    @Test
+    void transferBytes(@TempDir Path tempDir) throws IOException {
+        Path source = tempDir.resolve("source");
+        Path target = tempDir.resolve("target");
+        byte[] bytes = "0123456789".getBytes(StandardCharsets.UTF_8);
+        Files.write(source, bytes);
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            PathTreeImpl.transferBytes(in, in.size(), out);
+        }
+
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+    }
+
+    @Test
+    void transferBytes_fileShrank(@TempDir Path tempDir) throws IOException {
+        Path source = tempDir.resolve("source");
+        Path target = tempDir.resolve("target");
+        Files.write(source, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // the file had 20 bytes when the copy started
+            IOException e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> assertThrows(IOException.class,
+                            () -> PathTreeImpl.transferBytes(in, 20, out)));
+
+            assertEquals("File shrank while copying: 10 of 20 bytes copied, current size: 10",
+                    e.getMessage());
+        }
+    }
+}